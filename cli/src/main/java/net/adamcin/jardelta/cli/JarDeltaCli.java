@@ -0,0 +1,262 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.cli;
+
+import net.adamcin.jardelta.core.Context;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Jars;
+import net.adamcin.jardelta.core.Plan;
+import net.adamcin.jardelta.core.Settings;
+import net.adamcin.jardelta.core.entry.DigestAlgorithm;
+import net.adamcin.jardelta.core.report.DeltaArchiveWriter;
+import net.adamcin.jardelta.core.report.DeltaReportWriter;
+import net.adamcin.jardelta.core.report.ReportFormat;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares two jars from the command line. Like {@code diff}, the exit status is {@code 0} when the jars have no
+ * diffs, {@code 1} when they do, and {@code 2} when the comparison could not be performed.
+ */
+public final class JarDeltaCli {
+    static final int EXIT_UNCHANGED = 0;
+    static final int EXIT_CHANGED = 1;
+    static final int EXIT_ERROR = 2;
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "usage: jardelta [options] <left> <right>",
+            "",
+            "Compare two jars (or directories) and print their diffs.",
+            "",
+            "options:",
+            "  --format <text|ndjson|json>  output format (default: text, one tab-separated 'verb kind name' per line)",
+            "  --digest <algorithm>         entry digest algorithm: SHA256 (default), CRC32C, or XXHASH64",
+            "  --nested-depth <n>           maximum depth of nested jars to compare (default: "
+                    + Settings.DEFAULT_NESTED_JAR_DEPTH + ")",
+            "  --compare-last-modified      also compare entry modification times",
+            "  --serial-parsing             parse SCR and MetaType descriptors one jar at a time",
+            "  --archive <file>             also write the delta to a binary archive file",
+            "  -q, --quiet                  print nothing, only set the exit status",
+            "  -h, --help                   print this help",
+            "",
+            "exit status: 0 if the jars have no diffs, 1 if they do, 2 on error");
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    JarDeltaCli(@NotNull PrintStream out, @NotNull PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(new JarDeltaCli(System.out, System.err).run(args));
+    }
+
+    int run(@NotNull String... args) {
+        final Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println("jardelta: " + e.getMessage());
+            err.println(USAGE);
+            return EXIT_ERROR;
+        }
+        if (options.help) {
+            out.println(USAGE);
+            return EXIT_UNCHANGED;
+        }
+        try {
+            for (Path path : List.of(options.left, options.right)) {
+                if (!Files.exists(path)) {
+                    throw new NoSuchFileException(path.toString());
+                }
+            }
+            final Delta delta = new Plan().execute(Context.builder()
+                    .jars(Jars.from(options.left, options.right))
+                    .settings(options.toSettings())
+                    .build());
+            if (options.archive != null) {
+                DeltaArchiveWriter.write(delta, options.archive);
+            }
+            if (!options.quiet) {
+                print(options, delta);
+            }
+            return delta.getResults().isEmpty() ? EXIT_UNCHANGED : EXIT_CHANGED;
+        } catch (NoSuchFileException e) {
+            err.println("jardelta: no such file: " + e.getMessage());
+            return EXIT_ERROR;
+        } catch (Exception e) {
+            err.println("jardelta: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getName()));
+            return EXIT_ERROR;
+        }
+    }
+
+    void print(@NotNull Options options, @NotNull Delta delta) throws IOException {
+        if (options.format == null) {
+            delta.getResults().stream().forEachOrdered(diff -> out.println(
+                    diff.getVerb() + "\t" + diff.getKind() + "\t" + diff.getName()));
+            return;
+        }
+        final OutputStream unclosable = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+        try (DeltaReportWriter reportWriter = new DeltaReportWriter(
+                new OutputStreamWriter(unclosable, StandardCharsets.UTF_8), options.format)) {
+            reportWriter.writeDelta(String.valueOf(options.right.getFileName()), delta,
+                    new Plan().getRefinementKinds());
+        }
+    }
+
+    /**
+     * The parsed command line.
+     */
+    static final class Options {
+        private Path left;
+        private Path right;
+        private ReportFormat format;
+        private DigestAlgorithm digestAlgorithm = DigestAlgorithm.SHA256;
+        private int nestedJarDepth = Settings.DEFAULT_NESTED_JAR_DEPTH;
+        private boolean compareLastModified;
+        private boolean parallelDescriptorParsing = true;
+        private Path archive;
+        private boolean quiet;
+        private boolean help;
+
+        static Options parse(@NotNull String... args) {
+            final Options options = new Options();
+            final List<String> paths = new ArrayList<>();
+            boolean endOfOptions = false;
+            for (int i = 0; i < args.length; i++) {
+                final String arg = args[i];
+                if (endOfOptions || !arg.startsWith("-") || "-".equals(arg)) {
+                    paths.add(arg);
+                    continue;
+                }
+                switch (arg) {
+                    case "--":
+                        endOfOptions = true;
+                        break;
+                    case "-h":
+                    case "--help":
+                        options.help = true;
+                        return options;
+                    case "-q":
+                    case "--quiet":
+                        options.quiet = true;
+                        break;
+                    case "--format":
+                        options.format = parseFormat(value(args, ++i, arg));
+                        break;
+                    case "--digest":
+                        options.digestAlgorithm = parseDigestAlgorithm(value(args, ++i, arg));
+                        break;
+                    case "--nested-depth":
+                        options.nestedJarDepth = parseDepth(value(args, ++i, arg));
+                        break;
+                    case "--compare-last-modified":
+                        options.compareLastModified = true;
+                        break;
+                    case "--serial-parsing":
+                        options.parallelDescriptorParsing = false;
+                        break;
+                    case "--archive":
+                        options.archive = Paths.get(value(args, ++i, arg));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown option: " + arg);
+                }
+            }
+            if (paths.size() != 2) {
+                throw new IllegalArgumentException("expected a left and a right path, but found " + paths.size());
+            }
+            options.left = Paths.get(paths.get(0));
+            options.right = Paths.get(paths.get(1));
+            return options;
+        }
+
+        static String value(@NotNull String[] args, int index, @NotNull String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("missing value for option: " + option);
+            }
+            return args[index];
+        }
+
+        static ReportFormat parseFormat(@NotNull String value) {
+            if ("text".equalsIgnoreCase(value)) {
+                return null;
+            }
+            try {
+                return ReportFormat.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown format: " + value);
+            }
+        }
+
+        static DigestAlgorithm parseDigestAlgorithm(@NotNull String value) {
+            try {
+                return DigestAlgorithm.valueOf(value.toUpperCase(Locale.ROOT).replace("-", ""));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown digest algorithm: " + value);
+            }
+        }
+
+        static int parseDepth(@NotNull String value) {
+            try {
+                final int depth = Integer.parseInt(value);
+                if (depth >= 0) {
+                    return depth;
+                }
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+            throw new IllegalArgumentException("nested depth must be a non-negative integer: " + value);
+        }
+
+        @NotNull
+        Settings toSettings() {
+            return Settings.builder()
+                    .digestAlgorithm(digestAlgorithm)
+                    .nestedJarDepth(nestedJarDepth)
+                    .compareLastModified(compareLastModified)
+                    .parallelDescriptorParsing(parallelDescriptorParsing)
+                    .build();
+        }
+    }
+}
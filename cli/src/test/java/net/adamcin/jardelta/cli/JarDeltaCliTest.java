@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.cli;
+
+import net.adamcin.jardelta.testing.JarTestUtil;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JarDeltaCliTest {
+
+    @TempDir
+    Path tempDir;
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    int run(String... args) {
+        return new JarDeltaCli(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8)).run(args);
+    }
+
+    Path writeJar(@NotNull String fileName, @NotNull String content) throws IOException {
+        return JarTestUtil.writeZip(tempDir.resolve(fileName), Map.of("content.txt", JarTestUtil.utf8(content)));
+    }
+
+    @Test
+    void compareText() throws Exception {
+        final Path left = writeJar("left.jar", "one");
+        final Path right = writeJar("right.jar", "two");
+        assertEquals(JarDeltaCli.EXIT_CHANGED, run(left.toString(), right.toString()));
+        assertEquals("CHANGED\tentry\tcontent.txt", out.toString(StandardCharsets.UTF_8).trim());
+
+        out.reset();
+        assertEquals(JarDeltaCli.EXIT_UNCHANGED, run(left.toString(), left.toString()));
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+
+        assertEquals(JarDeltaCli.EXIT_CHANGED, run("--quiet", left.toString(), right.toString()));
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void compareNdjson() throws Exception {
+        final Path left = writeJar("left.jar", "one");
+        final Path right = writeJar("right.jar", "two");
+        final Path archive = tempDir.resolve("delta.bin");
+        assertEquals(JarDeltaCli.EXIT_CHANGED, run("--format", "ndjson", "--digest", "xxhash64",
+                "--archive", archive.toString(), left.toString(), right.toString()));
+        final String output = out.toString(StandardCharsets.UTF_8);
+        assertTrue(output.contains("\"type\":\"diff\""), output);
+        assertTrue(output.contains("\"label\":\"right.jar\""), output);
+        assertTrue(Files.isRegularFile(archive));
+    }
+
+    @Test
+    void usageErrors() throws Exception {
+        final Path left = writeJar("left.jar", "one");
+        assertEquals(JarDeltaCli.EXIT_ERROR, run(left.toString()));
+        assertEquals(JarDeltaCli.EXIT_ERROR, run("--format", "xml", left.toString(), left.toString()));
+        assertEquals(JarDeltaCli.EXIT_ERROR, run("--nested-depth", "-1", left.toString(), left.toString()));
+        assertEquals(JarDeltaCli.EXIT_ERROR, run(left.toString(), tempDir.resolve("missing.jar").toString()));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("no such file"));
+        assertEquals(JarDeltaCli.EXIT_UNCHANGED, run("--help"));
+        assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("usage: jardelta"));
+    }
+}
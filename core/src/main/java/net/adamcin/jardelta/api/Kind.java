@@ -21,6 +21,8 @@ import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -30,6 +32,12 @@ import java.util.regex.Pattern;
 public final class Kind implements Comparable<Kind>, Serializable {
     public static final Pattern VALID_KIND = Pattern.compile("^([A-Za-z_$][A-Za-z_$0-9]*)(\\.[A-Za-z_$][A-Za-z_$0-9]*)*$");
 
+    /**
+     * The set of distinct kinds is small and fixed by the refinement strategies, so every valid kind is interned to
+     * share a single instance across concurrent comparisons.
+     */
+    private static final Map<String, Kind> INTERNED = new ConcurrentHashMap<>();
+
     /**
      * Return a {@link net.adamcin.jardelta.api.Kind} for the provided value. The value must consist of characters
      * allowed for Java language identifiers, with multiple segments being separated by dots.
@@ -40,7 +48,8 @@ public final class Kind implements Comparable<Kind>, Serializable {
      */
     @NotNull
     public static Kind of(@NotNull String value) {
-        return new Kind(value);
+        final Kind interned = INTERNED.get(value);
+        return interned != null ? interned : INTERNED.computeIfAbsent(value, Kind::new);
     }
 
     /**
@@ -97,4 +106,8 @@ public final class Kind implements Comparable<Kind>, Serializable {
     public String toString() {
         return getValue();
     }
+
+    private Object readResolve() {
+        return Kind.of(getValue());
+    }
 }
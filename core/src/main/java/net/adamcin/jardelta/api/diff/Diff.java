@@ -93,6 +93,17 @@ public final class Diff implements Comparable<Diff>, Serializable {
         return hints;
     }
 
+    /**
+     * Return a copy of this diff with its name appended to the provided parent name, such as for diffs of the contents
+     * of a nested jar.
+     *
+     * @param parent the parent name
+     * @return a diff with the same kind, verb, and hints, named relative to the parent name
+     */
+    public @NotNull Diff nestedUnder(@NotNull Name parent) {
+        return new Diff(parent.append(name), kind, verb, hints);
+    }
+
     @Override
     public int compareTo(@NotNull Diff other) {
         int byName = this.name.compareTo(other.name);
@@ -217,4 +228,21 @@ public final class Diff implements Comparable<Diff>, Serializable {
         return new Builder(kind);
     }
 
+    /**
+     * Reconstruct a diff from its parts, such as when reading a previously stored result.
+     *
+     * @param name  the resource name
+     * @param kind  the diff kind
+     * @param verb  the diff verb
+     * @param hints the left and right hints
+     * @return a new diff
+     */
+    @NotNull
+    public static Diff of(@NotNull Name name,
+                          @NotNull Kind kind,
+                          @NotNull Verb verb,
+                          @NotNull Both<Optional<String>> hints) {
+        return new Diff(name, kind, verb, hints);
+    }
+
 }
@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -52,6 +53,19 @@ public final class Diffs implements FilteredDiffs {
         return diffs.stream();
     }
 
+    /**
+     * Get an unmodifiable view of these diffs in their natural order, such as for comparing two sets of diffs with a
+     * single merge pass.
+     *
+     * @return the sorted diffs
+     */
+    @NotNull
+    public SortedSet<Diff> asSortedSet() {
+        return diffs instanceof SortedSet
+                ? Collections.unmodifiableSortedSet((SortedSet<Diff>) diffs)
+                : Collections.unmodifiableSortedSet(new TreeSet<>(diffs));
+    }
+
     @Override
     public boolean isEmpty() {
         return diffs.isEmpty();
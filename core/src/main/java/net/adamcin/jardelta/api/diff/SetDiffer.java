@@ -20,9 +20,13 @@ import net.adamcin.streamsupport.Both;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -31,7 +35,8 @@ import java.util.stream.Stream;
 /**
  * A parameterized abstraction of a diff algorithm for two {@link net.adamcin.jardelta.api.diff.Element}s consisting of
  * collections of Set elements (apologies for the overloaded use of the word "element" in this situation). This class
- * can also be used to implement diffs for Maps based on their keys.
+ * can also be used to implement diffs for Maps based on their keys. When both collections are
+ * {@link java.util.SortedSet}s with the same ordering, they are compared in a single merge pass.
  *
  * @param <E> the Set element type
  */
@@ -78,22 +83,29 @@ public final class SetDiffer<E> implements Differ<Collection<E>> {
 
     public @NotNull Stream<Diff> diffSets(@NotNull Emitter baseEmitter,
                                           @NotNull Both<? extends Collection<E>> bothSets) {
+        if (bothSets.left() instanceof SortedSet && bothSets.right() instanceof SortedSet) {
+            @SuppressWarnings("unchecked") final SortedSet<E> left = (SortedSet<E>) bothSets.left();
+            @SuppressWarnings("unchecked") final SortedSet<E> right = (SortedSet<E>) bothSets.right();
+            if (Objects.equals(left.comparator(), right.comparator())) {
+                return diffSortedSets(baseEmitter, left, right);
+            }
+        }
         final Set<E> allValues = bothSets.stream().reduce(setSupplier.get(),
                 SetDiffer::mergeSets, SetDiffer::mergeSets);
 
         Stream<Diff> stream = Stream.empty();
         for (E value : allValues) {
-            final Both<Optional<String>> hints = hinter.apply(value);
             final Emitter childEmitter = emitterProjection.apply(baseEmitter, value);
+            // hints are only needed for added and removed values, and may be expensive to compute
             if (!bothSets.left().contains(value)) {
                 if (bothSets.right().contains(value)) {
-                    stream = Stream.concat(stream, Stream.of(hints.right()
+                    stream = Stream.concat(stream, Stream.of(hinter.apply(value).right()
                             .map(childEmitter::added)
                             .orElseGet(childEmitter::added)));
                 }
                 // empty-empty case, leave stream unmodified
             } else if (!bothSets.right().contains(value)) {
-                stream = Stream.concat(stream, Stream.of(hints.left()
+                stream = Stream.concat(stream, Stream.of(hinter.apply(value).left()
                         .map(childEmitter::removed)
                         .orElseGet(childEmitter::removed)));
             } else {
@@ -104,6 +116,56 @@ public final class SetDiffer<E> implements Differ<Collection<E>> {
         return stream;
     }
 
+    /**
+     * Compare two sets sharing the same ordering with a single merge pass over both, rather than building a union set
+     * and testing each side for membership.
+     *
+     * @param baseEmitter the base emitter
+     * @param left        the left set
+     * @param right       the right set
+     * @return the diff stream, ordered by set element
+     */
+    @NotNull
+    Stream<Diff> diffSortedSets(@NotNull Emitter baseEmitter,
+                                @NotNull SortedSet<E> left,
+                                @NotNull SortedSet<E> right) {
+        @SuppressWarnings("unchecked") final Comparator<? super E> comparator = left.comparator() != null
+                ? left.comparator()
+                : (Comparator<? super E>) Comparator.naturalOrder();
+        final Stream.Builder<Stream<Diff>> streams = Stream.builder();
+        final Iterator<E> lefts = left.iterator();
+        final Iterator<E> rights = right.iterator();
+        E leftValue = lefts.hasNext() ? lefts.next() : null;
+        E rightValue = rights.hasNext() ? rights.next() : null;
+        boolean hasLeft = !left.isEmpty();
+        boolean hasRight = !right.isEmpty();
+        while (hasLeft || hasRight) {
+            final int order = !hasLeft ? 1 : (!hasRight ? -1 : comparator.compare(leftValue, rightValue));
+            if (order < 0) {
+                final Emitter childEmitter = emitterProjection.apply(baseEmitter, leftValue);
+                streams.add(Stream.of(hinter.apply(leftValue).left()
+                        .map(childEmitter::removed)
+                        .orElseGet(childEmitter::removed)));
+            } else if (order > 0) {
+                final Emitter childEmitter = emitterProjection.apply(baseEmitter, rightValue);
+                streams.add(Stream.of(hinter.apply(rightValue).right()
+                        .map(childEmitter::added)
+                        .orElseGet(childEmitter::added)));
+            } else {
+                streams.add(intersectDiffer.apply(emitterProjection.apply(baseEmitter, leftValue), leftValue));
+            }
+            if (order <= 0) {
+                hasLeft = lefts.hasNext();
+                leftValue = hasLeft ? lefts.next() : null;
+            }
+            if (order >= 0) {
+                hasRight = rights.hasNext();
+                rightValue = hasRight ? rights.next() : null;
+            }
+        }
+        return streams.build().flatMap(Function.identity());
+    }
+
     public static class SetDifferBuilder<E> {
         private BiFunction<Emitter, ? super E, Emitter> emitterProjection =
                 (baseEmitter, value) -> baseEmitter.forChild(value.toString());
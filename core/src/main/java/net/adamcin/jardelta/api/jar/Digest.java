@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.api.jar;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An immutable digest of jar entry content, qualified by the name of the algorithm that produced it. Digests are only
+ * equal when both their algorithms and their values are equal. The hex representation is only computed for
+ * presentation.
+ */
+public final class Digest {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final String algorithm;
+    private final byte[] value;
+
+    private Digest(@NotNull String algorithm, byte[] value) {
+        this.algorithm = algorithm;
+        this.value = value;
+    }
+
+    /**
+     * Create a digest from a copy of the provided bytes.
+     *
+     * @param algorithm the algorithm name
+     * @param value     the digest bytes
+     * @return a new digest
+     */
+    @NotNull
+    public static Digest of(@NotNull String algorithm, byte[] value) {
+        return new Digest(algorithm, value.clone());
+    }
+
+    /**
+     * Create a digest from a 64-bit hash value, stored as eight big-endian bytes.
+     *
+     * @param algorithm the algorithm name
+     * @param value     the hash value
+     * @return a new digest
+     */
+    @NotNull
+    public static Digest ofLong(@NotNull String algorithm, long value) {
+        return new Digest(algorithm, ByteBuffer.allocate(Long.BYTES).putLong(value).array());
+    }
+
+    @NotNull
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Get a copy of the digest bytes.
+     *
+     * @return the digest bytes
+     */
+    public byte[] getValue() {
+        return value.clone();
+    }
+
+    @NotNull
+    public String toHex() {
+        final char[] chars = new char[value.length * 2];
+        for (int i = 0; i < value.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(value[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[value[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Digest that = (Digest) o;
+        return algorithm.equals(that.algorithm) && Arrays.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * algorithm.hashCode() + Arrays.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + ":" + toHex();
+    }
+}
@@ -36,8 +36,13 @@ public interface EntryMeta {
     @Nullable
     String getExtra();
 
+    /**
+     * Get the digest of the uncompressed entry content, computed by the algorithm selected for the comparison.
+     *
+     * @return the content digest
+     */
     @NotNull
-    String getSha256();
+    Digest getDigest();
 
     @NotNull
     Set<Name> getAttributeNames();
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.api.jar;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * An immutable view of the headers of a jar manifest, read once when the jar is opened so that they can be shared
+ * between refinement strategies without defensive copies. All returned maps are unmodifiable.
+ */
+public final class ManifestHeaders {
+    public static final ManifestHeaders EMPTY = new ManifestHeaders(false, Collections.emptyMap(),
+            Collections.emptyMap());
+
+    private final boolean present;
+    private final Map<Attributes.Name, String> mainAttributes;
+    private final Map<String, Map<Attributes.Name, String>> entryAttributes;
+    private volatile Map<Attributes.Name, String> localizedHeaders;
+
+    private ManifestHeaders(boolean present,
+                            @NotNull Map<Attributes.Name, String> mainAttributes,
+                            @NotNull Map<String, Map<Attributes.Name, String>> entryAttributes) {
+        this.present = present;
+        this.mainAttributes = mainAttributes;
+        this.entryAttributes = entryAttributes;
+    }
+
+    /**
+     * Copy the headers of the provided manifest.
+     *
+     * @param manifest the manifest, or null if the jar has none
+     * @return the headers of the manifest, or {@link #EMPTY} if null
+     */
+    @NotNull
+    public static ManifestHeaders of(@Nullable Manifest manifest) {
+        if (manifest == null) {
+            return EMPTY;
+        }
+        final Map<String, Map<Attributes.Name, String>> entryAttributes = new HashMap<>();
+        manifest.getEntries().forEach((entryName, attributes) ->
+                entryAttributes.put(entryName, copyOf(attributes)));
+        return new ManifestHeaders(true, copyOf(manifest.getMainAttributes()),
+                Collections.unmodifiableMap(entryAttributes));
+    }
+
+    static Map<Attributes.Name, String> copyOf(@NotNull Attributes attributes) {
+        final Map<Attributes.Name, String> copy = new HashMap<>();
+        attributes.forEach((key, value) -> {
+            if (key instanceof Attributes.Name && value != null) {
+                copy.put((Attributes.Name) key, value.toString());
+            }
+        });
+        return Collections.unmodifiableMap(copy);
+    }
+
+    @Nullable
+    static Attributes.Name attributeNameOf(@NotNull String name) {
+        try {
+            return new Attributes.Name(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Return true if the jar has a manifest.
+     *
+     * @return true if the jar has a manifest
+     */
+    public boolean isPresent() {
+        return present;
+    }
+
+    @NotNull
+    public Map<Attributes.Name, String> getMainAttributes() {
+        return mainAttributes;
+    }
+
+    /**
+     * Get the value of a main attribute.
+     *
+     * @param name the attribute name, which is case-insensitive
+     * @return the value, or null if the attribute is absent or the name is invalid
+     */
+    @Nullable
+    public String getMainAttributeValue(@NotNull String name) {
+        return Optional.ofNullable(attributeNameOf(name)).map(mainAttributes::get).orElse(null);
+    }
+
+    @Nullable
+    public Map<Attributes.Name, String> getEntryAttributes(@NotNull String entryName) {
+        return entryAttributes.get(entryName);
+    }
+
+    /**
+     * Get the value of an attribute from a named manifest section, falling back to the main attributes when the
+     * section does not exist.
+     *
+     * @param entryName the section name
+     * @param name      the attribute name, which is case-insensitive
+     * @return the value, or null if the attribute is absent or the name is invalid
+     */
+    @Nullable
+    public String getEntryAttributeValue(@NotNull String entryName, @NotNull String name) {
+        return Optional.ofNullable(attributeNameOf(name))
+                .map(Optional.ofNullable(entryAttributes.get(entryName)).orElse(mainAttributes)::get)
+                .orElse(null);
+    }
+
+    /**
+     * Get the main attributes whose values are localization keys, beginning with {@code %}.
+     *
+     * @return the localized main attributes
+     */
+    @NotNull
+    public Map<Attributes.Name, String> getLocalizedHeaders() {
+        Map<Attributes.Name, String> localized = localizedHeaders;
+        if (localized == null) {
+            final Map<Attributes.Name, String> collected = new HashMap<>();
+            mainAttributes.forEach((key, value) -> {
+                if (value.startsWith("%")) {
+                    collected.put(key, value);
+                }
+            });
+            localized = Collections.unmodifiableMap(collected);
+            localizedHeaders = localized;
+        }
+        return localized;
+    }
+}
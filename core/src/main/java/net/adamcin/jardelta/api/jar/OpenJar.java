@@ -20,7 +20,11 @@ import net.adamcin.jardelta.api.Name;
 import net.adamcin.streamsupport.Result;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.osgi.framework.Bundle;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
 import java.util.Optional;
 import java.util.Set;
 import java.util.jar.Manifest;
@@ -32,9 +36,43 @@ public interface OpenJar {
     Set<Name> getEntryNames();
     Set<Name> getDirNames();
     Optional<Result<EntryMeta>> getEntryMeta(@NotNull Name name);
+    /**
+     * Get a new copy of the jar manifest.
+     *
+     * @return a copy of the manifest, or null if the jar has none
+     */
     @Nullable Manifest getManifest();
+
+    /**
+     * Get the shared, immutable headers of the jar manifest, which are cheaper to read than {@link #getManifest()}. The
+     * default implementation copies them from a new manifest on every call, and implementations should override it to
+     * read the manifest once.
+     *
+     * @return the manifest headers, which are empty if the jar has no manifest
+     */
+    default @NotNull ManifestHeaders getManifestHeaders() {
+        return ManifestHeaders.of(getManifest());
+    }
     @Nullable String getMainAttributeValue(@NotNull Name attribute);
     @Nullable Set<Name> getEntryAttributeNames(@NotNull Name name);
     @Nullable String getEntryAttributeValue(@NotNull Name entryName, @NotNull Name attribute);
+
+    /**
+     * Open a stream of the uncompressed content of an entry, read from this open jar. The default implementation
+     * reads the entry through the resource lookup of the {@link Bundle} adapter, and returns null if this jar does not
+     * adapt to a bundle. Implementations should override it to read the entry directly.
+     *
+     * @param name the entry name
+     * @return the entry content stream, or null if the jar has no entry with the name
+     * @throws IOException if the entry cannot be read
+     */
+    default @Nullable InputStream openEntryStream(@NotNull Name name) throws IOException {
+        if (!getEntryNames().contains(name)) {
+            return null;
+        }
+        final Bundle bundle = adaptTo(Bundle.class);
+        final URL resource = bundle != null ? bundle.getResource(name.toString()) : null;
+        return resource != null ? resource.openStream() : null;
+    }
     <T> @Nullable T adaptTo(@NotNull Class<T> adapter);
 }
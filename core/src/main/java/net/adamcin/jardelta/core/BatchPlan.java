@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import net.adamcin.streamsupport.Fun;
+import net.adamcin.streamsupport.Result;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Executes a single shared {@link Plan} for many pairs of jars concurrently, using a bounded pool of worker threads.
+ */
+public final class BatchPlan implements AutoCloseable {
+    private final Plan plan;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Create a batch plan with one worker thread per available processor.
+     */
+    public BatchPlan() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a batch plan with a fixed number of worker threads, which are shut down by {@link #close()}.
+     *
+     * @param parallelism the maximum number of pairs to compare at the same time
+     */
+    public BatchPlan(int parallelism) {
+        this(new Plan(), Executors.newFixedThreadPool(Math.max(1, parallelism), new WorkerThreadFactory()), true);
+    }
+
+    /**
+     * Create a batch plan that submits work to the provided executor, which remains owned by the caller.
+     *
+     * @param plan     the plan to execute for each pair
+     * @param executor the executor to submit comparisons to
+     */
+    public BatchPlan(@NotNull Plan plan, @NotNull ExecutorService executor) {
+        this(plan, executor, false);
+    }
+
+    private BatchPlan(@NotNull Plan plan, @NotNull ExecutorService executor, boolean ownsExecutor) {
+        this.plan = plan;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Submit every context for execution and return a stream of results in the order that they complete. Every context
+     * is submitted before this method returns, regardless of how much of the returned stream is consumed.
+     *
+     * @param contexts the contexts to execute
+     * @return a stream of each context paired with its delta or its failure, in order of completion
+     */
+    @NotNull
+    public Stream<Map.Entry<Context, Result<Delta>>> executeAll(@NotNull List<Context> contexts) {
+        final CompletionService<Map.Entry<Context, Result<Delta>>> completionService =
+                new ExecutorCompletionService<>(executor);
+        for (Context context : contexts) {
+            completionService.submit(() -> Fun.toEntry(context, Fun.result0(() -> plan.execute(context)).get()));
+        }
+        return IntStream.range(0, contexts.size()).mapToObj(index -> takeNext(completionService));
+    }
+
+    static <T> T takeNext(@NotNull CompletionService<T> completionService) {
+        try {
+            final Future<T> next = completionService.take();
+            return next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch results", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            final Thread thread = new Thread(runnable, "jardelta-batch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -18,8 +18,8 @@ package net.adamcin.jardelta.core;
 
 import aQute.lib.collections.Enumerations;
 import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.jar.ManifestHeaders;
 import net.adamcin.jardelta.core.osgi.ocd.JarMetaTypeProvider;
-import net.adamcin.streamsupport.Fun;
 import org.apache.felix.metatype.MetaData;
 import org.apache.sling.testing.mock.osgi.MockBundle;
 import org.apache.sling.testing.mock.osgi.MockOsgi;
@@ -46,14 +46,11 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.jar.Attributes;
-import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static net.adamcin.streamsupport.Fun.result0;
-import static net.adamcin.streamsupport.Fun.uncheck0;
 
 /**
  * This implements {@link org.osgi.framework.Bundle} in ways that are specific to our purposes for artifact comparison.
@@ -64,67 +61,84 @@ import static net.adamcin.streamsupport.Fun.uncheck0;
  */
 final class BundleFacade implements Bundle {
     private final OpenJarImpl jar;
-    private final Manifest manifest;
-    private final Attributes mainAttributes;
+    private final ManifestHeaders headers;
     private final MockBundle mockBundle;
     private static final BundleContext mockBundleContext = MockOsgi.newBundleContext();
-    private final Map<String, Properties> localeCache;
+    private final Map<String, Properties> localeCache = new HashMap<>();
+    private Map<String, String> localePaths;
+    private Boolean localized;
+    private EntryPathIndex entryPathIndex;
 
     public BundleFacade(@NotNull OpenJarImpl jar) {
         this.jar = jar;
-        this.manifest = uncheck0(jar::getManifest).get();
-        this.mainAttributes = Optional.ofNullable(manifest)
-                .map(Fun.compose1(Manifest::getMainAttributes, Fun.infer1(Attributes::new)))
-                .orElseGet(Attributes::new);
+        this.headers = jar.getManifestHeaders();
         this.mockBundle = new MockBundle(mockBundleContext);
-        final MetaData emptyMetaData = new MetaData();
-        final JarMetaTypeProvider emptyMetaTypeProvider = new JarMetaTypeProvider(this, emptyMetaData);
-        final Set<String> locales = Stream.ofNullable(emptyMetaTypeProvider.getLocales())
-                .flatMap(Stream::of)
-                .collect(Collectors.toSet());
-        final String localePrefix = emptyMetaTypeProvider.getLocalePrefix();
-        final Map<String, String> localePaths = new HashMap<>();
-        localePaths.put("", localePrefix + ".properties");
-        locales.forEach(locale -> {
-            if (!locale.isEmpty()) {
-                final String localePathName = localePrefix + "_" + locale + ".properties";
-                localePaths.put(locale, localePathName);
-            }
-        });
-        final Map<String, Properties> localeCache = new HashMap<>();
-        localePaths.keySet().forEach(key -> computeLocale(localePaths, localeCache, key));
-        this.localeCache = localeCache;
-    }
-
-    private Properties computeLocale(@NotNull Map<String, String> localePaths,
-                                     @NotNull Map<String, Properties> localeCache,
-                                     @NotNull String locale) {
-        return localeCache.computeIfAbsent(locale, key -> {
-            Properties baseProperties;
-            if (locale.contains("_")) {
-                baseProperties = computeLocale(localePaths, localeCache,
-                        locale.substring(0, locale.lastIndexOf('_')));
-            } else if (!locale.isEmpty()) {
-                baseProperties = computeLocale(localePaths, localeCache, "");
-            } else {
-                baseProperties = new Properties();
-            }
-            Properties properties = new Properties(baseProperties);
-            if (localePaths.containsKey(locale)) {
-                final String localePathName = localePaths.get(locale);
-                if (this.jar.getEntryNames().contains(bundlePathToName(localePathName))) {
-                    result0(() -> {
-                        Properties props = new Properties();
-                        try (InputStream inputStream = this.getResource(localePathName).openStream()) {
-                            props.load(inputStream);
-                            return props;
-                        }
-                    }).get().toOptional().ifPresent(properties::putAll);
+    }
+
+    /**
+     * Discover the locale properties resources of this bundle on first use.
+     *
+     * @return a map of locales to bundle resource paths
+     */
+    synchronized Map<String, String> getLocalePaths() {
+        if (localePaths == null) {
+            final JarMetaTypeProvider emptyMetaTypeProvider = new JarMetaTypeProvider(this, new MetaData());
+            final Set<String> locales = Stream.ofNullable(emptyMetaTypeProvider.getLocales())
+                    .flatMap(Stream::of)
+                    .collect(Collectors.toSet());
+            final String localePrefix = emptyMetaTypeProvider.getLocalePrefix();
+            final Map<String, String> paths = new HashMap<>();
+            paths.put("", localePrefix + ".properties");
+            locales.forEach(locale -> {
+                if (!locale.isEmpty()) {
+                    paths.put(locale, localePrefix + "_" + locale + ".properties");
                 }
-            }
-            return properties;
-        });
+            });
+            localePaths = paths;
+        }
+        return localePaths;
+    }
 
+    synchronized boolean isLocalized() {
+        if (localized == null) {
+            localized = !headers.getLocalizedHeaders().isEmpty();
+        }
+        return localized;
+    }
+
+    /**
+     * Resolve the properties for a locale, backed by those of its parent locales, and loading each properties
+     * resource at most once.
+     *
+     * @param locale the locale
+     * @return the memoized properties for the locale
+     */
+    private synchronized Properties resolveLocale(@NotNull String locale) {
+        final Properties cached = localeCache.get(locale);
+        if (cached != null) {
+            return cached;
+        }
+        final Properties baseProperties;
+        if (locale.contains("_")) {
+            baseProperties = resolveLocale(locale.substring(0, locale.lastIndexOf('_')));
+        } else if (!locale.isEmpty()) {
+            baseProperties = resolveLocale("");
+        } else {
+            baseProperties = new Properties();
+        }
+        final Properties properties = new Properties(baseProperties);
+        Optional.ofNullable(getLocalePaths().get(locale))
+                .map(this::bundlePathToName)
+                .filter(jar::containsEntry)
+                .ifPresent(localeName -> result0(() -> {
+                    Properties props = new Properties();
+                    try (InputStream inputStream = this.jar.openEntryStream(localeName)) {
+                        props.load(inputStream);
+                        return props;
+                    }
+                }).get().toOptional().ifPresent(properties::putAll));
+        localeCache.put(locale, properties);
+        return properties;
     }
 
     @Override
@@ -170,7 +184,7 @@ final class BundleFacade implements Bundle {
     @Override
     public Dictionary<String, String> getHeaders() {
         // default to empty locale/uninstalled behavior instead of Locale.default() for our use case
-        return new AttributesToStringDictionary(this.mainAttributes);
+        return new AttributesToStringDictionary(headers.getMainAttributes());
     }
 
     @Override
@@ -204,15 +218,7 @@ final class BundleFacade implements Bundle {
     }
 
     private Properties getLocaleProperties(final @NotNull String locale) {
-        if (localeCache.containsKey(locale)) {
-            return new Properties(localeCache.get(locale));
-        } else if (locale.isEmpty()) {
-            return new Properties();
-        } else {
-            return new Properties(getLocaleProperties(locale.contains("_")
-                    ? locale.substring(0, locale.lastIndexOf('_'))
-                    : ""));
-        }
+        return new Properties(resolveLocale(locale));
     }
 
     @Override
@@ -225,23 +231,19 @@ final class BundleFacade implements Bundle {
             locale = "";
         }
 
-        final Attributes localizedHeaders = jar.getLocalizedHeaders();
-        if (localizedHeaders.isEmpty()) {
+        // skip locale resolution entirely when no headers are localized
+        if (!isLocalized()) {
             return getHeaders();
         }
 
-        final Attributes headers = new Attributes(manifest.getMainAttributes());
+        final Map<Attributes.Name, String> localizedHeaders = new HashMap<>(headers.getMainAttributes());
         final Properties localeProps = getLocaleProperties(locale);
-        for (Map.Entry<Object, Object> entry : headers.entrySet()) {
-            final Attributes.Name name = (Attributes.Name) entry.getKey();
-            final String value = entry.getValue().toString();
-            if (value.startsWith("%")) {
-                final String key = value.substring(1);
-                headers.put(name, localeProps.getProperty(key, key));
-            }
-        }
+        headers.getLocalizedHeaders().forEach((name, value) -> {
+            final String key = value.substring(1);
+            localizedHeaders.put(name, localeProps.getProperty(key, key));
+        });
 
-        return new AttributesToStringDictionary(headers);
+        return new AttributesToStringDictionary(localizedHeaders);
     }
 
     @Override
@@ -264,29 +266,25 @@ final class BundleFacade implements Bundle {
         return Name.of(path.replaceFirst("^/+", ""));
     }
 
-    Predicate<Name> getParentPathPredicate(@NotNull String path, boolean recurse) {
-        final Name pathName = bundlePathToName(path);
-        if (pathName.isRoot()) {
-            return recurse ? name -> true : name -> name.getParent() == null;
-        } else {
-            return recurse
-                    ? name -> name.getParent() != null && name.getParent().startsWithName(pathName)
-                    : name -> name.getParent() != null && name.getParent().equals(pathName);
+    @NotNull
+    synchronized EntryPathIndex getEntryPathIndex() {
+        if (entryPathIndex == null) {
+            entryPathIndex = new EntryPathIndex(jar.getEntryNames(), jar.getDirNames());
         }
+        return entryPathIndex;
     }
 
-    Stream<String> internalGetEntryPaths(@NotNull String path, boolean recurse) {
-        final Predicate<Name> parentPredicate = getParentPathPredicate(path, recurse);
-        return Stream.concat(jar.getEntryNames().stream()
-                .filter(parentPredicate)
-                .map(Name::toString), jar.getDirNames().stream()
-                .filter(parentPredicate)
-                .map(Name::toString));
+    Stream<Name> internalGetEntryNames(@NotNull String path, boolean recurse) {
+        final Name pathName = bundlePathToName(path);
+        return recurse
+                ? getEntryPathIndex().descendants(pathName)
+                : getEntryPathIndex().children(pathName);
     }
 
     @Override
     public Enumeration<String> getEntryPaths(String path) {
-        List<String> children = internalGetEntryPaths(path, false)
+        List<String> children = internalGetEntryNames(path, false)
+                .map(Name::toString)
                 .collect(Collectors.toList());
         return children.isEmpty() ? null : Enumerations.enumeration(children.spliterator());
     }
@@ -313,9 +311,9 @@ final class BundleFacade implements Bundle {
         filePattern = (filePattern == null) ? "*" : filePattern;
         final List<String> fileFilter = SimpleFilter.parseSubstring(filePattern);
         // for tests see https://github.com/apache/felix-dev/blob/b6fff2adcc1afee039f0f60713032363144ad0fa/framework/src/test/java/org/apache/felix/framework/ResourceLoadingTest.java
-        return Enumerations.enumeration(internalGetEntryPaths(path, recurse)
-                .filter(name -> SimpleFilter.compareSubstring(fileFilter,
-                        bundlePathToName(name).getSegment()))
+        return Enumerations.enumeration(internalGetEntryNames(path, recurse)
+                .filter(name -> SimpleFilter.compareSubstring(fileFilter, name.getSegment()))
+                .map(Name::toString)
                 .map(jar::urlFor).spliterator());
     }
 
@@ -350,9 +348,9 @@ final class BundleFacade implements Bundle {
     }
 
     static class AttributesToStringDictionary extends Dictionary<String, String> {
-        private final Attributes attributes;
+        private final Map<Attributes.Name, String> attributes;
 
-        public AttributesToStringDictionary(Attributes attributes) {
+        public AttributesToStringDictionary(Map<Attributes.Name, String> attributes) {
             this.attributes = attributes;
         }
 
@@ -378,7 +376,7 @@ final class BundleFacade implements Bundle {
 
         @Override
         public String get(Object key) {
-            return attributes.getValue(key.toString());
+            return attributes.get(new Attributes.Name(key.toString()));
         }
 
         @Override
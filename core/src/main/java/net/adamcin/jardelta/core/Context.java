@@ -18,10 +18,18 @@ package net.adamcin.jardelta.core;
 
 import lombok.Builder;
 import lombok.Getter;
+import net.adamcin.jardelta.api.diff.Diff;
+
+import java.util.function.Predicate;
 
 @Builder
 @Getter
 public class Context {
     private final Jars jars;
     private final Settings settings;
+    /**
+     * When set, the plan stops hashing entries and refining diffs as soon as a diff matches, such as a diff significant
+     * enough to fail the build.
+     */
+    private final Predicate<Diff> haltOn;
 }
@@ -19,6 +19,7 @@ package net.adamcin.jardelta.core;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NonNull;
+import net.adamcin.jardelta.api.diff.Diff;
 import net.adamcin.jardelta.api.diff.Diffs;
 
 import java.util.Collections;
@@ -36,4 +37,12 @@ public final class Delta {
     @NonNull
     @Builder.Default
     private List<Refinement> refinements = Collections.emptyList();
+    /**
+     * The diff that matched {@link Context#getHaltOn()}, if the plan stopped before completing the comparison.
+     */
+    private Diff haltedBy;
+
+    public boolean isHalted() {
+        return haltedBy != null;
+    }
 }
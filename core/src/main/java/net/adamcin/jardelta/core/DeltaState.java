@@ -0,0 +1,223 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonValue;
+import jakarta.json.JsonWriter;
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.core.entry.DigestAlgorithm;
+import net.adamcin.streamsupport.Both;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The delta of a previous comparison, including its initial diffs and refinements, stored together with fingerprints of
+ * both compared files and a key describing the plugin build and settings that produced them, so that an identical
+ * comparison can be skipped. A halted delta is incomplete, and should not be stored.
+ */
+public final class DeltaState {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeltaState.class);
+    static final int FORMAT_VERSION = 2;
+
+    private final String key;
+    private final Both<String> fingerprints;
+    private final Delta delta;
+
+    public DeltaState(@NotNull String key, @NotNull Both<String> fingerprints, @NotNull Delta delta) {
+        this.key = key;
+        this.fingerprints = fingerprints;
+        this.delta = delta;
+    }
+
+    @NotNull
+    public String getKey() {
+        return key;
+    }
+
+    @NotNull
+    public Both<String> getFingerprints() {
+        return fingerprints;
+    }
+
+    @NotNull
+    public Diffs getResults() {
+        return delta.getResults();
+    }
+
+    /**
+     * Return true if this state was produced by the same key for files with the same fingerprints.
+     *
+     * @param key          the plugin build and settings key
+     * @param fingerprints the fingerprints of both files
+     * @return true if the stored results can be reused
+     */
+    public boolean matches(@NotNull String key, @NotNull Both<String> fingerprints) {
+        return this.key.equals(key) && this.fingerprints.left().equals(fingerprints.left())
+                && this.fingerprints.right().equals(fingerprints.right());
+    }
+
+    @NotNull
+    public Delta toDelta() {
+        return delta;
+    }
+
+    /**
+     * Compute a fingerprint of a file from its size and a fast hash of its content, without opening it as a jar.
+     *
+     * @param file the file
+     * @return the fingerprint
+     * @throws IOException if the file cannot be read
+     */
+    @NotNull
+    public static String fingerprint(@NotNull Path file) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return Files.size(file) + ":" + DigestAlgorithm.XXHASH64.digest(inputStream).toHex();
+        }
+    }
+
+    /**
+     * Read a state file. Any state that cannot be read, including a state written in a different format version, is
+     * treated as absent.
+     *
+     * @param stateFile the state file
+     * @return the state, if it could be read
+     */
+    @NotNull
+    public static Optional<DeltaState> read(@NotNull Path stateFile) {
+        if (!Files.isRegularFile(stateFile)) {
+            return Optional.empty();
+        }
+        try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8);
+             JsonReader jsonReader = Json.createReader(reader)) {
+            final JsonObject json = jsonReader.readObject();
+            if (json.getInt("formatVersion", 0) != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            final List<Refinement> refinements = new ArrayList<>();
+            for (JsonValue value : json.getJsonArray("refinements")) {
+                final JsonObject refinement = value.asJsonObject();
+                refinements.add(new Refinement(readDiffs(refinement.getJsonArray("superseded")),
+                        readDiffs(refinement.getJsonArray("diffs")).stream().collect(Diffs.collector())));
+            }
+            return Optional.of(new DeltaState(json.getString("key"),
+                    Both.of(json.getString("left"), json.getString("right")),
+                    Delta.builder()
+                            .results(readDiffs(json.getJsonArray("diffs")).stream().collect(Diffs.collector()))
+                            .initial(readDiffs(json.getJsonArray("initial")).stream().collect(Diffs.collector()))
+                            .refinements(Collections.unmodifiableList(refinements))
+                            .build()));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("ignoring unreadable state file {}", stateFile, e);
+            return Optional.empty();
+        }
+    }
+
+    static List<Diff> readDiffs(@NotNull JsonArray json) {
+        final List<Diff> diffs = new ArrayList<>();
+        for (JsonValue value : json) {
+            final JsonObject diff = value.asJsonObject();
+            final JsonArray hints = diff.getJsonArray("hints");
+            diffs.add(Diff.of(Name.of(diff.getString("name")),
+                    Kind.of(diff.getString("kind")),
+                    Verb.valueOf(diff.getString("verb")),
+                    Both.of(readHint(hints, 0), readHint(hints, 1))));
+        }
+        return diffs;
+    }
+
+    static Optional<String> readHint(@NotNull JsonArray hints, int index) {
+        return hints.isNull(index) ? Optional.empty() : Optional.of(hints.getString(index));
+    }
+
+    /**
+     * Write this state to a file, replacing any previous state only once it has been completely written.
+     *
+     * @param stateFile the state file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(@NotNull Path stateFile) throws IOException {
+        final JsonArrayBuilder refinements = Json.createArrayBuilder();
+        delta.getRefinements().forEach(refinement -> refinements.add(Json.createObjectBuilder()
+                .add("superseded", writeDiffs(refinement.getSuperseded().stream()))
+                .add("diffs", writeDiffs(refinement.getDiffs().stream()))));
+        final JsonObject json = Json.createObjectBuilder()
+                .add("formatVersion", FORMAT_VERSION)
+                .add("key", key)
+                .add("left", fingerprints.left())
+                .add("right", fingerprints.right())
+                .add("diffs", writeDiffs(delta.getResults().stream()))
+                .add("initial", writeDiffs(delta.getInitial().stream()))
+                .add("refinements", refinements)
+                .build();
+        final Path parent = stateFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        final Path tempFile = Files.createTempFile(parent, stateFile.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8);
+                 JsonWriter jsonWriter = Json.createWriter(writer)) {
+                jsonWriter.writeObject(json);
+            }
+            Files.move(tempFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    static JsonArrayBuilder writeDiffs(@NotNull Stream<Diff> diffStream) {
+        final JsonArrayBuilder diffs = Json.createArrayBuilder();
+        diffStream.forEachOrdered(diff -> {
+            final JsonArrayBuilder hints = Json.createArrayBuilder();
+            diff.getHints().stream().forEachOrdered(hint -> {
+                if (hint.isPresent()) {
+                    hints.add(hint.get());
+                } else {
+                    hints.addNull();
+                }
+            });
+            diffs.add(Json.createObjectBuilder()
+                    .add("name", diff.getName().toString())
+                    .add("kind", diff.getKind().toString())
+                    .add("verb", diff.getVerb().name())
+                    .add("hints", hints));
+        });
+        return diffs;
+    }
+}
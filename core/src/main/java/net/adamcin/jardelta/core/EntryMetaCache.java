@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.jar.EntryMeta;
+import net.adamcin.jardelta.core.entry.DigestAlgorithm;
+import net.adamcin.jardelta.core.entry.EntryMetaImpl;
+import net.adamcin.streamsupport.Result;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A thread-safe cache of entry metadata tables that can be shared by many {@link Jars} instances, so that a jar file
+ * which is compared more than once, such as a baseline artifact, is only digested once. Tables are keyed by the jar
+ * path, size and last modified time, so a jar file that is replaced gets a new table. Only metadata with a computed
+ * digest is stored, detached from the raw entry data of the jar it was read from, so that closed jars are not retained.
+ */
+public final class EntryMetaCache {
+    private final ConcurrentMap<String, Map<Name, EntryMeta>> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Get the entry metadata table for a jar file and digest algorithm.
+     *
+     * @param path            the jar file
+     * @param digestAlgorithm the digest algorithm
+     * @return a thread-safe entry metadata table, or an unshared table if the file attributes cannot be read
+     */
+    @NotNull
+    public Map<Name, EntryMeta> getTable(@NotNull Path path, @NotNull DigestAlgorithm digestAlgorithm) {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return new TreeMap<>();
+        }
+        final String key = String.join("|", digestAlgorithm.name(),
+                path.toAbsolutePath().normalize().toString(),
+                Long.toString(attributes.size()),
+                Long.toString(attributes.lastModifiedTime().toMillis()));
+        return tables.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Create an entry metadata map for a single comparison of the jar file, seeded with the cached metadata.
+     *
+     * @param table a table returned by {@link #getTable(Path, DigestAlgorithm)}
+     * @return a new map for a single comparison
+     */
+    @NotNull
+    static Map<Name, Result<EntryMeta>> seed(@NotNull Map<Name, EntryMeta> table) {
+        final Map<Name, Result<EntryMeta>> resourceCache = new TreeMap<>();
+        table.forEach((name, entryMeta) -> resourceCache.put(name, Result.success(entryMeta)));
+        return resourceCache;
+    }
+
+    /**
+     * Store the digested entry metadata of a finished comparison of the jar file.
+     *
+     * @param table         a table returned by {@link #getTable(Path, DigestAlgorithm)}
+     * @param resourceCache the map returned by {@link #seed(Map)}
+     */
+    static void store(@NotNull Map<Name, EntryMeta> table, @NotNull Map<Name, Result<EntryMeta>> resourceCache) {
+        resourceCache.forEach((name, result) -> result.toOptional()
+                .filter(EntryMetaImpl.class::isInstance)
+                .flatMap(entryMeta -> ((EntryMetaImpl) entryMeta).detached())
+                .ifPresent(entryMeta -> table.putIfAbsent(name, entryMeta)));
+    }
+
+    public int size() {
+        return tables.size();
+    }
+
+    public void clear() {
+        tables.clear();
+    }
+}
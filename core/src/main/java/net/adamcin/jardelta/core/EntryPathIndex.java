@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import net.adamcin.jardelta.api.Name;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * An index of the entry and directory names of a jar, built once so that bundle entry lookups by parent path do not
+ * scan every name in the jar. Immediate children are looked up by parent name. Because {@link Name} ordering is
+ * segment-wise, all descendants of a name form a contiguous range of the sorted names that follows it.
+ */
+final class EntryPathIndex {
+    private final NavigableSet<Name> entryNames;
+    private final NavigableSet<Name> dirNames;
+    private final Map<Name, List<Name>> children;
+
+    EntryPathIndex(@NotNull Collection<Name> entryNames, @NotNull Collection<Name> dirNames) {
+        this.entryNames = Collections.unmodifiableNavigableSet(new TreeSet<>(entryNames));
+        this.dirNames = Collections.unmodifiableNavigableSet(new TreeSet<>(dirNames));
+        final Map<Name, List<Name>> children = new HashMap<>();
+        // list entries before directories, in sorted order
+        Stream.concat(this.entryNames.stream(), this.dirNames.stream()).forEach(name ->
+                children.computeIfAbsent(parentOf(name), key -> new ArrayList<>()).add(name));
+        this.children = children;
+    }
+
+    @NotNull
+    static Name parentOf(@NotNull Name name) {
+        return Optional.ofNullable(name.getParent()).orElse(Name.ROOT);
+    }
+
+    /**
+     * Return the entry and directory names whose parent is the given name.
+     *
+     * @param parent the parent name, or {@link Name#ROOT} for top-level names
+     * @return a stream of child names, entries before directories
+     */
+    @NotNull
+    Stream<Name> children(@NotNull Name parent) {
+        return children.getOrDefault(parent, Collections.emptyList()).stream();
+    }
+
+    /**
+     * Return all entry and directory names below the given name.
+     *
+     * @param ancestor the ancestor name, or {@link Name#ROOT} for all names
+     * @return a stream of descendant names, entries before directories
+     */
+    @NotNull
+    Stream<Name> descendants(@NotNull Name ancestor) {
+        return Stream.concat(descendants(entryNames, ancestor), descendants(dirNames, ancestor));
+    }
+
+    static Stream<Name> descendants(@NotNull NavigableSet<Name> names, @NotNull Name ancestor) {
+        if (ancestor.isRoot()) {
+            return names.stream();
+        }
+        return names.tailSet(ancestor, false).stream()
+                .takeWhile(name -> name.startsWithName(ancestor));
+    }
+}
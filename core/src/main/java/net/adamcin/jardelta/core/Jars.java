@@ -20,37 +20,75 @@ import net.adamcin.jardelta.api.Name;
 import net.adamcin.jardelta.api.diff.Element;
 import net.adamcin.jardelta.api.jar.EntryMeta;
 import net.adamcin.jardelta.api.jar.OpenJar;
+import net.adamcin.jardelta.core.entry.DigestAlgorithm;
 import net.adamcin.streamsupport.Both;
 import net.adamcin.streamsupport.Fun;
 import net.adamcin.streamsupport.Result;
 import net.adamcin.streamsupport.throwing.ThrowingFunction;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.TreeMap;
 
 public final class Jars {
     private final Both<String> names;
     private final Both<Path> values;
-    private final Both<Map<Name, Result<EntryMeta>>> resourceCaches = Both.of(new TreeMap<>(), new TreeMap<>());
+    private final Map<DigestAlgorithm, Both<Map<Name, Result<EntryMeta>>>> resourceCaches =
+            new EnumMap<>(DigestAlgorithm.class);
+    private final EntryMetaCache entryMetaCache;
 
     public Jars(@NotNull Both<Path> values) {
         this(values.map(Path::toString), values);
     }
 
     public Jars(@NotNull Both<String> names, @NotNull Both<Path> values) {
+        this(names, values, null);
+    }
+
+    private Jars(@NotNull Both<String> names, @NotNull Both<Path> values, @Nullable EntryMetaCache entryMetaCache) {
         this.names = names;
         this.values = values;
+        this.entryMetaCache = entryMetaCache;
+    }
+
+    /**
+     * Return a copy of these jars that reads and stores entry metadata in the provided shared cache.
+     *
+     * @param entryMetaCache the shared entry metadata cache
+     * @return new jars
+     */
+    @NotNull
+    public Jars withEntryMetaCache(@NotNull EntryMetaCache entryMetaCache) {
+        return new Jars(names, values, entryMetaCache);
     }
 
     public <T> Result<T> openThen(@NotNull ThrowingFunction<Element<OpenJar>, ? extends T> usingFn) {
-        return Fun.result0(() -> {
-            try (OpenJarImpl leftJar = OpenJarImpl.fromFile(names.left(), values.left(), resourceCaches.left());
-                 OpenJarImpl rightJar = OpenJarImpl.fromFile(names.right(), values.right(), resourceCaches.right())) {
+        return openThen(Settings.DEFAULT_SETTINGS, usingFn);
+    }
+
+    /**
+     * Open both jars using the digest algorithm specified by the provided settings, and apply the provided function.
+     *
+     * @param settings the settings
+     * @param usingFn  the function to apply to both open jars
+     * @param <T>      the result type
+     * @return the result of the function
+     */
+    public <T> Result<T> openThen(@NotNull Settings settings,
+                                  @NotNull ThrowingFunction<Element<OpenJar>, ? extends T> usingFn) {
+        final DigestAlgorithm digestAlgorithm = settings.getDigestAlgorithm();
+        final Both<Map<Name, Result<EntryMeta>>> caches = getResourceCaches(digestAlgorithm);
+        final Result<T> result = Fun.result0(() -> {
+            try (OpenJarImpl leftJar = OpenJarImpl.fromFile(names.left(), values.left(), caches.left(),
+                    digestAlgorithm);
+                 OpenJarImpl rightJar = OpenJarImpl.fromFile(names.right(), values.right(), caches.right(),
+                         digestAlgorithm)) {
                 final Both<OpenJar> openJars = Both.of(leftJar, rightJar);
                 return (T) usingFn.tryApply(new Element<>() {
                     @Override
@@ -65,6 +103,18 @@ public final class Jars {
                 });
             }
         }).get();
+        if (entryMetaCache != null) {
+            values.zip(caches).stream().forEach(entry ->
+                    EntryMetaCache.store(entryMetaCache.getTable(entry.getKey(), digestAlgorithm), entry.getValue()));
+        }
+        return result;
+    }
+
+    private synchronized Both<Map<Name, Result<EntryMeta>>> getResourceCaches(
+            @NotNull DigestAlgorithm digestAlgorithm) {
+        return resourceCaches.computeIfAbsent(digestAlgorithm, key -> entryMetaCache != null
+                ? values.map(path -> EntryMetaCache.seed(entryMetaCache.getTable(path, digestAlgorithm)))
+                : Both.of(new TreeMap<>(), new TreeMap<>()));
     }
 
     public @NotNull Both<Path> both() {
@@ -16,32 +16,38 @@
 
 package net.adamcin.jardelta.core;
 
+import aQute.bnd.header.Parameters;
+import aQute.bnd.osgi.Constants;
 import aQute.bnd.osgi.FileResource;
 import aQute.bnd.osgi.Jar;
 import aQute.bnd.osgi.Resource;
-import aQute.libg.cryptography.SHA256;
 import net.adamcin.jardelta.api.Name;
 import net.adamcin.jardelta.api.jar.EntryMeta;
+import net.adamcin.jardelta.api.jar.ManifestHeaders;
 import net.adamcin.jardelta.api.jar.OpenJar;
+import net.adamcin.jardelta.core.entry.DigestAlgorithm;
 import net.adamcin.jardelta.core.entry.EntryMetaImpl;
+import net.adamcin.jardelta.core.entry.ZipIndex;
 import net.adamcin.streamsupport.Fun;
 import net.adamcin.streamsupport.Result;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.osgi.framework.Bundle;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.jar.Attributes;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -55,11 +61,21 @@ public class OpenJarImpl implements OpenJar, Closeable {
     private final Set<Name> dirNames;
     private final Map<Name, Set<Name>> entryAttributeNames;
     private final Manifest manifest;
-    private final Bundle bundleFacade;
+    private ManifestHeaders manifestHeaders;
+    private final Map<String, Optional<Parameters>> parameters = new ConcurrentHashMap<>();
+    private Bundle bundleFacade;
     private final Map<Name, Result<EntryMeta>> resourceCache;
+    private final DigestAlgorithm digestAlgorithm;
+    private final ZipIndex zipIndex;
+    private final OpenJarUrlHandler urlHandler;
 
-    private OpenJarImpl(@NotNull Jar jar, @NotNull Map<Name, Result<EntryMeta>> resourceCache) {
+    private OpenJarImpl(@NotNull Jar jar,
+                        @NotNull Map<Name, Result<EntryMeta>> resourceCache,
+                        @NotNull DigestAlgorithm digestAlgorithm,
+                        @Nullable ZipIndex zipIndex) {
         this.resourceCache = resourceCache;
+        this.digestAlgorithm = digestAlgorithm;
+        this.zipIndex = zipIndex;
         this.jar = jar;
         this.names = this.jar.getResources().keySet().stream()
                 .map(Name::of)
@@ -76,19 +92,38 @@ public class OpenJarImpl implements OpenJar, Closeable {
                         .map(Name::of)
                         .collect(Collectors.toCollection(TreeSet::new))))
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        this.bundleFacade = new BundleFacade(this);
+        this.urlHandler = new OpenJarUrlHandler(this);
     }
 
     public static Result<EntryMeta> fromResource(@NotNull Resource resource,
+                                                 @NotNull DigestAlgorithm digestAlgorithm,
                                                  @Nullable Set<Name> attributeNames) {
         return result0(() -> {
             try (InputStream inputStream = resource.openInputStream()) {
                 return (EntryMeta) new EntryMetaImpl(resource.lastModified(), resource.size(), resource.getExtra(),
-                        SHA256.digest(inputStream).asHex(), attributeNames);
+                        digestAlgorithm.digest(inputStream), attributeNames);
             }
         }).get();
     }
 
+    /**
+     * Create entry metadata whose digest is computed lazily from the raw data of the indexed zip entry, so that
+     * entries with identical compressed bytes can be compared without inflating either.
+     *
+     * @param resource        the jar resource
+     * @param digestAlgorithm the digest algorithm
+     * @param rawEntry        the indexed zip entry for the resource
+     * @param attributeNames  manifest attribute names for the entry
+     * @return the entry metadata
+     */
+    public static Result<EntryMeta> fromIndexedResource(@NotNull Resource resource,
+                                                        @NotNull DigestAlgorithm digestAlgorithm,
+                                                        @NotNull ZipIndex.Entry rawEntry,
+                                                        @Nullable Set<Name> attributeNames) {
+        return result0(() -> (EntryMeta) new EntryMetaImpl(resource.lastModified(), resource.size(),
+                resource.getExtra(), digestAlgorithm, rawEntry, attributeNames)).get();
+    }
+
     public String getVersion() {
         return uncheck0(jar::getVersion).get();
     }
@@ -123,7 +158,13 @@ public class OpenJarImpl implements OpenJar, Closeable {
             return Optional.ofNullable(jar.getResource(nameString))
                     .map(Result::success)
                     .orElseGet(() -> Result.failure(new NullPointerException("no resource for name " + nameString)))
-                    .flatMap(resource -> OpenJarImpl.fromResource(resource, getEntryAttributeNames(name)));
+                    .flatMap(resource -> Optional.ofNullable(zipIndex)
+                            .flatMap(index -> index.getEntry(nameString))
+                            .filter(ZipIndex.Entry::isReadable)
+                            .map(rawEntry -> OpenJarImpl.fromIndexedResource(resource, digestAlgorithm, rawEntry,
+                                    getEntryAttributeNames(name)))
+                            .orElseGet(() -> OpenJarImpl.fromResource(resource, digestAlgorithm,
+                                    getEntryAttributeNames(name))));
         })) : Optional.empty();
     }
 
@@ -133,61 +174,93 @@ public class OpenJarImpl implements OpenJar, Closeable {
         return Optional.ofNullable(manifest).map(Manifest::new).orElse(null);
     }
 
-    URL jarUrl() throws MalformedURLException {
-        if (jar.getName().contains("!/")) {
-            throw new MalformedURLException("Nested jar urls are not supported");
-        } else {
-            return Path.of(jar.getName()).toUri().toURL();
+    boolean containsEntry(@NotNull Name name) {
+        return names.contains(name);
+    }
+
+    @Override
+    @Nullable
+    public InputStream openEntryStream(@NotNull Name name) throws IOException {
+        if (!names.contains(name)) {
+            return null;
+        }
+        final String nameString = name.toString();
+        final Optional<ZipIndex.Entry> rawEntry = Optional.ofNullable(zipIndex)
+                .flatMap(index -> index.getEntry(nameString))
+                .filter(ZipIndex.Entry::isReadable);
+        if (rawEntry.isPresent()) {
+            return rawEntry.get().openStream();
+        }
+        final Resource resource = jar.getResource(nameString);
+        if (resource == null) {
+            return null;
+        }
+        try {
+            return resource.openInputStream();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("failed to open resource for name " + nameString, e);
         }
     }
 
+    /**
+     * Build a URL for a resource in this jar, which is read from this open jar rather than through the JDK jar
+     * protocol handler.
+     *
+     * @param resourceName the resource name, with or without a leading slash
+     * @return a URL for the resource
+     */
     public URL urlFor(@NotNull String resourceName) {
-        return uncheck0(() -> new URL("jar:" + jarUrl().toString() + "!/" + (resourceName.startsWith("/")
-                ? resourceName.substring(1) : resourceName))).get();
+        return uncheck0(() -> urlHandler.urlFor(jar.getName(), resourceName)).get();
+    }
+
+    @Override
+    @NotNull
+    public synchronized ManifestHeaders getManifestHeaders() {
+        if (manifestHeaders == null) {
+            manifestHeaders = ManifestHeaders.of(manifest);
+        }
+        return manifestHeaders;
     }
 
     @Override
     @Nullable
     public String getMainAttributeValue(final @NotNull Name attribute) {
-        return Optional.ofNullable(getManifest())
-                .flatMap(manny ->
-                        result0(() -> manny.getMainAttributes()
-                                .getValue(attribute.getSegment()))
-                                .get().toOptional())
-                .orElse(null);
+        return getManifestHeaders().getMainAttributeValue(attribute.getSegment());
     }
 
     @Override
     public @Nullable String getEntryAttributeValue(@NotNull Name entryName, @NotNull Name attribute) {
-        return Optional.ofNullable(getManifest())
-                .flatMap(manny ->
-                        result0(() -> Optional.ofNullable(manny.getAttributes(entryName.toString()))
-                                .orElse(manny.getMainAttributes())
-                                .getValue(attribute.getSegment()))
-                                .get().toOptional())
-                .orElse(null);
+        return getManifestHeaders().getEntryAttributeValue(entryName.toString(), attribute.getSegment());
     }
 
-    @NotNull
-    public Attributes getLocalizedHeaders() {
-        final Attributes localizedHeaders = new Attributes();
-        Optional.ofNullable(getManifest()).map(Manifest::getMainAttributes).ifPresent(mainAttrs -> {
-            for (Map.Entry<Object, Object> entry : mainAttrs.entrySet()) {
-                if (entry.getValue().toString().startsWith("%")) {
-                    localizedHeaders.put(entry.getKey(), entry.getValue());
-                }
-            }
-        });
-        return localizedHeaders;
+    /**
+     * Get the value of a main attribute parsed as OSGi header parameters. The result is parsed once and shared by all
+     * readers of this jar, and must not be modified.
+     *
+     * @param name the attribute name, which is case-insensitive
+     * @return the parsed parameters, or null if the attribute is absent or the name is invalid
+     */
+    @Nullable
+    public Parameters getParameters(@NotNull String name) {
+        return parameters.computeIfAbsent(name.toLowerCase(Locale.ROOT), key ->
+                Optional.ofNullable(getManifestHeaders().getMainAttributeValue(key))
+                        .map(raw -> new Parameters(raw, null, true))).orElse(null);
     }
 
     @NotNull
-    public Bundle getBundle() {
+    public synchronized Bundle getBundle() {
+        if (bundleFacade == null) {
+            bundleFacade = new BundleFacade(this);
+        }
         return bundleFacade;
     }
 
     public boolean isBundle() {
-        return result0(jar::getBsn).get().map(Objects::nonNull).getOrDefault(false);
+        return Optional.ofNullable(getParameters(Constants.BUNDLE_SYMBOLICNAME))
+                .map(parameters -> !parameters.isEmpty())
+                .orElse(false);
     }
 
     @Override
@@ -195,6 +268,8 @@ public class OpenJarImpl implements OpenJar, Closeable {
     public <T> @Nullable T adaptTo(@NotNull Class<T> adapter) {
         if (Bundle.class.equals(adapter) && isBundle()) {
             return (T) getBundle();
+        } else if (adapter.isInstance(this)) {
+            return (T) this;
         }
         return null;
     }
@@ -208,7 +283,41 @@ public class OpenJarImpl implements OpenJar, Closeable {
     public static OpenJarImpl fromFile(@Nullable String name,
                                        @NotNull Path path,
                                        @NotNull Map<Name, Result<EntryMeta>> resourceCache) throws Exception {
-        return new OpenJarImpl(Jar.fromResource(name, new FileResource(path)), resourceCache);
+        return fromFile(name, path, resourceCache, DigestAlgorithm.SHA256);
+    }
+
+    @NotNull
+    public static OpenJarImpl fromFile(@Nullable String name,
+                                       @NotNull Path path,
+                                       @NotNull Map<Name, Result<EntryMeta>> resourceCache,
+                                       @NotNull DigestAlgorithm digestAlgorithm) throws Exception {
+        return new OpenJarImpl(Jar.fromResource(name, new FileResource(path)), resourceCache, digestAlgorithm,
+                ZipIndex.open(path).orElse(null));
+    }
+
+    /**
+     * Open a zip entry of this jar as a nested jar, reading it into memory from the parent resource stream rather than
+     * extracting it to disk.
+     *
+     * @param entryName     the name of the nested jar entry
+     * @param resourceCache the entry meta cache for the nested jar
+     * @return the open nested jar
+     * @throws Exception if the entry does not exist or cannot be read as a zip
+     */
+    @NotNull
+    public OpenJarImpl openNested(@NotNull Name entryName,
+                                  @NotNull Map<Name, Result<EntryMeta>> resourceCache) throws Exception {
+        final String nameString = entryName.toString();
+        final Resource resource = jar.getResource(nameString);
+        if (resource == null) {
+            throw new IOException("no resource for name " + nameString);
+        }
+        final byte[] zipData;
+        try (InputStream inputStream = resource.openInputStream()) {
+            zipData = inputStream.readAllBytes();
+        }
+        return new OpenJarImpl(new Jar(jar.getName() + "!/" + nameString, new ByteArrayInputStream(zipData)),
+                resourceCache, digestAlgorithm, ZipIndex.of(ByteBuffer.wrap(zipData)).orElse(null));
     }
 
 }
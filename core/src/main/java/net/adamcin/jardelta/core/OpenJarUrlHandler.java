@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import net.adamcin.jardelta.api.Name;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+
+/**
+ * Serves {@code jardelta:<jarName>!/<entryName>} URLs directly from an already open jar, so that resources are never
+ * read through {@link java.net.JarURLConnection} and the JDK jar file cache. This also allows URLs to be created for
+ * entries of nested and in-memory jars.
+ */
+final class OpenJarUrlHandler extends URLStreamHandler {
+    static final String PROTOCOL = "jardelta";
+    static final String SEPARATOR = "!/";
+    private final OpenJarImpl jar;
+
+    OpenJarUrlHandler(@NotNull OpenJarImpl jar) {
+        this.jar = jar;
+    }
+
+    @NotNull
+    URL urlFor(@NotNull String jarName, @NotNull String resourceName) throws MalformedURLException {
+        return new URL(PROTOCOL, null, -1, jarName + SEPARATOR + (resourceName.startsWith("/")
+                ? resourceName.substring(1) : resourceName), this);
+    }
+
+    @NotNull
+    static Name entryNameOf(@NotNull URL url) throws MalformedURLException {
+        // like jar: URLs, a '#' in the entry name is parsed as a ref, so it must be put back
+        final String file = url.getRef() != null ? url.getFile() + "#" + url.getRef() : url.getFile();
+        final int separator = file.lastIndexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new MalformedURLException("no entry separator in " + url);
+        }
+        return Name.of(file.substring(separator + SEPARATOR.length()));
+    }
+
+    @Override
+    protected URLConnection openConnection(URL url) throws IOException {
+        return new OpenJarUrlConnection(url, jar, entryNameOf(url));
+    }
+
+    static final class OpenJarUrlConnection extends URLConnection {
+        private final OpenJarImpl jar;
+        private final Name entryName;
+
+        OpenJarUrlConnection(@NotNull URL url, @NotNull OpenJarImpl jar, @NotNull Name entryName) {
+            super(url);
+            this.jar = jar;
+            this.entryName = entryName;
+        }
+
+        @Override
+        public void connect() throws IOException {
+            if (!jar.containsEntry(entryName)) {
+                throw new FileNotFoundException("no entry for name " + entryName + " in " + url);
+            }
+            connected = true;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            connect();
+            final InputStream inputStream = jar.openEntryStream(entryName);
+            if (inputStream == null) {
+                throw new FileNotFoundException("no entry for name " + entryName + " in " + url);
+            }
+            return inputStream;
+        }
+    }
+}
@@ -16,20 +16,28 @@
 
 package net.adamcin.jardelta.core;
 
+import net.adamcin.jardelta.api.Kind;
 import net.adamcin.jardelta.api.diff.Diff;
 import net.adamcin.jardelta.api.diff.Emitter;
 import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.api.diff.Element;
+import net.adamcin.jardelta.api.jar.OpenJar;
 import net.adamcin.jardelta.core.entry.JarEntryDiffer;
 import net.adamcin.jardelta.core.manifest.ManifestRefinementStrategy;
 import net.adamcin.jardelta.core.mavenmeta.MavenMetaRefinementStrategy;
+import net.adamcin.jardelta.core.nested.NestedJarRefinementStrategy;
 import net.adamcin.jardelta.core.osgi.header.HeaderRefinementStrategy;
 import net.adamcin.jardelta.core.osgi.ocd.MetaTypeRefinementStrategy;
 import net.adamcin.jardelta.core.osgi.scr.ScrRefinementStrategy;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.SortedSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class Plan {
 
@@ -38,28 +46,81 @@ public class Plan {
             new HeaderRefinementStrategy(),
             new ScrRefinementStrategy(),
             new MetaTypeRefinementStrategy(),
-            new MavenMetaRefinementStrategy());
+            new MavenMetaRefinementStrategy(),
+            new NestedJarRefinementStrategy());
+
+    /**
+     * Get the kinds of the refinement strategies of this plan, in the same order as {@link Delta#getRefinements()}.
+     *
+     * @return the refinement kinds
+     */
+    @NotNull
+    public List<Kind> getRefinementKinds() {
+        return refinementStrategies.stream().map(RefinementStrategy::getKind).collect(Collectors.toList());
+    }
 
     @NotNull
     public Delta execute(@NotNull Context context) {
+        final Settings settings = Optional.ofNullable(context.getSettings()).orElse(Settings.DEFAULT_SETTINGS);
+        return context.getJars().openThen(settings, openJars -> execute(context, openJars)).getOrThrow();
+    }
+
+    /**
+     * Execute this plan for a pair of jars which are already open, such as jars nested within the jars of the
+     * context.
+     *
+     * @param context  the plan context
+     * @param openJars both open jars
+     * @return the delta
+     */
+    @NotNull
+    public Delta execute(@NotNull Context context, @NotNull Element<OpenJar> openJars) {
         final JarDiffer differ = new JarDiffer(Optional.ofNullable(context.getSettings())
                 .orElse(Settings.DEFAULT_SETTINGS));
 
         final Delta.DeltaBuilder deltaBuilder = new Delta.DeltaBuilder();
         final Emitter emitter = Diff.emitterOf(JarEntryDiffer.DIFF_KIND);
-        Diffs diffs = context.getJars().openThen(openJars ->
-                differ.diff(emitter, openJars).collect(Diffs.collector())).getOrThrow();
+        final Predicate<Diff> haltOn = Optional.ofNullable(context.getHaltOn()).orElse(diff -> false);
+        // entries are hashed as the stream is consumed, so halting stops hashing the remaining entries. a matching
+        // diff that a strategy may supersede only halts once no remaining strategy can refine it, in case the refined
+        // diffs are less significant, as for a manifest change which only reorders headers.
+        final List<Diff> initial = new ArrayList<>();
+        final List<Diff> deferred = new ArrayList<>();
+        Diff haltedBy = null;
+        for (Iterator<Diff> iterator = differ.diff(emitter, openJars).iterator();
+             haltedBy == null && iterator.hasNext(); ) {
+            final Diff diff = iterator.next();
+            initial.add(diff);
+            if (haltOn.test(diff)) {
+                if (isRefinable(refinementStrategies, diff)) {
+                    deferred.add(diff);
+                } else {
+                    haltedBy = diff;
+                }
+            }
+        }
+        Diffs diffs = initial.stream().collect(Diffs.collector());
         deltaBuilder.initial(diffs);
         final List<Refinement> refinements = new ArrayList<>();
-        for (RefinementStrategy strategy : refinementStrategies) {
-            final Diffs toRefine = diffs;
-            Refinement refinement = context.getJars().openThen(openJars -> strategy.refine(context, toRefine, openJars))
-                    .getOrThrow();
+        for (int i = 0; haltedBy == null && i < refinementStrategies.size(); i++) {
+            final Refinement refinement = refinementStrategies.get(i).refine(context, diffs, openJars);
             diffs = diffs.refinedBy(refinement);
             refinements.add(refinement);
+            final List<RefinementStrategy> remaining = refinementStrategies.subList(i + 1, refinementStrategies.size());
+            refinement.getDiffs().stream().filter(haltOn).forEach(deferred::add);
+            final SortedSet<Diff> current = diffs.asSortedSet();
+            haltedBy = deferred.stream()
+                    .filter(current::contains)
+                    .filter(diff -> !isRefinable(remaining, diff))
+                    .findFirst().orElse(null);
         }
         deltaBuilder.refinements(List.copyOf(refinements));
         deltaBuilder.results(diffs);
+        deltaBuilder.haltedBy(haltedBy);
         return deltaBuilder.build();
     }
+
+    static boolean isRefinable(@NotNull List<RefinementStrategy> strategies, @NotNull Diff diff) {
+        return strategies.stream().anyMatch(strategy -> strategy.isRefinable(diff));
+    }
 }
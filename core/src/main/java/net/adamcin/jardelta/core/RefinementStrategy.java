@@ -17,6 +17,7 @@
 package net.adamcin.jardelta.core;
 
 import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.diff.Diff;
 import net.adamcin.jardelta.api.diff.Diffs;
 import net.adamcin.jardelta.api.diff.Element;
 import net.adamcin.jardelta.api.jar.OpenJar;
@@ -47,4 +48,15 @@ public interface RefinementStrategy {
      */
     @NotNull
     Refinement refine(@NotNull Context context, @NotNull Diffs diffs, @NotNull Element<OpenJar> openJars);
+
+    /**
+     * Test whether this strategy might supersede the given diff from a prior phase. A {@link Plan} does not halt on
+     * such a diff until this strategy has had its chance to refine it.
+     *
+     * @param diff a diff from a prior phase
+     * @return true unless this strategy will never supersede the diff
+     */
+    default boolean isRefinable(@NotNull Diff diff) {
+        return true;
+    }
 }
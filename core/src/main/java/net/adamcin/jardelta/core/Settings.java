@@ -18,10 +18,32 @@ package net.adamcin.jardelta.core;
 
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import net.adamcin.jardelta.core.entry.DigestAlgorithm;
 
 @Builder
 @Getter
+@ToString
 public final class Settings {
+    public static final int DEFAULT_NESTED_JAR_DEPTH = 2;
     public static final Settings DEFAULT_SETTINGS = Settings.builder().build();
     private final boolean compareLastModified;
+    /**
+     * The maximum depth of nested jars to open for comparison. A depth of zero compares nested jars only as opaque
+     * entries.
+     */
+    @Builder.Default
+    private final int nestedJarDepth = DEFAULT_NESTED_JAR_DEPTH;
+    /**
+     * The algorithm used to compute entry digests.
+     */
+    @NonNull
+    @Builder.Default
+    private final DigestAlgorithm digestAlgorithm = DigestAlgorithm.SHA256;
+    /**
+     * Parse the SCR and MetaType descriptors of both jars concurrently.
+     */
+    @Builder.Default
+    private final boolean parallelDescriptorParsing = true;
 }
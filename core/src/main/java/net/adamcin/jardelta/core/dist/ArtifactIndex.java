@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.dist;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.core.OpenJarImpl;
+import net.adamcin.jardelta.core.mavenmeta.MavenMetaRefinementStrategy;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of the jars found under a distribution root, keyed by {@code Bundle-SymbolicName} for bundles, by
+ * {@code groupId:artifactId} for jars containing exactly one set of maven metadata, or otherwise by the path of the
+ * jar relative to the root.
+ */
+final class ArtifactIndex {
+    private static final Name POM_PROPERTIES = Name.of("pom.properties");
+
+    private final Path root;
+    private final Map<String, List<Path>> artifacts;
+
+    private ArtifactIndex(@NotNull Path root, @NotNull Map<String, List<Path>> artifacts) {
+        this.root = root;
+        this.artifacts = artifacts;
+    }
+
+    @NotNull
+    static ArtifactIndex scan(@NotNull Path root) throws IOException {
+        final List<Path> jarFiles;
+        try (Stream<Path> walker = Files.walk(root)) {
+            jarFiles = walker
+                    .filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".jar"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        final Map<String, List<Path>> artifacts = jarFiles.parallelStream()
+                .collect(Collectors.groupingByConcurrent(path -> keyOf(root, path)))
+                .entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        entry -> entry.getValue().stream().sorted().collect(Collectors.toList()),
+                        (left, right) -> left,
+                        TreeMap::new));
+        return new ArtifactIndex(root, Collections.unmodifiableMap(artifacts));
+    }
+
+    @NotNull
+    static String keyOf(@NotNull Path root, @NotNull Path jarFile) {
+        final String relativePath = relativePath(root, jarFile);
+        try (OpenJarImpl openJar = OpenJarImpl.fromFile(relativePath, jarFile, new TreeMap<>())) {
+            if (openJar.isBundle()) {
+                return openJar.getSymbolicName();
+            }
+            return mavenKey(openJar.getEntryNames()).orElse(relativePath);
+        } catch (Exception e) {
+            return relativePath;
+        }
+    }
+
+    @NotNull
+    static Optional<String> mavenKey(@NotNull Iterable<Name> entryNames) {
+        final TreeSet<String> keys = new TreeSet<>();
+        for (Name entryName : entryNames) {
+            // META-INF/maven/{groupId}/{artifactId}/pom.properties
+            if (entryName.endsWithName(POM_PROPERTIES)) {
+                final Name artifactName = entryName.getParent();
+                final Name groupName = artifactName != null ? artifactName.getParent() : null;
+                if (groupName != null && MavenMetaRefinementStrategy.NAME_PREFIX.equals(groupName.getParent())) {
+                    keys.add(groupName.getSegment() + ":" + artifactName.getSegment());
+                }
+            }
+        }
+        return keys.size() == 1 ? Optional.of(keys.first()) : Optional.empty();
+    }
+
+    @NotNull
+    Path getRoot() {
+        return root;
+    }
+
+    @NotNull
+    Map<String, List<Path>> getArtifacts() {
+        return artifacts;
+    }
+
+    @NotNull
+    static String relativePath(@NotNull Path root, @NotNull Path jarFile) {
+        return root.relativize(jarFile).toString().replace('\\', '/');
+    }
+
+    @NotNull
+    String relativize(@NotNull Path jarFile) {
+        return relativePath(root, jarFile);
+    }
+
+    /**
+     * Select the jar for the given key, preferring the first in path order when more than one jar shares the key.
+     *
+     * @param key the artifact key
+     * @return the selected jar, if any
+     */
+    @NotNull
+    Optional<Path> select(@NotNull String key) {
+        return Optional.ofNullable(artifacts.get(key)).flatMap(paths -> paths.stream().findFirst());
+    }
+}
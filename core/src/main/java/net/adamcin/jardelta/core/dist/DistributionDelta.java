@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.dist;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.streamsupport.Result;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The result of a {@link DistributionPlan}: the artifacts which were added, removed, or ambiguous, and a delta for
+ * each artifact present on both sides whose file content differs, keyed by artifact key.
+ */
+@Builder
+@Data
+public final class DistributionDelta {
+    @NonNull
+    @Builder.Default
+    private Diffs artifacts = Diffs.EMPTY;
+    @NonNull
+    @Builder.Default
+    private Map<String, Result<Delta>> deltas = Collections.emptyMap();
+    @NonNull
+    @Builder.Default
+    private Set<String> unchanged = Collections.emptySet();
+}
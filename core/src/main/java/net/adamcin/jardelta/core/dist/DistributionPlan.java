@@ -0,0 +1,185 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.dist;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.api.diff.Differs;
+import net.adamcin.jardelta.api.diff.Emitter;
+import net.adamcin.jardelta.core.BatchPlan;
+import net.adamcin.jardelta.core.Context;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Jars;
+import net.adamcin.jardelta.core.Settings;
+import net.adamcin.streamsupport.Both;
+import net.adamcin.streamsupport.Fun;
+import net.adamcin.streamsupport.Result;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares two distributions by pairing up the jars found under each root by artifact key, reporting artifacts which
+ * were added or removed, and executing a {@link net.adamcin.jardelta.core.Plan} for each pair of jars whose file
+ * content differs.
+ */
+public final class DistributionPlan {
+    public static final Kind DIFF_KIND = Kind.of("artifact");
+    public static final Name NAME_PREFIX = Name.of("{artifact}");
+    private static final int COMPARE_BUFFER_SIZE = 64 * 1024;
+
+    private final BatchPlan batchPlan;
+
+    /**
+     * Create a distribution plan that executes each pairwise comparison using the provided batch plan, which remains
+     * owned by the caller.
+     *
+     * @param batchPlan the batch plan to execute pairwise comparisons
+     */
+    public DistributionPlan(@NotNull BatchPlan batchPlan) {
+        this.batchPlan = batchPlan;
+    }
+
+    @NotNull
+    public DistributionDelta execute(@NotNull Distributions distributions, @Nullable Settings settings) throws IOException {
+        return execute(distributions, settings, null);
+    }
+
+    /**
+     * Compare two distributions, stopping the comparison of each pair of jars at its first diff matching
+     * {@code haltOn}.
+     *
+     * @param distributions both distributions
+     * @param settings      the settings for each pairwise comparison
+     * @param haltOn        the halt predicate for each pairwise comparison, or null to compare each pair completely
+     * @return the distribution delta
+     * @throws IOException if either distribution cannot be scanned
+     */
+    @NotNull
+    public DistributionDelta execute(@NotNull Distributions distributions,
+                                     @Nullable Settings settings,
+                                     @Nullable Predicate<Diff> haltOn) throws IOException {
+        final Settings effectiveSettings = Optional.ofNullable(settings).orElse(Settings.DEFAULT_SETTINGS);
+        final Both<ArtifactIndex> indexes = Both.of(
+                ArtifactIndex.scan(distributions.both().left()),
+                ArtifactIndex.scan(distributions.both().right()));
+        final Both<Set<String>> bothKeys = indexes.map(ArtifactIndex::getArtifacts).map(Map::keySet);
+        final Emitter baseEmitter = Diff.emitterOf(DIFF_KIND).forName(NAME_PREFIX);
+
+        final Map<Context, String> pendingKeys = new IdentityHashMap<>();
+        final Set<String> unchanged = new TreeSet<>();
+        final Diffs artifacts = Stream.concat(
+                        Differs.diffSets(baseEmitter,
+                                builder -> builder
+                                        .setSupplier(TreeSet::new)
+                                        .hinter(key -> indexes.map(index -> index.select(key).map(index::relativize))),
+                                bothKeys,
+                                (emitter, key) -> Stream.empty()),
+                        Stream.concat(
+                                duplicates(indexes.left()).map(key -> baseEmitter.forChild(key).errLeft(
+                                        duplicateFailure(indexes.left(), key))),
+                                duplicates(indexes.right()).map(key -> baseEmitter.forChild(key).errRight(
+                                        duplicateFailure(indexes.right(), key)))))
+                .collect(Diffs.collector());
+
+        for (String key : bothKeys.left()) {
+            if (!bothKeys.right().contains(key)) {
+                continue;
+            }
+            final Both<Path> paths = indexes.map(index -> index.select(key).orElseThrow());
+            if (sameContent(paths)) {
+                unchanged.add(key);
+            } else {
+                final Context context = Context.builder()
+                        .jars(new Jars(Both.of(indexes.left().relativize(paths.left()),
+                                indexes.right().relativize(paths.right())), paths))
+                        .settings(effectiveSettings)
+                        .haltOn(haltOn)
+                        .build();
+                pendingKeys.put(context, key);
+            }
+        }
+
+        final Map<String, Result<Delta>> deltas = batchPlan.executeAll(List.copyOf(pendingKeys.keySet()))
+                .map(Fun.mapKey(pendingKeys::get))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (left, right) -> left, TreeMap::new));
+
+        return DistributionDelta.builder()
+                .artifacts(artifacts)
+                .deltas(Collections.unmodifiableMap(deltas))
+                .unchanged(Collections.unmodifiableSet(unchanged))
+                .build();
+    }
+
+    static Stream<String> duplicates(@NotNull ArtifactIndex index) {
+        return index.getArtifacts().entrySet().stream()
+                .filter(entry -> entry.getValue().size() > 1)
+                .map(Map.Entry::getKey);
+    }
+
+    static Result<?> duplicateFailure(@NotNull ArtifactIndex index, @NotNull String key) {
+        return Result.failure("Multiple jars share the same artifact key, comparing only the first: "
+                + index.getArtifacts().get(key).stream().map(index::relativize).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Compare the content of both files, checking their sizes before reading either.
+     *
+     * @param paths both file paths
+     * @return true if both files have identical content
+     * @throws IOException if either file cannot be read
+     */
+    static boolean sameContent(@NotNull Both<Path> paths) throws IOException {
+        if (Files.size(paths.left()) != Files.size(paths.right())) {
+            return false;
+        }
+        try (InputStream left = Files.newInputStream(paths.left());
+             InputStream right = Files.newInputStream(paths.right())) {
+            final byte[] leftBuffer = new byte[COMPARE_BUFFER_SIZE];
+            final byte[] rightBuffer = new byte[COMPARE_BUFFER_SIZE];
+            while (true) {
+                final int leftRead = left.readNBytes(leftBuffer, 0, leftBuffer.length);
+                final int rightRead = right.readNBytes(rightBuffer, 0, rightBuffer.length);
+                if (leftRead != rightRead
+                        || !Arrays.equals(leftBuffer, 0, leftRead, rightBuffer, 0, rightRead)) {
+                    return false;
+                }
+                if (leftRead < leftBuffer.length) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.dist;
+
+import net.adamcin.streamsupport.Both;
+import net.adamcin.streamsupport.Fun;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Both root directories of a pair of distributions, each containing any number of jars at any depth.
+ */
+public final class Distributions {
+    private final Both<Path> roots;
+
+    public Distributions(@NotNull Both<Path> roots) {
+        this.roots = roots;
+    }
+
+    public @NotNull Both<Path> both() {
+        return roots;
+    }
+
+    public static Distributions from(@NotNull URL left, @NotNull URL right) {
+        return new Distributions(Both.of(left, right).map(Fun.uncheck1(URL::toURI)).map(Paths::get));
+    }
+
+    public static Distributions from(@NotNull Path left, @NotNull Path right) {
+        return new Distributions(Both.of(left, right));
+    }
+
+    public static Distributions from(@NotNull File left, @NotNull File right) {
+        return new Distributions(Both.of(left, right).map(File::toPath));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.entry;
+
+import net.adamcin.jardelta.api.jar.Digest;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Algorithms available for computing {@link net.adamcin.jardelta.api.jar.Digest}s of entry content. SHA-256 is the
+ * default. CRC32C and XXHASH64 are much cheaper to compute, and are sufficient for identifying unchanged entries when
+ * the jars being compared are trusted.
+ */
+public enum DigestAlgorithm {
+    SHA256("sha256", () -> new MessageDigestHasher("SHA-256")),
+    CRC32C("crc32c", Crc32cHasher::new),
+    XXHASH64("xxhash64", XxHash64::new);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String algorithmName;
+    private final Supplier<Hasher> hasherSupplier;
+
+    DigestAlgorithm(@NotNull String algorithmName, @NotNull Supplier<Hasher> hasherSupplier) {
+        this.algorithmName = algorithmName;
+        this.hasherSupplier = hasherSupplier;
+    }
+
+    @NotNull
+    public String getAlgorithmName() {
+        return algorithmName;
+    }
+
+    /**
+     * Compute the digest of the remaining content of the provided stream.
+     *
+     * @param inputStream the content stream
+     * @return the digest
+     * @throws IOException if the stream cannot be read
+     */
+    @NotNull
+    public Digest digest(@NotNull InputStream inputStream) throws IOException {
+        final Hasher hasher = hasherSupplier.get();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) >= 0) {
+            hasher.update(buffer, 0, read);
+        }
+        return Digest.of(algorithmName, hasher.finish());
+    }
+
+    /**
+     * Compute the digest of the provided bytes.
+     *
+     * @param content the content
+     * @return the digest
+     */
+    @NotNull
+    public Digest digest(byte[] content) {
+        final Hasher hasher = hasherSupplier.get();
+        hasher.update(content, 0, content.length);
+        return Digest.of(algorithmName, hasher.finish());
+    }
+
+    interface Hasher {
+        void update(byte[] bytes, int offset, int length);
+
+        byte[] finish();
+    }
+
+    static final class MessageDigestHasher implements Hasher {
+        private final MessageDigest messageDigest;
+
+        MessageDigestHasher(@NotNull String algorithm) {
+            try {
+                this.messageDigest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            messageDigest.update(bytes, offset, length);
+        }
+
+        @Override
+        public byte[] finish() {
+            return messageDigest.digest();
+        }
+    }
+
+    static final class Crc32cHasher implements Hasher {
+        private final CRC32C crc = new CRC32C();
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+            crc.update(bytes, offset, length);
+        }
+
+        @Override
+        public byte[] finish() {
+            return ByteBuffer.allocate(Integer.BYTES).putInt((int) crc.getValue()).array();
+        }
+    }
+}
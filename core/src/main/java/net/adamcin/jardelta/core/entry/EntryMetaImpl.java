@@ -17,11 +17,16 @@
 package net.adamcin.jardelta.core.entry;
 
 import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.jar.Digest;
 import net.adamcin.jardelta.api.jar.EntryMeta;
+import net.adamcin.streamsupport.Result;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -29,18 +34,52 @@ public final class EntryMetaImpl implements EntryMeta {
     private final long lastModified;
     private final long size;
     private final String extra;
-    private final String sha256;
+    private final DigestAlgorithm digestAlgorithm;
+    private final ZipIndex.Entry rawEntry;
+    private volatile Result<Digest> digest;
     private final Set<Name> attributeNames;
 
     public EntryMetaImpl(long lastModified,
                          long size,
                          @Nullable String extra,
-                         @NotNull String sha256,
+                         @NotNull Digest digest,
                          @Nullable Set<Name> attributeNames) {
+        this(lastModified, size, extra, digest, null, null, attributeNames);
+    }
+
+    /**
+     * Construct entry metadata backed by the raw data of an indexed zip entry, computing its digest only when it is
+     * requested.
+     *
+     * @param lastModified   last modified time
+     * @param size           uncompressed size
+     * @param extra           the extra field
+     * @param digestAlgorithm the algorithm to compute the digest with
+     * @param rawEntry        the indexed zip entry
+     * @param attributeNames  manifest attribute names for the entry
+     */
+    public EntryMetaImpl(long lastModified,
+                         long size,
+                         @Nullable String extra,
+                         @NotNull DigestAlgorithm digestAlgorithm,
+                         @NotNull ZipIndex.Entry rawEntry,
+                         @Nullable Set<Name> attributeNames) {
+        this(lastModified, size, extra, null, digestAlgorithm, rawEntry, attributeNames);
+    }
+
+    private EntryMetaImpl(long lastModified,
+                          long size,
+                          @Nullable String extra,
+                          @Nullable Digest digest,
+                          @Nullable DigestAlgorithm digestAlgorithm,
+                          @Nullable ZipIndex.Entry rawEntry,
+                          @Nullable Set<Name> attributeNames) {
         this.lastModified = lastModified;
         this.size = size;
         this.extra = extra;
-        this.sha256 = sha256;
+        this.digest = digest == null ? null : Result.success(digest);
+        this.digestAlgorithm = digestAlgorithm;
+        this.rawEntry = rawEntry;
         this.attributeNames = attributeNames == null
                 ? Collections.emptySet()
                 : Collections.unmodifiableSet(new TreeSet<>(attributeNames));
@@ -64,8 +103,67 @@ public final class EntryMetaImpl implements EntryMeta {
 
     @Override
     @NotNull
-    public String getSha256() {
-        return sha256;
+    public Digest getDigest() {
+        return getDigestResult().getOrThrow();
+    }
+
+    /**
+     * Get the digest, computing it on first request if necessary. A failure to read the raw entry data, such as a
+     * corrupt deflate stream, is returned as a failed result instead of being thrown.
+     *
+     * @return the digest or the failure to compute it
+     */
+    @NotNull
+    public Result<Digest> getDigestResult() {
+        Result<Digest> computed = digest;
+        if (computed == null) {
+            synchronized (this) {
+                computed = digest;
+                if (computed == null) {
+                    computed = computeDigest(digestAlgorithm, rawEntry);
+                    digest = computed;
+                }
+            }
+        }
+        return computed;
+    }
+
+    @NotNull
+    static Result<Digest> computeDigest(@NotNull DigestAlgorithm digestAlgorithm, @NotNull ZipIndex.Entry rawEntry) {
+        try (InputStream inputStream = rawEntry.openStream()) {
+            return Result.success(digestAlgorithm.digest(inputStream));
+        } catch (IOException e) {
+            return Result.failure(e);
+        }
+    }
+
+    /**
+     * Return a copy of this metadata that does not reference the raw entry data, and so is safe to retain after the
+     * jar is closed, if the digest has already been computed.
+     *
+     * @return detached metadata with a known digest, or empty if the digest has not been computed or failed
+     */
+    @NotNull
+    public Optional<EntryMeta> detached() {
+        final Result<Digest> computed = digest;
+        if (computed == null || computed.isFailure()) {
+            return Optional.empty();
+        }
+        return Optional.of(rawEntry == null ? this : new EntryMetaImpl(lastModified, size, extra,
+                computed.getOrThrow(), attributeNames));
+    }
+
+    /**
+     * Return true if both entries are backed by indexed zip entries with identical compression and identical raw
+     * bytes, which implies identical content without computing either digest.
+     *
+     * @param other the other entry
+     * @return true if the raw entry data is known to be identical
+     */
+    public boolean rawEquals(@NotNull EntryMeta other) {
+        return rawEntry != null
+                && other instanceof EntryMetaImpl
+                && rawEntry.rawEquals(((EntryMetaImpl) other).rawEntry);
     }
 
     @Override
@@ -75,6 +173,6 @@ public final class EntryMetaImpl implements EntryMeta {
 
     @Override
     public String toString() {
-        return "sha256:" + sha256;
+        return getDigestResult().map(Digest::toString).getOrElse(() -> "<unreadable>");
     }
 }
@@ -23,6 +23,7 @@ import net.adamcin.jardelta.api.diff.Differ;
 import net.adamcin.jardelta.api.diff.Differs;
 import net.adamcin.jardelta.api.diff.Element;
 import net.adamcin.jardelta.api.diff.Emitter;
+import net.adamcin.jardelta.api.jar.Digest;
 import net.adamcin.jardelta.api.jar.EntryMeta;
 import net.adamcin.jardelta.core.Settings;
 import net.adamcin.streamsupport.Result;
@@ -38,7 +39,7 @@ public class JarEntryDiffer implements Differ<Optional<Result<EntryMeta>>> {
 
     public JarEntryDiffer(final @NotNull Settings settings) {
         this.differs = CompositeDiffer.of(builder -> {
-            builder.put("", Differs.ofEquality(EntryMeta::getSha256));
+            builder.put("", JarEntryDiffer::diffContent);
             builder.put("{extra}", Differs.ofNullables(EntryMeta::getExtra));
             if (settings.isCompareLastModified()) {
                 builder.put("{lastModified}", Differs.ofEquality(EntryMeta::getLastModified));
@@ -46,6 +47,30 @@ public class JarEntryDiffer implements Differ<Optional<Result<EntryMeta>>> {
         });
     }
 
+    /**
+     * Compare entry content, skipping both digests when the raw compressed bytes of both entries are identical. A
+     * digest that could not be computed from unreadable entry data is reported as an error for that side.
+     *
+     * @param emitter the diff emitter
+     * @param element both entry metas
+     * @return the diff stream
+     */
+    static @NotNull Stream<Diff> diffContent(@NotNull Emitter emitter, @NotNull Element<EntryMeta> element) {
+        final boolean rawEquals = element.values().testBoth((left, right) ->
+                left instanceof EntryMetaImpl && ((EntryMetaImpl) left).rawEquals(right));
+        if (rawEquals) {
+            return Stream.empty();
+        }
+        return Differs.diffResults(emitter, element.values().map(JarEntryDiffer::getDigestResult),
+                (emit, digests) -> Differs.diffEquality(emit, digests));
+    }
+
+    static @NotNull Result<Digest> getDigestResult(@NotNull EntryMeta entryMeta) {
+        return entryMeta instanceof EntryMetaImpl
+                ? ((EntryMetaImpl) entryMeta).getDigestResult()
+                : Result.success(entryMeta.getDigest());
+    }
+
     @Override
     public @NotNull Stream<Diff> diff(@NotNull Emitter baseEmitter,
                                       @NotNull Element<Optional<Result<EntryMeta>>> element) {
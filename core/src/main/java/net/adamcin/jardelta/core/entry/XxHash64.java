@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.entry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A streaming implementation of the 64-bit xxHash algorithm with a seed of zero, producing the same values as the
+ * reference implementation at <a href="https://github.com/Cyan4973/xxHash">github.com/Cyan4973/xxHash</a>.
+ */
+final class XxHash64 implements DigestAlgorithm.Hasher {
+    static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    static final long PRIME64_3 = 0x165667B19E3779F9L;
+    static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE_LENGTH = 32;
+
+    private long v1 = PRIME64_1 + PRIME64_2;
+    private long v2 = PRIME64_2;
+    private long v3 = 0L;
+    private long v4 = -PRIME64_1;
+    private long totalLength = 0L;
+    private final byte[] pending = new byte[STRIPE_LENGTH];
+    private int pendingLength = 0;
+
+    @Override
+    public void update(byte[] bytes, int offset, int length) {
+        totalLength += length;
+        int position = offset;
+        final int end = offset + length;
+        if (pendingLength > 0) {
+            final int fill = Math.min(STRIPE_LENGTH - pendingLength, length);
+            System.arraycopy(bytes, position, pending, pendingLength, fill);
+            pendingLength += fill;
+            position += fill;
+            if (pendingLength < STRIPE_LENGTH) {
+                return;
+            }
+            consumeStripe(pending, 0);
+            pendingLength = 0;
+        }
+        while (position + STRIPE_LENGTH <= end) {
+            consumeStripe(bytes, position);
+            position += STRIPE_LENGTH;
+        }
+        if (position < end) {
+            System.arraycopy(bytes, position, pending, 0, end - position);
+            pendingLength = end - position;
+        }
+    }
+
+    private void consumeStripe(byte[] bytes, int position) {
+        v1 = round(v1, readLong(bytes, position));
+        v2 = round(v2, readLong(bytes, position + 8));
+        v3 = round(v3, readLong(bytes, position + 16));
+        v4 = round(v4, readLong(bytes, position + 24));
+    }
+
+    long finishLong() {
+        long hash;
+        if (totalLength >= STRIPE_LENGTH) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                    + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = PRIME64_5;
+        }
+        hash += totalLength;
+
+        int position = 0;
+        while (position + Long.BYTES <= pendingLength) {
+            hash ^= round(0L, readLong(pending, position));
+            hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+            position += Long.BYTES;
+        }
+        if (position + Integer.BYTES <= pendingLength) {
+            hash ^= (readInt(pending, position) & 0xFFFFFFFFL) * PRIME64_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+            position += Integer.BYTES;
+        }
+        while (position < pendingLength) {
+            hash ^= (pending[position] & 0xFFL) * PRIME64_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+            position++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    @Override
+    public byte[] finish() {
+        return ByteBuffer.allocate(Long.BYTES).putLong(finishLong()).array();
+    }
+
+    static long round(long accumulator, long input) {
+        accumulator += input * PRIME64_2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME64_1;
+    }
+
+    static long mergeRound(long accumulator, long value) {
+        accumulator ^= round(0L, value);
+        return accumulator * PRIME64_1 + PRIME64_4;
+    }
+
+    static long readLong(byte[] bytes, int position) {
+        return (bytes[position] & 0xFFL)
+                | (bytes[position + 1] & 0xFFL) << 8
+                | (bytes[position + 2] & 0xFFL) << 16
+                | (bytes[position + 3] & 0xFFL) << 24
+                | (bytes[position + 4] & 0xFFL) << 32
+                | (bytes[position + 5] & 0xFFL) << 40
+                | (bytes[position + 6] & 0xFFL) << 48
+                | (bytes[position + 7] & 0xFFL) << 56;
+    }
+
+    static int readInt(byte[] bytes, int position) {
+        return (bytes[position] & 0xFF)
+                | (bytes[position + 1] & 0xFF) << 8
+                | (bytes[position + 2] & 0xFF) << 16
+                | (bytes[position + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.entry;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A read-only index of the central directory of a zip file, providing access to the raw compressed bytes of each
+ * entry as a slice of a single buffer, which is memory-mapped for files on disk. Zip64 archives, files larger than can
+ * be addressed by a single buffer, and archives whose central directory is truncated or inconsistent are not indexed.
+ */
+public final class ZipIndex {
+    static final int EOCD_SIGNATURE = 0x06054b50;
+    static final int CEN_SIGNATURE = 0x02014b50;
+    static final int LOC_SIGNATURE = 0x04034b50;
+    static final int EOCD_LENGTH = 22;
+    static final int CEN_LENGTH = 46;
+    static final int LOC_LENGTH = 30;
+    static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    public static final int METHOD_STORED = 0;
+    public static final int METHOD_DEFLATED = 8;
+
+    private final Map<String, Entry> entries;
+
+    private ZipIndex(@NotNull Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Get the indexed entry for the given entry name.
+     *
+     * @param entryName the zip entry name
+     * @return the indexed entry if present
+     */
+    @NotNull
+    public Optional<Entry> getEntry(@NotNull String entryName) {
+        return Optional.ofNullable(entries.get(entryName));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Map the file at the given path and index its central directory.
+     *
+     * @param path the zip file path
+     * @return the index, or empty if the file cannot be indexed
+     */
+    @NotNull
+    public static Optional<ZipIndex> open(@NotNull Path path) {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE || size < EOCD_LENGTH) {
+                return Optional.empty();
+            }
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Index the central directory of the zip data in the given buffer.
+     *
+     * @param zipData the complete zip data
+     * @return the index, or empty if the data cannot be indexed
+     */
+    @NotNull
+    public static Optional<ZipIndex> of(@NotNull ByteBuffer zipData) {
+        try {
+            return index(zipData.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            return Optional.empty();
+        }
+    }
+
+    @NotNull
+    static Optional<ZipIndex> index(@NotNull ByteBuffer buffer) {
+        final int eocd = findEndOfCentralDirectory(buffer);
+        if (eocd < 0) {
+            return Optional.empty();
+        }
+        final int totalEntries = Short.toUnsignedInt(buffer.getShort(eocd + 10));
+        final long cenSize = Integer.toUnsignedLong(buffer.getInt(eocd + 12));
+        final long cenOffset = Integer.toUnsignedLong(buffer.getInt(eocd + 16));
+        if (totalEntries == 0xFFFF || cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL
+                || cenOffset + cenSize > eocd) {
+            // zip64 or inconsistent
+            return Optional.empty();
+        }
+        final long cenEnd = cenOffset + cenSize;
+        final Map<String, Entry> entries = new HashMap<>(Math.max(16, totalEntries * 2));
+        long position = cenOffset;
+        for (int i = 0; i < totalEntries; i++) {
+            if (position + CEN_LENGTH > cenEnd || buffer.getInt((int) position) != CEN_SIGNATURE) {
+                return Optional.empty();
+            }
+            final int header = (int) position;
+            final int method = Short.toUnsignedInt(buffer.getShort(header + 10));
+            final int crc = buffer.getInt(header + 16);
+            final long compressedSize = Integer.toUnsignedLong(buffer.getInt(header + 20));
+            final long size = Integer.toUnsignedLong(buffer.getInt(header + 24));
+            final int nameLength = Short.toUnsignedInt(buffer.getShort(header + 28));
+            final int extraLength = Short.toUnsignedInt(buffer.getShort(header + 30));
+            final int commentLength = Short.toUnsignedInt(buffer.getShort(header + 32));
+            final long localOffset = Integer.toUnsignedLong(buffer.getInt(header + 42));
+            if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localOffset == 0xFFFFFFFFL) {
+                // zip64
+                return Optional.empty();
+            }
+            final long next = position + CEN_LENGTH + nameLength + extraLength + commentLength;
+            // local headers and their data always precede the central directory
+            if (next > cenEnd || localOffset + LOC_LENGTH + compressedSize > cenOffset) {
+                return Optional.empty();
+            }
+            final byte[] nameBytes = new byte[nameLength];
+            buffer.duplicate().position(header + CEN_LENGTH).get(nameBytes);
+            final String name = new String(nameBytes, StandardCharsets.UTF_8);
+            entries.putIfAbsent(name, new Entry(buffer, method, crc, compressedSize, size, (int) localOffset));
+            position = next;
+        }
+        return Optional.of(new ZipIndex(Collections.unmodifiableMap(entries)));
+    }
+
+    static int findEndOfCentralDirectory(@NotNull ByteBuffer buffer) {
+        final int limit = buffer.limit();
+        final int lowest = Math.max(0, limit - EOCD_LENGTH - MAX_COMMENT_LENGTH);
+        for (int position = limit - EOCD_LENGTH; position >= lowest; position--) {
+            if (buffer.getInt(position) == EOCD_SIGNATURE) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A central directory entry, whose raw data is resolved from its local header on demand.
+     */
+    public static final class Entry {
+        private final ByteBuffer buffer;
+        private final int method;
+        private final int crc;
+        private final long compressedSize;
+        private final long size;
+        private final int localOffset;
+
+        Entry(@NotNull ByteBuffer buffer, int method, int crc, long compressedSize, long size, int localOffset) {
+            this.buffer = buffer;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localOffset = localOffset;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        public int getCrc() {
+            return crc;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Return true if the uncompressed content can be read from the raw data by {@link #openStream()}. Otherwise,
+         * the entry should be read by other means.
+         *
+         * @return true if the compression method is supported and the local header is valid
+         */
+        public boolean isReadable() {
+            if (method != METHOD_STORED && method != METHOD_DEFLATED) {
+                return false;
+            }
+            try {
+                rawData();
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Return a read-only slice of the raw, possibly compressed, bytes of this entry.
+         *
+         * @return the raw entry data
+         * @throws IOException if the local header is invalid
+         */
+        @NotNull
+        public ByteBuffer rawData() throws IOException {
+            if (localOffset + LOC_LENGTH > buffer.limit() || buffer.getInt(localOffset) != LOC_SIGNATURE) {
+                throw new IOException("invalid local header at offset " + localOffset);
+            }
+            final int nameLength = Short.toUnsignedInt(buffer.getShort(localOffset + 26));
+            final int extraLength = Short.toUnsignedInt(buffer.getShort(localOffset + 28));
+            final long start = (long) localOffset + LOC_LENGTH + nameLength + extraLength;
+            if (start + compressedSize > buffer.limit()) {
+                throw new IOException("entry data exceeds zip length at offset " + localOffset);
+            }
+            final ByteBuffer slice = buffer.duplicate();
+            slice.position((int) start).limit((int) (start + compressedSize));
+            return slice.slice().asReadOnlyBuffer();
+        }
+
+        /**
+         * Compare the compression method, checksum, sizes, and finally the raw compressed bytes of both entries,
+         * without inflating either.
+         *
+         * @param other the other entry
+         * @return true if both entries have identical raw data
+         */
+        public boolean rawEquals(@Nullable Entry other) {
+            if (other == null || method != other.method || crc != other.crc
+                    || compressedSize != other.compressedSize || size != other.size) {
+                return false;
+            }
+            try {
+                return rawData().equals(other.rawData());
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Open a stream of the uncompressed content of this entry.
+         *
+         * @return the uncompressed content stream
+         * @throws IOException if the compression method is not supported or the local header is invalid
+         */
+        @NotNull
+        public InputStream openStream() throws IOException {
+            final InputStream rawStream = new ByteBufferInputStream(rawData());
+            switch (method) {
+                case METHOD_STORED:
+                    return rawStream;
+                case METHOD_DEFLATED:
+                    // nowrap inflation may require an extra dummy byte after the compressed data
+                    return new EndingInflaterInputStream(new SequenceInputStream(rawStream,
+                            new ByteArrayInputStream(new byte[1])));
+                default:
+                    throw new IOException("unsupported compression method " + method);
+            }
+        }
+    }
+
+    static final class EndingInflaterInputStream extends InflaterInputStream {
+        EndingInflaterInputStream(@NotNull InputStream in) {
+            super(in, new Inflater(true));
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+
+    static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(@NotNull ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get()) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -39,6 +39,11 @@ public class ManifestRefinementStrategy implements RefinementStrategy {
         return DIFF_KIND;
     }
 
+    @Override
+    public boolean isRefinable(@NotNull Diff diff) {
+        return diff.getVerb() == Verb.CHANGED && Manifests.NAME_MANIFEST.equals(diff.getName());
+    }
+
     @Override
     public @NotNull Refinement refine(@NotNull Context context,
                                       @NotNull Diffs diffs,
@@ -18,6 +18,7 @@ package net.adamcin.jardelta.core.mavenmeta;
 
 import net.adamcin.jardelta.api.Kind;
 import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
 import net.adamcin.jardelta.api.diff.Diffs;
 import net.adamcin.jardelta.api.diff.Element;
 import net.adamcin.jardelta.api.jar.OpenJar;
@@ -40,6 +41,14 @@ public class MavenMetaRefinementStrategy implements RefinementStrategy {
         return Kind.of("maven");
     }
 
+    @Override
+    public boolean isRefinable(@NotNull Diff diff) {
+        return diff.getKind().isSubKindOf(JarEntryDiffer.DIFF_KIND)
+                && diff.getName().startsWithName(NAME_PREFIX)
+                && (diff.getName().endsWithName(Name.of("pom.xml"))
+                || diff.getName().endsWithName(Name.of("pom.properties")));
+    }
+
     @Override
     public @NotNull Refinement refine(@NotNull Context context,
                                       @NotNull Diffs diffs,
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.nested;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.api.diff.Element;
+import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.api.jar.OpenJar;
+import net.adamcin.jardelta.core.Context;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.OpenJarImpl;
+import net.adamcin.jardelta.core.Plan;
+import net.adamcin.jardelta.core.Refinement;
+import net.adamcin.jardelta.core.RefinementStrategy;
+import net.adamcin.jardelta.core.Settings;
+import net.adamcin.jardelta.core.entry.JarEntryDiffer;
+import net.adamcin.streamsupport.Both;
+import net.adamcin.streamsupport.Fun;
+import net.adamcin.streamsupport.Result;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Refines changed entries that are themselves jars by opening both versions in memory and executing a
+ * {@link net.adamcin.jardelta.core.Plan} against them, up to the depth limit specified by
+ * {@link net.adamcin.jardelta.core.Settings#getNestedJarDepth()}. Diffs of nested jar contents are named relative to
+ * a {@code {jar:<entryName>}} segment, as in {@code {jar:lib/foo.jar}/com/example/Foo.class}.
+ */
+public class NestedJarRefinementStrategy implements RefinementStrategy {
+    public static final Kind DIFF_KIND = Kind.of("jar");
+    public static final String SEGMENT_PREFIX = "jar:";
+    private static final List<String> NESTED_EXTENSIONS = List.of(".jar", ".war", ".zip");
+
+    @Override
+    public @NotNull Kind getKind() {
+        return DIFF_KIND;
+    }
+
+    @Override
+    public boolean isRefinable(@NotNull Diff diff) {
+        return JarEntryDiffer.DIFF_KIND.equals(diff.getKind())
+                && diff.getVerb() == Verb.CHANGED
+                && isNestedJarName(diff.getName());
+    }
+
+    @Override
+    public @NotNull Refinement refine(@NotNull Context context,
+                                      @NotNull Diffs diffs,
+                                      @NotNull Element<OpenJar> openJars) {
+        final int maxDepth = Optional.ofNullable(context.getSettings())
+                .orElse(Settings.DEFAULT_SETTINGS)
+                .getNestedJarDepth();
+        if (depthOf(openJars.name()) >= maxDepth) {
+            return Refinement.EMPTY;
+        }
+
+        final List<Diff> candidates = diffs
+                .withExactKind(JarEntryDiffer.DIFF_KIND)
+                .filter(diff -> diff.getVerb() == Verb.CHANGED && isNestedJarName(diff.getName()))
+                .stream().collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return Refinement.EMPTY;
+        }
+
+        final List<Diff> superseded = new ArrayList<>();
+        final List<Diff> refined = new ArrayList<>();
+        for (Diff candidate : candidates) {
+            final Name entryName = candidate.getName();
+            final Name nestedName = nestedName(entryName);
+            final Both<Result<OpenJarImpl>> nestedJars = openJars.values()
+                    .map(openJar -> Fun.result0(() -> openNested(openJar, entryName)).get());
+            try {
+                if (nestedJars.testBoth((left, right) -> left.isSuccess() && right.isSuccess())) {
+                    final Element<OpenJar> nestedElement = Element.of(openJars.name().append(nestedName),
+                            nestedJars.map(result -> (OpenJar) result.getOrThrow()));
+                    final Delta nestedDelta = new Plan().execute(nestedContext(context, nestedName), nestedElement);
+                    superseded.add(candidate);
+                    nestedDelta.getResults().stream()
+                            .map(diff -> diff.nestedUnder(nestedName))
+                            .forEachOrdered(refined::add);
+                    if (nestedDelta.isHalted()) {
+                        break;
+                    }
+                } else {
+                    Diff.emitterOf(DIFF_KIND).forName(entryName).errBoth(nestedJars).forEachOrdered(refined::add);
+                }
+            } finally {
+                nestedJars.stream().forEach(result -> result.toOptional()
+                        .ifPresent(Fun.uncheckVoid1(OpenJarImpl::close)));
+            }
+        }
+        return new Refinement(superseded, refined.stream().collect(Diffs.collector()));
+    }
+
+    /**
+     * Return a context for comparing nested jars, whose halt predicate tests diffs by their names in the outer jars.
+     *
+     * @param context    the outer context
+     * @param nestedName the name prefix of diffs within the nested jars
+     * @return the nested context
+     */
+    static Context nestedContext(@NotNull Context context, @NotNull Name nestedName) {
+        final Predicate<Diff> haltOn = context.getHaltOn();
+        if (haltOn == null) {
+            return context;
+        }
+        return Context.builder()
+                .jars(context.getJars())
+                .settings(context.getSettings())
+                .haltOn(diff -> haltOn.test(diff.nestedUnder(nestedName)))
+                .build();
+    }
+
+    static boolean isNestedJarName(@NotNull Name name) {
+        final String segment = name.getSegment();
+        return NESTED_EXTENSIONS.stream().anyMatch(segment::endsWith);
+    }
+
+    @NotNull
+    static Name nestedName(@NotNull Name entryName) {
+        return Name.of("{" + SEGMENT_PREFIX + entryName + "}");
+    }
+
+    static int depthOf(@NotNull Name elementName) {
+        return (int) elementName.segments()
+                .filter(segment -> segment.startsWith("{" + SEGMENT_PREFIX))
+                .count();
+    }
+
+    @NotNull
+    static OpenJarImpl openNested(@NotNull OpenJar openJar, @NotNull Name entryName) throws Exception {
+        final OpenJarImpl parent = openJar.adaptTo(OpenJarImpl.class);
+        if (parent == null) {
+            throw new IOException("Nested jars are not supported for " + openJar);
+        }
+        return parent.openNested(entryName, new TreeMap<>());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.osgi;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A small shared pool of daemon threads for parsing independent bundle descriptors concurrently. Tasks submitted here
+ * must not submit further tasks and wait on them.
+ */
+public final class DescriptorExecutor {
+    static final int PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final ThreadPoolExecutor EXECUTOR = newExecutor();
+
+    private DescriptorExecutor() {
+        /* no instances */
+    }
+
+    private static ThreadPoolExecutor newExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM,
+                30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new WorkerThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Start a task and return a supplier of its result. When {@code parallel} is false, the task is run immediately on
+     * the calling thread. The returned supplier always returns the same result.
+     *
+     * @param parallel true to run the task on the shared pool
+     * @param task     the task, which should capture its own failures
+     * @param <T>      the result type
+     * @return a supplier that waits for the result of the task
+     */
+    @NotNull
+    public static <T> Supplier<T> submit(boolean parallel, @NotNull Supplier<T> task) {
+        if (!parallel) {
+            final T result = task.get();
+            return () -> result;
+        }
+        final CompletableFuture<T> future = CompletableFuture.supplyAsync(task, EXECUTOR);
+        return () -> join(future);
+    }
+
+    static <T> T join(@NotNull CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            final Thread thread = new Thread(runnable, "jardelta-parse-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
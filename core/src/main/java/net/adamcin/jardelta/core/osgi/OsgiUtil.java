@@ -16,7 +16,9 @@
 
 package net.adamcin.jardelta.core.osgi;
 
+import aQute.bnd.header.Parameters;
 import net.adamcin.jardelta.api.jar.OpenJar;
+import net.adamcin.jardelta.core.OpenJarImpl;
 import net.adamcin.streamsupport.Both;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.framework.Bundle;
@@ -33,4 +35,19 @@ public class OsgiUtil {
 
         return Optional.of(bundleAdapters.map(Optional::get));
     }
+
+    /**
+     * Get the value of a main attribute of a jar manifest parsed as OSGi header parameters. The result is shared by
+     * {@link OpenJarImpl} instances, and must not be modified.
+     *
+     * @param jar  the open jar
+     * @param name the attribute name, which is case-insensitive
+     * @return the parsed parameters, or empty if the attribute is absent or the name is invalid
+     */
+    public static Optional<Parameters> getParameters(@NotNull OpenJar jar, @NotNull String name) {
+        return Optional.ofNullable(jar.adaptTo(OpenJarImpl.class))
+                .map(openJar -> Optional.ofNullable(openJar.getParameters(name)))
+                .orElseGet(() -> Optional.ofNullable(jar.getManifestHeaders().getMainAttributeValue(name))
+                        .map(raw -> new Parameters(raw, null, true)));
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.osgi;
+
+import net.adamcin.streamsupport.throwing.ThrowingFunction;
+import org.apache.felix.metatype.MetaDataReader;
+import org.jetbrains.annotations.NotNull;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * Provides per-thread reusable XML parsers for SCR component descriptors and MetaType documents. The
+ * {@link javax.xml.parsers.SAXParserFactory} is looked up once, rather than once per document, and each thread reuses
+ * its own parsers, which are reset after every use. Parsers are never shared between threads.
+ */
+public final class XmlParsers {
+    private static final SAXParserFactory SAX_PARSER_FACTORY = newNamespaceAwareFactory();
+    private static final ThreadLocal<PooledSaxParser> SAX_PARSERS = ThreadLocal.withInitial(PooledSaxParser::new);
+    private static final ThreadLocal<PooledMetaDataReader> METADATA_READERS =
+            ThreadLocal.withInitial(PooledMetaDataReader::new);
+
+    private XmlParsers() {
+        // no instances
+    }
+
+    static SAXParserFactory newNamespaceAwareFactory() {
+        final SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory;
+    }
+
+    static SAXParser newSaxParser() {
+        // SAXParserFactory is not guaranteed to be thread-safe
+        synchronized (SAX_PARSER_FACTORY) {
+            try {
+                return SAX_PARSER_FACTORY.newSAXParser();
+            } catch (ParserConfigurationException | SAXException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Apply the provided function to this thread's namespace-aware {@link javax.xml.parsers.SAXParser}, which is reset
+     * before it is returned to the pool. A reentrant call on the same thread receives a new parser.
+     *
+     * @param parserFn the function to apply to the parser
+     * @param <T>      the result type
+     * @return the result of the function
+     * @throws Exception if the function throws
+     */
+    public static <T> T withSaxParser(@NotNull ThrowingFunction<SAXParser, T> parserFn) throws Exception {
+        final PooledSaxParser pooled = SAX_PARSERS.get();
+        if (pooled.inUse) {
+            return parserFn.tryApply(newSaxParser());
+        }
+        pooled.inUse = true;
+        try {
+            return parserFn.tryApply(pooled.parser);
+        } finally {
+            pooled.parser.reset();
+            pooled.inUse = false;
+        }
+    }
+
+    /**
+     * Apply the provided function to this thread's Felix {@link org.apache.felix.metatype.MetaDataReader}. A
+     * reentrant call on the same thread receives a new reader.
+     *
+     * @param readerFn the function to apply to the reader
+     * @param <T>      the result type
+     * @return the result of the function
+     * @throws Exception if the function throws
+     */
+    public static <T> T withMetaDataReader(@NotNull ThrowingFunction<MetaDataReader, T> readerFn) throws Exception {
+        final PooledMetaDataReader pooled = METADATA_READERS.get();
+        if (pooled.inUse) {
+            return readerFn.tryApply(new MetaDataReader());
+        }
+        pooled.inUse = true;
+        try {
+            // MetaDataReader resets its underlying parser for every new input
+            return readerFn.tryApply(pooled.reader);
+        } finally {
+            pooled.inUse = false;
+        }
+    }
+
+    static final class PooledSaxParser {
+        private final SAXParser parser = newSaxParser();
+        private boolean inUse;
+    }
+
+    static final class PooledMetaDataReader {
+        private final MetaDataReader reader = new MetaDataReader();
+        private boolean inUse;
+    }
+}
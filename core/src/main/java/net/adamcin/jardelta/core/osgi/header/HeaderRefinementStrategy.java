@@ -27,6 +27,7 @@ import net.adamcin.jardelta.api.diff.Diffs;
 import net.adamcin.jardelta.api.diff.Element;
 import net.adamcin.jardelta.api.diff.Emitter;
 import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.api.jar.ManifestHeaders;
 import net.adamcin.jardelta.api.jar.OpenJar;
 import net.adamcin.jardelta.core.Context;
 import net.adamcin.jardelta.core.Refinement;
@@ -36,6 +37,7 @@ import net.adamcin.jardelta.core.manifest.ManifestRefinementStrategy;
 import net.adamcin.jardelta.core.manifest.Manifests;
 import net.adamcin.jardelta.core.osgi.OsgiUtil;
 import net.adamcin.jardelta.core.osgi.ocd.MetaTypeDesignateDiffer;
+import net.adamcin.jardelta.core.osgi.ocd.MetaTypeRefinementStrategy;
 import net.adamcin.streamsupport.Both;
 import net.adamcin.streamsupport.Fun;
 import org.apache.felix.metatype.DefaultMetaTypeProvider;
@@ -44,6 +46,10 @@ import org.apache.sling.testing.mock.osgi.MapUtil;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.framework.Bundle;
 
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -52,7 +58,6 @@ import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
 import java.util.jar.Attributes;
-import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -83,6 +88,11 @@ public class HeaderRefinementStrategy implements RefinementStrategy {
         return DIFF_KIND;
     }
 
+    @Override
+    public boolean isRefinable(@NotNull Diff diff) {
+        return REFINEMENT_TEST_COMMON.test(diff);
+    }
+
     @Override
     public @NotNull Refinement refine(@NotNull Context context,
                                       @NotNull Diffs diffs,
@@ -95,7 +105,8 @@ public class HeaderRefinementStrategy implements RefinementStrategy {
         final Both<Bundle> bothBundles = bundleAdapters.get();
 
         // always refine and diff any possibly localized headers
-        final Both<Attributes> localizedAttrs = openJars.values().map(this::getLocalizedHeaders);
+        final Both<Map<Attributes.Name, String>> localizedAttrs = openJars.values()
+                .map(jar -> jar.getManifestHeaders().getLocalizedHeaders());
         final Predicate<Diff> localizedTest = diff -> localizedAttrs.testBoth((left, right) -> {
             final Attributes.Name attrName = new Attributes.Name(diff.getName().getSegment());
             return left.containsKey(attrName) || right.containsKey(attrName);
@@ -109,68 +120,110 @@ public class HeaderRefinementStrategy implements RefinementStrategy {
             return Refinement.EMPTY;
         }
 
-        final MetaData emptyMetaData = new MetaData();
-        final Both<Set<String>> bothLocales = bothBundles.map(bundle ->
-                Stream.ofNullable(new DefaultMetaTypeProvider(bundle, emptyMetaData).getLocales())
-                        .flatMap(Stream::of)
-                        .collect(Collectors.toSet()));
-
-        final Differ<Optional<String>> complexDiffer = (emitter, diffed) -> {
-            final Attributes.Name attributeName = ManifestAttribute.nameOf(diffed.name().getSegment());
-
-            final Both<Optional<Parameters>> bothParams = diffed.values()
-                    .map(value -> value.map(raw -> new Parameters(raw, null, true)));
-
-            return new InstructionsDiffer(attributeName)
-                    .diff(emitter, Element.of(diffed.name(), bothParams));
-        };
+        // parsed parameters are shared by the open jar, rather than parsed again for each comparison
+        final Differ<Optional<Parameters>> complexDiffer = (emitter, diffed) ->
+                new InstructionsDiffer(ManifestAttribute.nameOf(diffed.name().getSegment()))
+                        .diff(emitter, diffed);
 
         final Emitter attrEmitter = Diff.emitterOf(DIFF_KIND).forName(Manifests.NAME_MANIFEST);
         Stream<Diff> complexDiffs = refined.stream()
                 .filter(REFINEMENT_TEST_PARAMETERIZED)
                 .map(Diff::getName)
                 .map(name -> Element.of(name, openJars.values().map(jar ->
-                        Optional.ofNullable(jar.getMainAttributeValue(name)))))
+                        OsgiUtil.getParameters(jar, name.getSegment()))))
                 .flatMap(mfAttr -> complexDiffer.diff(attrEmitter, mfAttr));
 
         // From 3.11.2 Manifest Localization: https://docs.osgi.org/specification/osgi.core/7.0.0/framework.module.html#i3189742
         // A localization entry contains key/value entries for localized information.
         // All headers in a bundle's manifest can be localized.
         // However, the Framework must always use the non-localized versions of headers that have Framework semantics.
-        final Set<String> allLocales = bothLocales.stream().flatMap(Set::stream).collect(Collectors.toSet());
+        // The default locale is diffed for all headers. Other locales are only diffed for the headers that can differ
+        // from their default locale values, and are not discovered at all when there are none.
+        final Set<Attributes.Name> localizedNames = getLocalizedNames(diffs, openJars.values()
+                .map(OpenJar::getManifestHeaders));
+        final Set<String> allLocales = new HashSet<>();
+        if (!localizedNames.isEmpty()) {
+            final MetaData emptyMetaData = new MetaData();
+            bothBundles.stream()
+                    .flatMap(bundle -> Stream.ofNullable(new DefaultMetaTypeProvider(bundle, emptyMetaData).getLocales()))
+                    .flatMap(Stream::of)
+                    .forEach(allLocales::add);
+        }
         allLocales.add("");
         final Differ<Bundle> bundleLocaleDiffer = Differs.concat(
                 allLocales.stream().map(locale -> {
                     final BiFunction<Emitter, String, Emitter> localeEmitter =
                             (baseEmitter, key) -> baseEmitter.forChild(key).forChild(MetaTypeDesignateDiffer.localeName(locale));
                     return Differs.emitKind(Kind.of("osgi.header.locale"),
-                            Differs.<Bundle, String, String>ofMapsCustomized(bundle -> MapUtil.toMap(bundle.getHeaders(locale.isEmpty() ? null : locale)),
+                            Differs.<Bundle, String, String>ofMapsCustomized(bundle ->
+                                            getLocalizedValues(bundle, locale, localizedNames),
                                     builder -> builder.emitterProjection(localeEmitter)));
                 }).collect(Collectors.toList())
         );
 
-        final Diffs refinedDiffs = refined.stream().collect(Diffs.collector());
+        // locale diffs are redundant with any refined manifest diff of the same header and verb
+        final Set<Map.Entry<Verb, Name>> refinedVerbNames = refined.stream()
+                .filter(diff -> diff.getKind().isSubKindOf(ManifestRefinementStrategy.DIFF_KIND))
+                .map(diff -> Fun.toEntry(diff.getVerb(), diff.getName()))
+                .collect(Collectors.toSet());
         return new Refinement(refined,
                 Stream.concat(complexDiffs,
                         bundleLocaleDiffer.diff(attrEmitter,
                                 Element.of(Manifests.NAME_MANIFEST, bothBundles))
-                                .filter(diff -> refinedDiffs
-                                        .withExactName(Objects.requireNonNull(diff.getName().getParent()))
-                                        .withVerbs(diff.getVerb())
-                                        .withKind(Kind.of("manifest"))
-                                        .isEmpty()))
+                                .filter(diff -> !refinedVerbNames.contains(Fun.toEntry(diff.getVerb(),
+                                        Objects.requireNonNull(diff.getName().getParent())))))
                         .collect(Diffs.collector()));
     }
 
-    @NotNull Attributes getLocalizedHeaders(@NotNull OpenJar openJar) {
-        final Attributes localizedHeaders = new Attributes();
-        Optional.ofNullable(openJar.getManifest()).map(Manifest::getMainAttributes).ifPresent(mainAttrs -> {
-            for (Map.Entry<Object, Object> entry : mainAttrs.entrySet()) {
-                if (entry.getValue().toString().startsWith("%")) {
-                    localizedHeaders.put(entry.getKey(), entry.getValue());
-                }
+    /**
+     * Select the headers that may differ in a non-default locale. These are headers with a localized value in either
+     * jar, when that value differs between the jars, or when any localization resource differs.
+     *
+     * @param diffs       the current diffs
+     * @param bothHeaders the manifest headers of both jars
+     * @return the names of headers to diff for each locale
+     */
+    static Set<Attributes.Name> getLocalizedNames(@NotNull Diffs diffs, @NotNull Both<ManifestHeaders> bothHeaders) {
+        final Set<Attributes.Name> localizedNames = bothHeaders.stream()
+                .flatMap(headers -> headers.getLocalizedHeaders().keySet().stream())
+                .collect(Collectors.toCollection(HashSet::new));
+        if (localizedNames.isEmpty()) {
+            return localizedNames;
+        }
+        final Predicate<Name> l10nPredicate = bothHeaders.stream()
+                .map(headers -> Optional.ofNullable(headers.getMainAttributeValue(Constants.BUNDLE_LOCALIZATION))
+                        .orElse(org.osgi.framework.Constants.BUNDLE_LOCALIZATION_DEFAULT_BASENAME))
+                .distinct()
+                .map(MetaTypeRefinementStrategy::getSingleLocalePrefixNamePredicate)
+                .reduce(Predicate::or)
+                .orElse(name -> false);
+        final boolean l10nChanged = bothHeaders.testBoth((left, right) -> !Objects.equals(
+                left.getMainAttributeValue(Constants.BUNDLE_LOCALIZATION),
+                right.getMainAttributeValue(Constants.BUNDLE_LOCALIZATION)))
+                || diffs.stream().map(Diff::getName)
+                .anyMatch(name -> name.endsWith(".properties") && l10nPredicate.test(name));
+        if (!l10nChanged) {
+            // with identical localization resources, only headers with different raw values can differ
+            localizedNames.removeIf(name -> bothHeaders.testBoth((left, right) ->
+                    Objects.equals(left.getMainAttributes().get(name), right.getMainAttributes().get(name))));
+        }
+        return localizedNames;
+    }
+
+    static Map<String, String> getLocalizedValues(@NotNull Bundle bundle,
+                                                  @NotNull String locale,
+                                                  @NotNull Set<Attributes.Name> localizedNames) {
+        if (locale.isEmpty()) {
+            return MapUtil.toMap(bundle.getHeaders(null));
+        }
+        final Dictionary<String, String> headers = bundle.getHeaders(locale);
+        final Map<String, String> values = new HashMap<>();
+        for (Enumeration<String> keys = headers.keys(); keys.hasMoreElements(); ) {
+            final String key = keys.nextElement();
+            if (localizedNames.contains(new Attributes.Name(key))) {
+                values.put(key, headers.get(key));
             }
-        });
-        return localizedHeaders;
+        }
+        return values;
     }
 }
@@ -17,19 +17,26 @@
 package net.adamcin.jardelta.core.osgi.ocd;
 
 import net.adamcin.streamsupport.Fun;
+import org.apache.felix.metatype.AD;
 import org.apache.felix.metatype.DefaultMetaTypeProvider;
 import org.apache.felix.metatype.Designate;
 import org.apache.felix.metatype.MetaData;
+import org.apache.felix.metatype.OCD;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.Constants;
+import org.osgi.service.metatype.ObjectClassDefinition;
 
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -41,7 +48,20 @@ public class JarMetaTypeProvider extends DefaultMetaTypeProvider {
     public JarMetaTypeProvider(@NotNull Bundle bundle, @NotNull MetaData metadata) {
         super(bundle, metadata);
         this.source = metadata.getSource();
-        this.localePrefix = Optional.ofNullable(metadata.getLocalePrefix()).orElseGet(() ->
+        this.localePrefix = getLocalePrefix(bundle, metadata);
+    }
+
+    /**
+     * Get the localization base that a bundle uses for a metatype document, which is either declared by the document
+     * itself or inherited from the Bundle-Localization header.
+     *
+     * @param bundle   the bundle
+     * @param metadata the parsed metatype document
+     * @return the localization base
+     */
+    @NotNull
+    public static String getLocalePrefix(@NotNull Bundle bundle, @NotNull MetaData metadata) {
+        return Optional.ofNullable(metadata.getLocalePrefix()).orElseGet(() ->
                 Optional.ofNullable(bundle.getHeaders().get(Constants.BUNDLE_LOCALIZATION))
                         .orElse(Constants.BUNDLE_LOCALIZATION_DEFAULT_BASENAME));
     }
@@ -80,9 +100,48 @@ public class JarMetaTypeProvider extends DefaultMetaTypeProvider {
     }
 
     private MetaTypeDesignate getDesignatesForPid(final @NotNull Set<String> locales, final @NotNull String pid, final boolean isFactory) {
-        return new MetaTypeDesignate(pid, isFactory, locales.stream()
-                .flatMap(locale -> Stream.ofNullable(getObjectClassDefinition(pid, DEFAULT_LOCALE.equals(locale) ? null : locale))
-                        .map(ocd -> Fun.toEntry(locale, ocd))).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        // whether an object class definition exists for a pid does not depend on the locale, so only the default
+        // locale is materialized up front
+        final ObjectClassDefinition defaultOcd = getObjectClassDefinition(pid, null);
+        if (defaultOcd == null) {
+            return new MetaTypeDesignate(pid, isFactory, Collections.emptyMap());
+        }
+        return MetaTypeDesignate.ofSuppliers(pid, isFactory, getUnlocalizedDefinition(pid), locales.stream()
+                .map(locale -> Fun.<String, Supplier<ObjectClassDefinition>>toEntry(locale, DEFAULT_LOCALE.equals(locale)
+                        ? () -> defaultOcd
+                        : () -> getObjectClassDefinition(pid, locale)))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    }
+
+    /**
+     * Render the object class definition designated for a pid without resolving any {@code %key} references, so that
+     * two definitions which are equal in this form are also equal in any locale of identical localization resources.
+     *
+     * @param pid the designate pid or factory pid
+     * @return the unlocalized definition, or null if no definition is designated for the pid
+     */
+    @Nullable
+    String getUnlocalizedDefinition(final @NotNull String pid) {
+        return Optional.ofNullable(getDesignate(pid))
+                .map(Designate::getObject)
+                .map(object -> getObjectClassDefinitions().get(object.getOcdRef()))
+                .filter(OCD.class::isInstance)
+                .map(OCD.class::cast)
+                .map(ocd -> String.join("|", ocd.getID(), ocd.getName(), ocd.getDescription(),
+                        Objects.toString(ocd.getIcons()),
+                        ((Map<String, AD>) Optional.ofNullable(ocd.getAttributeDefinitions())
+                                .orElse(Collections.emptyMap())).values().stream()
+                                .map(JarMetaTypeProvider::getUnlocalizedDefinition)
+                                .collect(Collectors.joining(",", "[", "]"))))
+                .orElse(null);
+    }
+
+    @NotNull
+    static String getUnlocalizedDefinition(final @NotNull AD ad) {
+        return String.join("|", ad.getID(), ad.getName(), ad.getDescription(),
+                Integer.toString(ad.getType()), Integer.toString(ad.getCardinality()),
+                Arrays.toString(ad.getOptionLabels()), Arrays.toString(ad.getOptionValues()),
+                Arrays.toString(ad.getDefaultValue()), ad.getMin(), ad.getMax(), Boolean.toString(ad.isRequired()));
     }
 
     public URL getSource() {
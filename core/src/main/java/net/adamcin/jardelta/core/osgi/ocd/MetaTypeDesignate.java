@@ -17,21 +17,66 @@
 package net.adamcin.jardelta.core.osgi.ocd;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.osgi.service.metatype.ObjectClassDefinition;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
+/**
+ * The object class definitions of a designate pid in each available locale. Localized definitions are only
+ * materialized when they are first requested.
+ */
 public class MetaTypeDesignate {
     private final String pid;
     private final boolean isFactory;
-    private final Map<String, ObjectClassDefinition> objectClassDefinitions;
+    private final String unlocalizedDefinition;
+    private final Map<String, Supplier<ObjectClassDefinition>> localizedDefinitions;
 
     public MetaTypeDesignate(@NotNull String pid,
                              boolean isFactory,
                              @NotNull Map<String, ObjectClassDefinition> objectClassDefinitions) {
+        this(pid, isFactory, objectClassDefinitions.entrySet().stream()
+                .collect(LinkedHashMap::new, (map, entry) -> {
+                    final ObjectClassDefinition ocd = entry.getValue();
+                    map.put(entry.getKey(), () -> ocd);
+                }, Map::putAll), null, false);
+    }
+
+    private MetaTypeDesignate(@NotNull String pid,
+                              boolean isFactory,
+                              @NotNull Map<String, Supplier<ObjectClassDefinition>> localizedDefinitions,
+                              @Nullable String unlocalizedDefinition,
+                              boolean memoize) {
         this.pid = pid;
         this.isFactory = isFactory;
-        this.objectClassDefinitions = objectClassDefinitions;
+        this.unlocalizedDefinition = unlocalizedDefinition;
+        final Map<String, Supplier<ObjectClassDefinition>> definitions = new LinkedHashMap<>();
+        localizedDefinitions.forEach((locale, supplier) ->
+                definitions.put(locale, memoize ? new Memoized(supplier) : supplier));
+        this.localizedDefinitions = Collections.unmodifiableMap(definitions);
+    }
+
+    /**
+     * Create a designate whose object class definitions are materialized from the provided suppliers at most once,
+     * when first requested.
+     *
+     * @param pid                   the designate pid or factory pid
+     * @param isFactory             true for a factory pid
+     * @param unlocalizedDefinition the definition rendered without resolving {@code %key} references, if known
+     * @param localizedDefinitions  suppliers of the object class definition for each locale
+     * @return a new designate
+     */
+    @NotNull
+    public static MetaTypeDesignate ofSuppliers(@NotNull String pid,
+                                                boolean isFactory,
+                                                @Nullable String unlocalizedDefinition,
+                                                @NotNull Map<String, Supplier<ObjectClassDefinition>> localizedDefinitions) {
+        return new MetaTypeDesignate(pid, isFactory, localizedDefinitions, unlocalizedDefinition, true);
     }
 
     @NotNull
@@ -43,13 +88,63 @@ public class MetaTypeDesignate {
         return isFactory;
     }
 
+    /**
+     * Get the object class definition rendered without resolving any {@code %key} references.
+     *
+     * @return the unlocalized definition, or null if unknown
+     */
+    @Nullable
+    public String getUnlocalizedDefinition() {
+        return unlocalizedDefinition;
+    }
+
+    @NotNull
+    public Set<String> getLocales() {
+        return localizedDefinitions.keySet();
+    }
+
+    @Nullable
+    public ObjectClassDefinition getObjectClassDefinition(@NotNull String locale) {
+        return Optional.ofNullable(localizedDefinitions.get(locale)).map(Supplier::get).orElse(null);
+    }
+
+    @NotNull
+    public Map<String, Supplier<ObjectClassDefinition>> getLocalizedDefinitions() {
+        return localizedDefinitions;
+    }
+
+    /**
+     * Materialize the object class definitions for every locale.
+     *
+     * @return a map of locales to object class definitions
+     */
     @NotNull
     public Map<String, ObjectClassDefinition> getObjectClassDefinitions() {
-        return objectClassDefinitions;
+        final Map<String, ObjectClassDefinition> definitions = new LinkedHashMap<>();
+        localizedDefinitions.forEach((locale, supplier) -> definitions.put(locale, supplier.get()));
+        return definitions;
     }
 
     @Override
     public String toString() {
         return "@Designate(" + (isFactory ? "factoryPid" : "pid") + "=" + pid + ")";
     }
+
+    static final class Memoized implements Supplier<ObjectClassDefinition> {
+        private Supplier<ObjectClassDefinition> delegate;
+        private ObjectClassDefinition value;
+
+        Memoized(@NotNull Supplier<ObjectClassDefinition> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized ObjectClassDefinition get() {
+            if (delegate != null) {
+                value = delegate.get();
+                delegate = null;
+            }
+            return value;
+        }
+    }
 }
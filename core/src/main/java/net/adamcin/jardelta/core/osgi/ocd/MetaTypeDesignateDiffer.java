@@ -21,32 +21,85 @@ import net.adamcin.jardelta.api.diff.Differ;
 import net.adamcin.jardelta.api.diff.Differs;
 import net.adamcin.jardelta.api.diff.Element;
 import net.adamcin.jardelta.api.diff.Emitter;
+import net.adamcin.streamsupport.Both;
 import org.jetbrains.annotations.NotNull;
+import org.osgi.service.metatype.ObjectClassDefinition;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static net.adamcin.jardelta.api.diff.Differs.concat;
 import static net.adamcin.jardelta.api.diff.Differs.emitChild;
 import static net.adamcin.jardelta.api.diff.Differs.ofAtMostOne;
-import static net.adamcin.jardelta.api.diff.Differs.ofMapsCustomized;
 
 public class MetaTypeDesignateDiffer implements Differ<List<MetaTypeDesignate>> {
 
-    private final Differ<List<MetaTypeDesignate>> firstDesignateDiffer = ofAtMostOne(Function.identity(),
-            concat(
-                    emitChild("{isFactory}", Differs.ofEquality(MetaTypeDesignate::isFactory)),
-                    ofMapsCustomized(MetaTypeDesignate::getObjectClassDefinitions,
-                            builder -> builder.emitterProjection(
-                                    (baseEmitter, key) -> baseEmitter.forChild(localeName(key))),
-                            Differs.ofMapValues(new OCDDiffer()))));
+    private final OCDDiffer ocdDiffer = new OCDDiffer();
+    private final boolean l10nChanged;
+    private final Differ<List<MetaTypeDesignate>> firstDesignateDiffer;
+
+    public MetaTypeDesignateDiffer() {
+        this(true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param l10nChanged true if any localization resources differ between the two bundles. When false, localized
+     *                    object class definitions are only compared if the unlocalized definitions differ.
+     */
+    public MetaTypeDesignateDiffer(boolean l10nChanged) {
+        this.l10nChanged = l10nChanged;
+        this.firstDesignateDiffer = ofAtMostOne(Function.identity(),
+                concat(
+                        emitChild("{isFactory}", Differs.ofEquality(MetaTypeDesignate::isFactory)),
+                        (emitter, element) -> diffLocales(emitter, element.values())));
+    }
 
     @NotNull
     public static String localeName(final @NotNull String locale) {
         return String.format("{locale:%s}", locale);
     }
 
+    @NotNull
+    Stream<Diff> diffLocales(@NotNull Emitter emitter, @NotNull Both<MetaTypeDesignate> designates) {
+        final Both<Map<String, Supplier<ObjectClassDefinition>>> definitions =
+                designates.map(MetaTypeDesignate::getLocalizedDefinitions);
+        final Predicate<String> isDefault = JarMetaTypeProvider.DEFAULT_LOCALE::equals;
+        final Stream<Diff> defaultDiffs = diffLocaleMaps(emitter, definitions.map(filterKeys(isDefault)));
+        // with identical localization resources, localized definitions can only differ where the unlocalized
+        // definitions differ. equal default text is not enough, since a changed %key may resolve to the same text.
+        if (!l10nChanged && designates.map(MetaTypeDesignate::getUnlocalizedDefinition)
+                .testBoth((left, right) -> left != null && left.equals(right))) {
+            return defaultDiffs;
+        }
+        return Stream.concat(defaultDiffs, diffLocaleMaps(emitter, definitions.map(filterKeys(isDefault.negate()))));
+    }
+
+    @NotNull
+    Stream<Diff> diffLocaleMaps(@NotNull Emitter emitter,
+                                @NotNull Both<Map<String, Supplier<ObjectClassDefinition>>> definitions) {
+        return Differs.diffMaps(supplier -> Optional.of(Objects.toString(supplier.get())), emitter,
+                builder -> builder.emitterProjection((baseEmitter, key) -> baseEmitter.forChild(localeName(key))),
+                definitions,
+                (childEmitter, entries) -> ocdDiffer.diff(childEmitter,
+                        Element.of(childEmitter.getName(), entries.map(entry -> entry.getValue().get()))));
+    }
+
+    static Function<Map<String, Supplier<ObjectClassDefinition>>, Map<String, Supplier<ObjectClassDefinition>>>
+    filterKeys(@NotNull Predicate<String> keyPredicate) {
+        return map -> map.entrySet().stream()
+                .filter(entry -> keyPredicate.test(entry.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
     @Override
     public @NotNull Stream<Diff> diff(@NotNull Emitter baseEmitter, @NotNull Element<List<MetaTypeDesignate>> element) {
         return firstDesignateDiffer.diff(baseEmitter.forSubElement(element), element);
@@ -26,25 +26,37 @@ import net.adamcin.jardelta.api.jar.OpenJar;
 import net.adamcin.jardelta.core.Context;
 import net.adamcin.jardelta.core.Refinement;
 import net.adamcin.jardelta.core.RefinementStrategy;
+import net.adamcin.jardelta.core.Settings;
+import net.adamcin.jardelta.core.osgi.DescriptorExecutor;
 import net.adamcin.jardelta.core.osgi.OsgiUtil;
+import net.adamcin.jardelta.core.osgi.XmlParsers;
 import net.adamcin.streamsupport.Both;
 import net.adamcin.streamsupport.Fun;
 import net.adamcin.streamsupport.Result;
 import org.apache.felix.metatype.MetaData;
-import org.apache.felix.metatype.MetaDataReader;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.framework.Bundle;
 import org.osgi.service.metatype.MetaTypeService;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class MetaTypeRefinementStrategy implements RefinementStrategy {
     static final Name NAME_PREFIX = Name.of("{osgi.ocd}");
@@ -56,6 +68,11 @@ public class MetaTypeRefinementStrategy implements RefinementStrategy {
         return KIND;
     }
 
+    @Override
+    public boolean isRefinable(@NotNull Diff diff) {
+        return diff.getName().startsWithName(METATYPE_PARENT) || diff.getName().endsWith(".properties");
+    }
+
     @Override
     public @NotNull Refinement refine(@NotNull Context context,
                                       @NotNull Diffs diffs,
@@ -66,68 +83,252 @@ public class MetaTypeRefinementStrategy implements RefinementStrategy {
             return Refinement.EMPTY;
         }
 
+        // only metatype documents and localization resources can affect object class definitions
+        final List<Diff> candidates = diffs.stream()
+                .filter(Fun.composeTest1(Diff::getName, Fun.<Name>inferTest1(name -> name.startsWithName(METATYPE_PARENT))
+                        .or(name -> name.endsWith(".properties"))))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return Refinement.EMPTY;
+        }
+
         final Both<Bundle> bothBundles = bundleAdapters.get();
+        final Both<Set<Name>> documents = openJars.values().map(MetaTypeRefinementStrategy::getMetaTypeDocuments);
+        final Set<Name> candidateNames = candidates.stream().map(Diff::getName).collect(Collectors.toSet());
+        final Set<Name> changedDocuments = documents.stream()
+                .flatMap(Set::stream)
+                .filter(candidateNames::contains)
+                .collect(Collectors.toCollection(TreeSet::new));
+        final Set<Name> unchangedDocuments = documents.left().stream()
+                .filter(documents.right()::contains)
+                .filter(Fun.inferTest1(changedDocuments::contains).negate())
+                .collect(Collectors.toCollection(TreeSet::new));
+        // documents with equal digests are only parsed when their localization resources changed
+        final Set<Name> l10nDocuments = candidateNames.stream().anyMatch(name -> name.endsWith(".properties"))
+                ? unchangedDocuments
+                : Collections.emptySet();
+        // otherwise, they are only scanned for designate pids that they may share with a changed document
+        final Set<Name> scannedDocuments = changedDocuments.isEmpty()
+                ? Collections.emptySet()
+                : unchangedDocuments.stream()
+                .filter(Fun.inferTest1(l10nDocuments::contains).negate())
+                .collect(Collectors.toCollection(TreeSet::new));
 
-        final Result<Both<List<JarMetaTypeProvider>>> providersResult =
-                Both.ofResults(openJars.values()
-                        .zip(bothBundles)
-                        .map(Fun.mapEntry(MetaTypeRefinementStrategy::readMetaTypes)));
+        // start parsing the documents of both sides before waiting on either
+        final boolean parallel = Optional.ofNullable(context.getSettings())
+                .orElse(Settings.DEFAULT_SETTINGS)
+                .isParallelDescriptorParsing();
+        final Both<List<Supplier<Result<MetaData>>>> pendingMetaTypes = openJars.values()
+                .zip(bothBundles)
+                .zipWith(documents, (jarAndBundle, names) -> parseMetaTypes(jarAndBundle.getKey(), jarAndBundle.getValue(),
+                        changedDocuments.stream().filter(names::contains).collect(Collectors.toList()), parallel));
+        // an unchanged document is parsed only once, to index it by its localization base
+        final List<Supplier<Result<MetaData>>> pendingUnchanged = parseMetaTypes(openJars.values().left(),
+                bothBundles.left(), l10nDocuments, parallel);
+        final List<Supplier<Result<Map.Entry<Name, Set<String>>>>> pendingScans =
+                scanDesignatePids(bothBundles.left(), scannedDocuments, parallel);
 
-        if (providersResult.isFailure()) {
-            return new Refinement(Collections.emptyList(),
-                    Diffs.of(Diff.emitterOf(KIND).forName(NAME_PREFIX).errRight(providersResult)));
+        final Result<Both<List<JarMetaTypeProvider>>> changedResult =
+                Both.ofResults(bothBundles
+                        .zip(pendingMetaTypes)
+                        .map(Fun.mapEntry(MetaTypeRefinementStrategy::collectMetaTypes)));
+        final Result<List<MetaData>> unchangedResult = pendingUnchanged.stream()
+                .map(Supplier::get)
+                .filter(result -> result.map(Objects::nonNull).getOrDefault(true))
+                .collect(Result.tryCollect(Collectors.toList()));
+
+        if (changedResult.isFailure()) {
+            return failedRefinement(changedResult);
+        } else if (unchangedResult.isFailure()) {
+            return failedRefinement(unchangedResult);
         }
 
-        final Both<List<JarMetaTypeProvider>> providers = providersResult.getOrThrow();
-        final Predicate<Name> namePredicate = Fun.<Name>inferTest1(name -> name.startsWithName(METATYPE_PARENT))
-                .or(getL10nResourcePredicate(providers));
+        final Both<List<JarMetaTypeProvider>> changedProviders = changedResult.getOrThrow();
+        final Map<String, List<MetaData>> unchangedByLocalePrefix = indexByLocalePrefix(bothBundles,
+                unchangedResult.getOrThrow());
+        final Predicate<Name> l10nPredicate = getL10nResourcePredicate(Stream.concat(
+                        changedProviders.stream().flatMap(List::stream).map(JarMetaTypeProvider::getLocalePrefix),
+                        unchangedByLocalePrefix.keySet().stream())
+                .collect(Collectors.toSet()));
 
-        final List<Diff> superseded = diffs.stream()
-                .filter(Fun.composeTest1(Diff::getName, namePredicate))
+        final List<Diff> superseded = candidates.stream()
+                .filter(Fun.composeTest1(Diff::getName, Fun.<Name>inferTest1(name -> name.startsWithName(METATYPE_PARENT))
+                        .or(l10nPredicate)))
                 .collect(Collectors.toList());
         if (superseded.isEmpty()) {
             return Refinement.EMPTY;
-        } else {
-            final AllDesignates allDesignates = new AllDesignates(providers);
-            final Emitter designatesEmitter = Diff.emitterOf(KIND);
-            final MetaTypeDesignateDiffer designatesDiffer = new MetaTypeDesignateDiffer();
-            return new Refinement(superseded, allDesignates.stream()
-                    .flatMap(element -> designatesDiffer.diff(designatesEmitter, element))
-                    .collect(Diffs.collector()));
         }
+
+        // a pid designated by a changed document is also compared with its designates in unchanged documents
+        final Set<String> changedPids = changedProviders.stream()
+                .flatMap(List::stream)
+                .flatMap(MetaTypeRefinementStrategy::streamDesignateKeys)
+                .collect(Collectors.toSet());
+        final List<Name> sharedDocuments = pendingScans.stream()
+                .map(Supplier::get)
+                // an unchanged document that cannot be scanned is treated as equal, like one that is not scanned
+                .flatMap(Result::stream)
+                .filter(entry -> entry.getValue().stream().anyMatch(changedPids::contains))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        final Result<List<MetaData>> sharedResult = parseMetaTypes(openJars.values().left(), bothBundles.left(),
+                sharedDocuments, parallel).stream()
+                .map(Supplier::get)
+                .filter(result -> result.map(Objects::nonNull).getOrDefault(true))
+                .collect(Result.tryCollect(Collectors.toList()));
+        if (sharedResult.isFailure()) {
+            return failedRefinement(sharedResult);
+        }
+
+        final List<Name> changedL10nResources = superseded.stream()
+                .map(Diff::getName)
+                .filter(l10nPredicate)
+                .collect(Collectors.toList());
+        final Set<URL> affectedSources = new LinkedHashSet<>();
+        final Stream<MetaData> l10nAffected = unchangedByLocalePrefix.entrySet().stream()
+                .filter(entry -> changedL10nResources.stream()
+                        .anyMatch(getSingleLocalePrefixNamePredicate(entry.getKey())))
+                .flatMap(entry -> entry.getValue().stream());
+        final Stream<MetaData> pidAffected = Stream.concat(unchangedResult.getOrThrow().stream(),
+                        sharedResult.getOrThrow().stream())
+                .filter(metaData -> streamDesignateKeys(new JarMetaTypeProvider(bothBundles.left(), metaData))
+                        .anyMatch(changedPids::contains));
+        final List<MetaData> affected = Stream.concat(l10nAffected, pidAffected)
+                .filter(metaData -> affectedSources.add(metaData.getSource()))
+                .collect(Collectors.toList());
+        final Both<List<JarMetaTypeProvider>> providers = changedProviders.zipWith(bothBundles,
+                (changed, bundle) -> {
+                    final List<JarMetaTypeProvider> all = new ArrayList<>(changed);
+                    affected.forEach(metaData -> all.add(new JarMetaTypeProvider(bundle, metaData)));
+                    return all;
+                });
+
+        final AllDesignates allDesignates = new AllDesignates(providers);
+        final Emitter designatesEmitter = Diff.emitterOf(KIND);
+        // localized definitions are only materialized for every locale when the localization resources changed
+        final MetaTypeDesignateDiffer designatesDiffer = new MetaTypeDesignateDiffer(!changedL10nResources.isEmpty());
+        return new Refinement(superseded, allDesignates.stream()
+                .flatMap(element -> designatesDiffer.diff(designatesEmitter, element))
+                .collect(Diffs.collector()));
+    }
+
+    static Refinement failedRefinement(@NotNull Result<?> failure) {
+        return new Refinement(Collections.emptyList(),
+                Diffs.of(Diff.emitterOf(KIND).forName(NAME_PREFIX).errRight(failure)));
     }
 
     public static Result<List<JarMetaTypeProvider>> readMetaTypes(@NotNull OpenJar jar, @NotNull Bundle bundle) {
-        final MetaDataReader reader = new MetaDataReader();
+        return collectMetaTypes(bundle, parseMetaTypes(jar, bundle, getMetaTypeDocuments(jar), false));
+    }
+
+    static Set<Name> getMetaTypeDocuments(@NotNull OpenJar jar) {
         return jar.getEntryNames().stream()
                 .filter(name -> METATYPE_PARENT.equals(name.getParent()))
-                .map(Fun.result1(name -> {
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    static List<Supplier<Result<MetaData>>> parseMetaTypes(@NotNull OpenJar jar,
+                                                           @NotNull Bundle bundle,
+                                                           @NotNull Collection<Name> documents,
+                                                           boolean parallel) {
+        return documents.stream()
+                .map(name -> DescriptorExecutor.submit(parallel, Fun.result0(() -> {
                     final URL url = bundle.getResource(name.toString());
                     try (InputStream inputStream = url.openStream()) {
-                        MetaData metaData = reader.parse(inputStream);
+                        MetaData metaData = XmlParsers.withMetaDataReader(reader -> reader.parse(inputStream));
                         metaData.setSource(url);
                         return metaData;
                     }
-                }))
+                })))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Scan metatype documents for the pids and factory pids of their designates, without parsing their object class
+     * definitions.
+     *
+     * @param bundle    the bundle containing the documents
+     * @param documents the documents to scan
+     * @param parallel  true to scan the documents concurrently
+     * @return a pending result of each document name paired with its designate pids
+     */
+    static List<Supplier<Result<Map.Entry<Name, Set<String>>>>> scanDesignatePids(@NotNull Bundle bundle,
+                                                                                  @NotNull Collection<Name> documents,
+                                                                                  boolean parallel) {
+        return documents.stream()
+                .map(name -> DescriptorExecutor.submit(parallel, Fun.result0(() -> {
+                    final Set<String> pids = new TreeSet<>();
+                    try (InputStream inputStream = bundle.getResource(name.toString()).openStream()) {
+                        XmlParsers.withSaxParser(parser -> {
+                            parser.parse(inputStream, new DefaultHandler() {
+                                @Override
+                                public void startElement(String uri, String localName, String qName,
+                                                         Attributes attributes) {
+                                    if ("Designate".equals(localName)) {
+                                        Stream.of(attributes.getValue("pid"), attributes.getValue("factoryPid"))
+                                                .filter(Objects::nonNull)
+                                                .forEach(pids::add);
+                                    }
+                                }
+                            });
+                            return pids;
+                        });
+                    }
+                    return Fun.toEntry(name, (Set<String>) pids);
+                })))
+                .collect(Collectors.toList());
+    }
+
+    static Stream<String> streamDesignateKeys(@NotNull JarMetaTypeProvider provider) {
+        return Stream.concat(provider.getDesignatePids().stream(), provider.getDesignateFactoryPids().stream());
+    }
+
+    static Result<List<JarMetaTypeProvider>> collectMetaTypes(@NotNull Bundle bundle,
+                                                              @NotNull List<Supplier<Result<MetaData>>> pending) {
+        return pending.stream()
+                .map(Supplier::get)
                 .filter(result -> result.map(Objects::nonNull).getOrDefault(true))
                 .map(result -> result.map(metaData -> new JarMetaTypeProvider(bundle, metaData)))
                 .collect(Result.tryCollect(Collectors.toList()))
                 .map(Collections::unmodifiableList);
     }
 
+    /**
+     * Index metatype documents that are identical in both bundles by the localization base that each side would use
+     * to localize them.
+     *
+     * @param bundles   both bundles
+     * @param documents the documents parsed from either side
+     * @return a map of localization base to documents
+     */
+    static Map<String, List<MetaData>> indexByLocalePrefix(@NotNull Both<Bundle> bundles,
+                                                           @NotNull List<MetaData> documents) {
+        final Map<String, List<MetaData>> index = new LinkedHashMap<>();
+        for (MetaData metaData : documents) {
+            bundles.map(bundle -> JarMetaTypeProvider.getLocalePrefix(bundle, metaData)).stream()
+                    .distinct()
+                    .filter(Fun.inferTest1(String::isEmpty).negate())
+                    .forEach(prefix -> index.computeIfAbsent(prefix, key -> new ArrayList<>()).add(metaData));
+        }
+        return index;
+    }
+
     static Predicate<Name> getL10nResourcePredicate(@NotNull Both<List<JarMetaTypeProvider>> providers) {
-        final Set<String> localePrefixes = providers.stream()
+        return getL10nResourcePredicate(providers.stream()
                 .flatMap(List::stream)
                 .map(JarMetaTypeProvider::getLocalePrefix)
-                .filter(Fun.inferTest1(String::isEmpty).negate())
-                .collect(Collectors.toSet());
+                .collect(Collectors.toSet()));
+    }
 
+    static Predicate<Name> getL10nResourcePredicate(@NotNull Set<String> localePrefixes) {
         return Fun.<Name>inferTest1(name -> name.endsWith(".properties"))
-                .and(localePrefixes.stream().reduce(Fun.inferTest1(name -> false),
-                        (acc, prefix) -> acc.or(getSingleLocalePrefixNamePredicate(prefix)), Predicate::or));
+                .and(localePrefixes.stream()
+                        .filter(Fun.inferTest1(String::isEmpty).negate())
+                        .reduce(Fun.inferTest1(name -> false),
+                                (acc, prefix) -> acc.or(getSingleLocalePrefixNamePredicate(prefix)), Predicate::or));
     }
 
-    static Predicate<Name> getSingleLocalePrefixNamePredicate(@NotNull String localePrefix) {
+    public static Predicate<Name> getSingleLocalePrefixNamePredicate(@NotNull String localePrefix) {
         return name -> {
             final Name path = Name.of(localePrefix);
             if (path.isRoot()) {
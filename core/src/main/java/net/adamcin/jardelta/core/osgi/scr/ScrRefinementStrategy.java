@@ -28,8 +28,11 @@ import net.adamcin.jardelta.api.jar.OpenJar;
 import net.adamcin.jardelta.core.Context;
 import net.adamcin.jardelta.core.Refinement;
 import net.adamcin.jardelta.core.RefinementStrategy;
+import net.adamcin.jardelta.core.Settings;
 import net.adamcin.jardelta.core.entry.JarEntryDiffer;
+import net.adamcin.jardelta.core.osgi.DescriptorExecutor;
 import net.adamcin.jardelta.core.osgi.OsgiUtil;
+import net.adamcin.jardelta.core.osgi.XmlParsers;
 import net.adamcin.streamsupport.Both;
 import net.adamcin.streamsupport.Fun;
 import net.adamcin.streamsupport.Nothing;
@@ -40,8 +43,6 @@ import org.apache.felix.scr.impl.xml.XmlHandler;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.framework.Bundle;
 
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
@@ -54,6 +55,7 @@ import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -66,6 +68,12 @@ public class ScrRefinementStrategy implements RefinementStrategy {
         return KIND;
     }
 
+    @Override
+    public boolean isRefinable(@NotNull Diff diff) {
+        // descriptor paths are only known after expanding the Service-Component header, but they are xml documents
+        return JarEntryDiffer.DIFF_KIND.equals(diff.getKind()) && diff.getName().endsWith(".xml");
+    }
+
     @Override
     public @NotNull Refinement refine(@NotNull Context context, @NotNull Diffs diffs, @NotNull Element<OpenJar> openJars) {
         // no point in deep comparison of scr unless both jars are bundles
@@ -76,10 +84,10 @@ public class ScrRefinementStrategy implements RefinementStrategy {
 
         final Both<Bundle> bothBundles = bundleAdapters.get();
 
-        Both<Map<Name, Result<List<ComponentMetadata>>>> allDescriptors = bothBundles
-                .map(this::getScrResources);
+        // expand the Service-Component globs to descriptor names without parsing any of them
+        final Both<Map<Name, List<URL>>> allDescriptorUrls = bothBundles.map(ScrRefinementStrategy::getScrDescriptorUrls);
 
-        final Set<Name> descriptorNames = allDescriptors.stream()
+        final Set<Name> descriptorNames = allDescriptorUrls.stream()
                 .map(Map::keySet)
                 .flatMap(Set::stream)
                 .collect(Collectors.toCollection(TreeSet::new));
@@ -99,6 +107,15 @@ public class ScrRefinementStrategy implements RefinementStrategy {
 
         descriptorNames.retainAll(refinedNames);
 
+        // only parse the descriptors that have entry diffs, starting both sides before waiting on either
+        final boolean parallel = Optional.ofNullable(context.getSettings())
+                .orElse(Settings.DEFAULT_SETTINGS)
+                .isParallelDescriptorParsing();
+        final Both<Map<Name, Result<List<ComponentMetadata>>>> allDescriptors = bothBundles
+                .zipWith(allDescriptorUrls, (bundle, descriptorUrls) -> loadDescriptors(bundle, descriptorUrls,
+                        descriptorNames, parallel))
+                .map(ScrRefinementStrategy::awaitDescriptors);
+
         // if any refined diff descriptor fails to parse, add an INVALID diff for it and exclude empty supersedes.
         final List<Diff> invalidDiffs = descriptorNames.stream()
                 .flatMap(descriptorName -> {
@@ -141,27 +158,76 @@ public class ScrRefinementStrategy implements RefinementStrategy {
         return new Refinement(refined, allDiffs);
     }
 
-    Map<Name, Result<List<ComponentMetadata>>> getScrResources(final @NotNull Bundle bundle) {
+    /**
+     * Resolve the descriptor entries matched by the {@code Service-Component} header of the bundle, without reading
+     * them.
+     *
+     * @param bundle the bundle
+     * @return a map of descriptor names to their URLs, in header order
+     */
+    static Map<Name, List<URL>> getScrDescriptorUrls(final @NotNull Bundle bundle) {
         final String descriptorLocations = bundle.getHeaders("")
                 .get(Constants.SERVICE_COMPONENT);
+        final Map<Name, List<URL>> descriptorUrls = new TreeMap<>();
+        if (descriptorLocations == null) {
+            return descriptorUrls;
+        }
 
         // 112.4.1: The value of the the header is a comma separated list of XML entries within the Bundle
         StringTokenizer st = new StringTokenizer(descriptorLocations, ", ");
-        Stream<Map.Entry<Name, Result<List<ComponentMetadata>>>> metadatas = Stream.empty();
         while (st.hasMoreTokens()) {
             String descriptorLocation = st.nextToken();
 
             // 112.4.1 If an XML document specified by the header cannot be located in the bundle and its attached
             // fragments, SCR must log an error message with the Log Service, if present, and continue.
-            metadatas = Stream.concat(metadatas, Stream.of(findDescriptors(bundle, descriptorLocation))
-                    .map(url -> loadDescriptor(bundle, url)));
+            for (URL descriptorUrl : findDescriptors(bundle, descriptorLocation)) {
+                descriptorUrls.computeIfAbsent(descriptorName(descriptorUrl), key -> new ArrayList<>())
+                        .add(descriptorUrl);
+            }
+        }
+        return descriptorUrls;
+    }
+
+    static Map<Name, Supplier<Result<List<ComponentMetadata>>>> loadDescriptors(
+            final @NotNull Bundle bundle,
+            final @NotNull Map<Name, List<URL>> descriptorUrls,
+            final @NotNull Set<Name> descriptorNames,
+            final boolean parallel) {
+        final Map<Name, Supplier<Result<List<ComponentMetadata>>>> descriptors = new TreeMap<>();
+        for (Name descriptorName : descriptorNames) {
+            Optional.ofNullable(descriptorUrls.get(descriptorName)).ifPresent(urls ->
+                    descriptors.put(descriptorName, DescriptorExecutor.submit(parallel,
+                            () -> loadDescriptor(bundle, urls))));
         }
-        // it is possible that the header lists duplicate descriptorLocations, which means that the same discovered URL
-        // may be read more than once, with a possibility of nondeterministic failure affecting each read. Otherwise,
-        // we don't want care about merging the lists within the results since we can assume that the contents will be
-        // The merge operation here returns the first result if it is successful
-        return metadatas.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
-                (first, second) -> first.isSuccess() ? first : second, TreeMap::new));
+        return descriptors;
+    }
+
+    static Map<Name, Result<List<ComponentMetadata>>> awaitDescriptors(
+            final @NotNull Map<Name, Supplier<Result<List<ComponentMetadata>>>> pending) {
+        final Map<Name, Result<List<ComponentMetadata>>> descriptors = new TreeMap<>();
+        pending.forEach((descriptorName, result) -> descriptors.put(descriptorName, result.get()));
+        return descriptors;
+    }
+
+    /**
+     * It is possible that the header lists duplicate descriptorLocations, which means that the same discovered URL
+     * may be read more than once, with a possibility of nondeterministic failure affecting each read. The URLs are
+     * read in order until one parses successfully, and otherwise the last failure is returned.
+     *
+     * @param bundle         the bundle
+     * @param descriptorUrls the URLs resolved for a single descriptor name
+     * @return the first successful result
+     */
+    static Result<List<ComponentMetadata>> loadDescriptor(final @NotNull Bundle bundle,
+                                                          final @NotNull List<URL> descriptorUrls) {
+        Result<List<ComponentMetadata>> result = Result.failure("No descriptor URLs");
+        for (URL descriptorUrl : descriptorUrls) {
+            result = loadDescriptor(bundle, descriptorUrl);
+            if (result.isSuccess()) {
+                break;
+            }
+        }
+        return result;
     }
 
     /**
@@ -202,21 +268,21 @@ public class ScrRefinementStrategy implements RefinementStrategy {
         return urls.toArray(new URL[urls.size()]);
     }
 
-    private Map.Entry<Name, Result<List<ComponentMetadata>>> loadDescriptor(final Bundle bundle, final URL descriptorURL) {
-        // simple path for log messages
-        final String descriptorLocation = descriptorURL.getPath();
+    static Name descriptorName(final @NotNull URL descriptorURL) {
+        return Name.of(descriptorURL.getPath().replaceFirst("^/*", "")
+                .replaceFirst(".*!/", ""));
+    }
 
-        return Fun.toEntry(Name.of(descriptorLocation.replaceFirst("^/*", "")
-                .replaceFirst(".*!/", "")), Fun.result0(() -> {
+    private static Result<List<ComponentMetadata>> loadDescriptor(final Bundle bundle, final URL descriptorURL) {
+        return Fun.result0(() -> {
             try (InputStream stream = descriptorURL.openStream()) {
 
                 XmlHandler handler = new XmlHandler(bundle, new NoOpLogger(), true,
                         false, null);
-                final SAXParserFactory factory = SAXParserFactory.newInstance();
-                factory.setNamespaceAware(true);
-                final SAXParser parser = factory.newSAXParser();
-
-                parser.parse(stream, handler);
+                XmlParsers.withSaxParser(parser -> {
+                    parser.parse(stream, handler);
+                    return handler;
+                });
 
                 // 112.4.2 Component descriptors may contain a single, root component element
                 // or one or more component elements embedded in a larger document
@@ -226,6 +292,6 @@ public class ScrRefinementStrategy implements RefinementStrategy {
                 }
                 return metadataList;
             }
-        }).get());
+        }).get();
     }
 }
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.core.report;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Refinement;
+import net.adamcin.streamsupport.Both;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a {@link Delta} written by {@link DeltaArchiveWriter}. Only the string table offsets and the block index of
+ * the result diffs are read when an archive is opened. Strings are decoded on first use, and only the blocks that can
+ * contain the requested names are decoded by {@link #getResults(Name)}.
+ */
+public final class DeltaArchive {
+    static final byte[] MAGIC = {'J', 'D', 'L', 'T'};
+    static final int FORMAT_VERSION = 2;
+
+    private final ByteBuffer buffer;
+    private final int[] stringOffsets;
+    private final int[] stringLengths;
+    private final String[] strings;
+    private final DiffList results;
+
+    private DeltaArchive(@NotNull ByteBuffer buffer) {
+        this.buffer = buffer;
+        final ByteBuffer in = buffer.duplicate();
+        final byte[] magic = new byte[MAGIC.length];
+        in.get(magic);
+        if (!Arrays.equals(MAGIC, magic)) {
+            throw new IllegalArgumentException("Not a delta archive");
+        }
+        final int formatVersion = readVarint(in);
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported delta archive format version: " + formatVersion);
+        }
+        final int stringCount = readVarint(in);
+        this.stringOffsets = new int[stringCount];
+        this.stringLengths = new int[stringCount];
+        this.strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            stringLengths[i] = readVarint(in);
+            stringOffsets[i] = in.position();
+            in.position(in.position() + stringLengths[i]);
+        }
+        this.results = readDiffList(in);
+    }
+
+    /**
+     * Open an archive file. The file is mapped into memory rather than read.
+     *
+     * @param file the archive file
+     * @return the archive
+     * @throws IOException if the file cannot be read, or is not a supported delta archive
+     */
+    @NotNull
+    public static DeltaArchive open(@NotNull Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return of(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read an archive from a buffer, starting at its current position.
+     *
+     * @param buffer the buffer
+     * @return the archive
+     * @throws IOException if the buffer does not contain a supported delta archive
+     */
+    @NotNull
+    public static DeltaArchive of(@NotNull ByteBuffer buffer) throws IOException {
+        try {
+            return new DeltaArchive(buffer.slice().asReadOnlyBuffer());
+        } catch (RuntimeException e) {
+            throw new IOException("Unable to read delta archive: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get the distinct first name segments of the result diffs, in order, without decoding them.
+     *
+     * @return the name prefixes of the result blocks
+     */
+    @NotNull
+    public List<Name> getPrefixes() {
+        return results.blocks.stream()
+                .map(block -> Name.of(getString(block.prefixId)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the number of result diffs without decoding them.
+     *
+     * @return the number of result diffs
+     */
+    public long getResultCount() {
+        return results.blocks.stream().mapToLong(block -> block.count).sum();
+    }
+
+    /**
+     * Decode all the result diffs.
+     *
+     * @return the result diffs
+     */
+    @NotNull
+    public Diffs getResults() {
+        final List<Diff> diffs = new ArrayList<>();
+        results.blocks.forEach(block -> decodeBlock(block, diffs::add));
+        return diffs.stream().collect(Diffs.collector());
+    }
+
+    /**
+     * Decode only the result diffs whose names start with the provided name. All the result diffs start with
+     * {@link Name#ROOT}.
+     *
+     * @param prefix the name prefix
+     * @return the matching result diffs
+     */
+    @NotNull
+    public Diffs getResults(@NotNull Name prefix) {
+        if (prefix.isRoot()) {
+            return getResults();
+        }
+        final String firstSegment = DeltaArchiveWriter.firstSegment(prefix);
+        final List<Diff> diffs = new ArrayList<>();
+        results.blocks.stream()
+                .filter(block -> getString(block.prefixId).equals(firstSegment))
+                .forEachOrdered(block -> decodeBlock(block, diff -> {
+                    if (diff.getName().startsWithName(prefix)) {
+                        diffs.add(diff);
+                    }
+                }));
+        return diffs.stream().collect(Diffs.collector());
+    }
+
+    /**
+     * Decode the complete delta, including its initial diffs, refinements and the diff that halted it.
+     *
+     * @return the delta
+     */
+    @NotNull
+    public Delta toDelta() {
+        final ByteBuffer in = buffer.duplicate();
+        in.position(results.end);
+        final DiffList initial = readDiffList(in);
+        final int refinementCount = readVarint(in);
+        final List<Refinement> refinements = new ArrayList<>(refinementCount);
+        for (int i = 0; i < refinementCount; i++) {
+            final DiffList superseded = readDiffList(in);
+            final DiffList diffs = readDiffList(in);
+            refinements.add(new Refinement(decodeAll(superseded), decodeAll(diffs).stream().collect(Diffs.collector())));
+        }
+        final List<Diff> haltedBy = decodeAll(readDiffList(in));
+        return Delta.builder()
+                .results(getResults())
+                .initial(decodeAll(initial).stream().collect(Diffs.collector()))
+                .refinements(Collections.unmodifiableList(refinements))
+                .haltedBy(haltedBy.isEmpty() ? null : haltedBy.get(0))
+                .build();
+    }
+
+    List<Diff> decodeAll(@NotNull DiffList diffList) {
+        final List<Diff> diffs = new ArrayList<>();
+        diffList.blocks.forEach(block -> decodeBlock(block, diffs::add));
+        return diffs;
+    }
+
+    void decodeBlock(@NotNull Block block, @NotNull Consumer<Diff> consumer) {
+        final ByteBuffer in = buffer.duplicate();
+        in.position(block.offset);
+        List<Name> previous = List.of(Name.of(getString(block.prefixId)));
+        for (int i = 0; i < block.count; i++) {
+            final int shared = readVarint(in);
+            final int added = readVarint(in);
+            final List<Name> names = new ArrayList<>(previous.subList(0, shared));
+            Name name = shared > 0 ? names.get(shared - 1) : null;
+            for (int j = 0; j < added; j++) {
+                final Name segment = Name.of(getString(readVarint(in)));
+                name = name == null ? segment : name.append(segment);
+                names.add(name);
+            }
+            final Kind kind = Kind.of(getString(readVarint(in)));
+            final Verb verb = Verb.valueOf(getString(readVarint(in)));
+            final int hintFlags = readVarint(in);
+            final Optional<String> left = (hintFlags & 1) != 0
+                    ? Optional.of(getString(readVarint(in))) : Optional.empty();
+            final Optional<String> right = (hintFlags & 2) != 0
+                    ? Optional.of(getString(readVarint(in))) : Optional.empty();
+            consumer.accept(Diff.of(name == null ? Name.ROOT : name, kind, verb, Both.of(left, right)));
+            previous = names;
+        }
+    }
+
+    @NotNull
+    String getString(int id) {
+        String value = strings[id];
+        if (value == null) {
+            final byte[] bytes = new byte[stringLengths[id]];
+            buffer.duplicate().position(stringOffsets[id]).get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    @NotNull
+    static DiffList readDiffList(@NotNull ByteBuffer in) {
+        final int blockCount = readVarint(in);
+        final int[][] headers = new int[blockCount][];
+        for (int i = 0; i < blockCount; i++) {
+            headers[i] = new int[]{readVarint(in), readVarint(in), readVarint(in)};
+        }
+        final List<Block> blocks = new ArrayList<>(blockCount);
+        int offset = in.position();
+        for (int[] header : headers) {
+            blocks.add(new Block(header[0], header[1], offset));
+            offset += header[2];
+        }
+        in.position(offset);
+        return new DiffList(blocks, offset);
+    }
+
+    static int readVarint(@NotNull ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte next = in.get();
+            value |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at position " + in.position());
+    }
+
+    static final class DiffList {
+        private final List<Block> blocks;
+        private final int end;
+
+        DiffList(@NotNull List<Block> blocks, int end) {
+            this.blocks = blocks;
+            this.end = end;
+        }
+    }
+
+    static final class Block {
+        private final int prefixId;
+        private final int count;
+        private final int offset;
+
+        Block(int prefixId, int count, int offset) {
+            this.prefixId = prefixId;
+            this.count = count;
+            this.offset = offset;
+        }
+    }
+}
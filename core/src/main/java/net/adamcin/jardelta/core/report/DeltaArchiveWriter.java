@@ -0,0 +1,186 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.core.report;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Refinement;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Encodes a {@link Delta} in the compact binary format read by {@link DeltaArchive}.
+ * <p>
+ * Every name segment, kind, verb and hint is written once to a string table and referenced by index. Each list of
+ * diffs is split into blocks of diffs that share the same first name segment, preceded by an index of the blocks so
+ * that a reader can skip them without decoding. Within a block, each name is written as the number of leading segments
+ * it shares with the previous name, followed by the rest of its segments. The diff that halted the comparison, if any,
+ * is written last as a list of at most one diff. All integers are unsigned varints.
+ */
+public final class DeltaArchiveWriter {
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+    private DeltaArchiveWriter() {
+        /* only one delta per writer */
+    }
+
+    /**
+     * Write a delta to a file.
+     *
+     * @param delta the delta
+     * @param file  the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(@NotNull Delta delta, @NotNull Path file) throws IOException {
+        final Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            write(delta, outputStream);
+        }
+    }
+
+    /**
+     * Write a delta to a stream, which is left open.
+     *
+     * @param delta        the delta
+     * @param outputStream the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(@NotNull Delta delta, @NotNull OutputStream outputStream) throws IOException {
+        new DeltaArchiveWriter().encode(delta, outputStream);
+    }
+
+    void encode(@NotNull Delta delta, @NotNull OutputStream outputStream) throws IOException {
+        final ByteArrayOutputStream sections = new ByteArrayOutputStream();
+        writeDiffList(sections, delta.getResults().stream().collect(Collectors.toList()));
+        writeDiffList(sections, delta.getInitial().stream().collect(Collectors.toList()));
+        writeVarint(sections, delta.getRefinements().size());
+        for (Refinement refinement : delta.getRefinements()) {
+            writeDiffList(sections, refinement.getSuperseded());
+            writeDiffList(sections, refinement.getDiffs().stream().collect(Collectors.toList()));
+        }
+        writeDiffList(sections, Optional.ofNullable(delta.getHaltedBy()).map(List::of).orElse(List.of()));
+
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        header.write(DeltaArchive.MAGIC);
+        writeVarint(header, DeltaArchive.FORMAT_VERSION);
+        writeVarint(header, strings.size());
+        for (String value : strings.keySet()) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(header, bytes.length);
+            header.write(bytes);
+        }
+        header.writeTo(outputStream);
+        sections.writeTo(outputStream);
+        outputStream.flush();
+    }
+
+    void writeDiffList(@NotNull ByteArrayOutputStream out, @NotNull Collection<Diff> diffs) throws IOException {
+        final List<Diff> sorted = new ArrayList<>(diffs);
+        sorted.sort(null);
+        final List<List<Diff>> blocks = new ArrayList<>();
+        String currentPrefix = null;
+        for (Diff diff : sorted) {
+            final String prefix = firstSegment(diff.getName());
+            if (!prefix.equals(currentPrefix)) {
+                blocks.add(new ArrayList<>());
+                currentPrefix = prefix;
+            }
+            blocks.get(blocks.size() - 1).add(diff);
+        }
+        final List<byte[]> bodies = new ArrayList<>(blocks.size());
+        for (List<Diff> block : blocks) {
+            bodies.add(encodeBlock(block));
+        }
+        writeVarint(out, blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            writeVarint(out, stringId(firstSegment(blocks.get(i).get(0).getName())));
+            writeVarint(out, blocks.get(i).size());
+            writeVarint(out, bodies.get(i).length);
+        }
+        for (byte[] body : bodies) {
+            out.write(body);
+        }
+    }
+
+    byte[] encodeBlock(@NotNull List<Diff> block) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<String> previous = List.of(firstSegment(block.get(0).getName()));
+        for (Diff diff : block) {
+            final List<String> segments = diff.getName().segments().collect(Collectors.toList());
+            int shared = 0;
+            while (shared < segments.size() && shared < previous.size()
+                    && segments.get(shared).equals(previous.get(shared))) {
+                shared++;
+            }
+            writeVarint(out, shared);
+            writeVarint(out, segments.size() - shared);
+            for (String segment : segments.subList(shared, segments.size())) {
+                writeVarint(out, stringId(segment));
+            }
+            writeVarint(out, stringId(diff.getKind().getValue()));
+            writeVarint(out, stringId(diff.getVerb().name()));
+            final Optional<String> left = diff.getHints().left();
+            final Optional<String> right = diff.getHints().right();
+            writeVarint(out, (left.isPresent() ? 1 : 0) | (right.isPresent() ? 2 : 0));
+            if (left.isPresent()) {
+                writeVarint(out, stringId(left.get()));
+            }
+            if (right.isPresent()) {
+                writeVarint(out, stringId(right.get()));
+            }
+            previous = segments;
+        }
+        return out.toByteArray();
+    }
+
+    int stringId(@NotNull String value) {
+        return strings.computeIfAbsent(value, key -> strings.size());
+    }
+
+    static String firstSegment(@NotNull Name name) {
+        Name first = name;
+        while (first.getParent() != null) {
+            first = first.getParent();
+        }
+        return first.getSegment();
+    }
+
+    static void writeVarint(@NotNull ByteArrayOutputStream out, int value) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+}
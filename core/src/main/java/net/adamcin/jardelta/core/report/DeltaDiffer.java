@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.core.report;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Differ;
+import net.adamcin.jardelta.api.diff.Differs;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.api.diff.Element;
+import net.adamcin.jardelta.api.diff.Emitter;
+import net.adamcin.jardelta.api.diff.SetDiffer;
+import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.streamsupport.Both;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares the results of two deltas, such as the deltas of two consecutive releases, or of a rebuild and its original
+ * build, without opening any jar. A result diff is identified by its name, kind and verb. A diff that is only present
+ * in the left delta is reported as removed, and one only present in the right delta as added, with a kind of
+ * {@code delta.<verb>.<kind>}. When hints are compared, a diff present in both deltas with different hints is reported
+ * as changed.
+ */
+public final class DeltaDiffer implements Differ<Diffs> {
+    public static final Kind DIFF_KIND = Kind.of("delta");
+
+    private final boolean compareHints;
+
+    public DeltaDiffer(boolean compareHints) {
+        this.compareHints = compareHints;
+    }
+
+    /**
+     * Compare the results of two deltas.
+     *
+     * @param deltas both deltas
+     * @return the diffs between their results
+     */
+    @NotNull
+    public Diffs diffDeltas(@NotNull Both<Delta> deltas) {
+        return diff(Diff.emitterOf(DIFF_KIND), Element.of(Name.ROOT, deltas.map(Delta::getResults)))
+                .collect(Diffs.collector());
+    }
+
+    /**
+     * Compare the results of two delta archives. Only the results of each archive are decoded.
+     *
+     * @param archives both archive files
+     * @return the diffs between their results
+     * @throws IOException if either archive cannot be read
+     */
+    @NotNull
+    public Diffs diffArchives(@NotNull Both<Path> archives) throws IOException {
+        final Diffs left = DeltaArchive.open(archives.left()).getResults();
+        final Diffs right = DeltaArchive.open(archives.right()).getResults();
+        return diff(Diff.emitterOf(DIFF_KIND), Element.of(Name.ROOT, Both.of(left, right)))
+                .collect(Diffs.collector());
+    }
+
+    @Override
+    public @NotNull Stream<Diff> diff(@NotNull Emitter baseEmitter, @NotNull Element<Diffs> element) {
+        final SetDiffer.SetDifferBuilder<Diff> builder = SetDiffer.<Diff>builder()
+                .emitterProjection(DeltaDiffer::project)
+                .hinter(diff -> {
+                    final Optional<String> hint = describeHints(diff);
+                    return Both.of(hint, hint);
+                });
+        if (compareHints) {
+            final Map<Diff, Diff> rights = element.values().right().stream()
+                    .collect(Collectors.toMap(Function.identity(), Function.identity()));
+            builder.intersectDiffer((emitter, left) -> Differs.diffEquality(DeltaDiffer::describeHints, emitter,
+                    Both.of(left, rights.get(left)), DeltaDiffer::hintsEqual));
+        }
+        return builder.build().diffSets(baseEmitter, element.values().map(Diffs::asSortedSet));
+    }
+
+    static Emitter project(@NotNull Emitter baseEmitter, @NotNull Diff diff) {
+        return baseEmitter
+                .ofSubKind(verbKind(diff.getVerb()))
+                .ofSubKind(diff.getKind())
+                .forName(baseEmitter.getName().append(diff.getName()));
+    }
+
+    static Kind verbKind(@NotNull Verb verb) {
+        return Kind.of(verb.name().toLowerCase(Locale.ROOT));
+    }
+
+    static boolean hintsEqual(@NotNull Diff left, @NotNull Diff right) {
+        return left.getHints().left().equals(right.getHints().left())
+                && left.getHints().right().equals(right.getHints().right());
+    }
+
+    /**
+     * Format the hints of a diff as a single hint.
+     *
+     * @param diff the diff
+     * @return {@code left -> right} when both hints are present, otherwise the one hint that is present
+     */
+    static Optional<String> describeHints(@NotNull Diff diff) {
+        final Optional<String> left = diff.getHints().left();
+        final Optional<String> right = diff.getHints().right();
+        if (left.isPresent() && right.isPresent()) {
+            return Optional.of(left.get() + " -> " + right.get());
+        }
+        return left.isPresent() ? left : right;
+    }
+}
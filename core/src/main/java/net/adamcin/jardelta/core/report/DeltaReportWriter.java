@@ -0,0 +1,215 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.report;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Refinement;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes deltas as a machine-readable report. Each delta is written and flushed as soon as it is passed in, such as
+ * when its comparison completes in a batch, and is identified by a label, such as a module or artifact key. The diffs
+ * of a single delta are written directly to the stream without building a JSON object model, but the delta itself is
+ * complete, and therefore held in memory, before any of it is written.
+ */
+public final class DeltaReportWriter implements Closeable {
+    private final Writer writer;
+    private final ReportFormat format;
+    private boolean firstDelta = true;
+
+    public DeltaReportWriter(@NotNull Writer writer, @NotNull ReportFormat format) throws IOException {
+        this.writer = writer;
+        this.format = format;
+        if (format == ReportFormat.JSON) {
+            writer.write("{\"deltas\":[");
+        }
+    }
+
+    /**
+     * Write the refinement summaries and result diffs of a delta.
+     *
+     * @param label  the delta label
+     * @param delta  the delta
+     * @param phases the kind of each refinement of the delta, in order
+     * @throws IOException if the report cannot be written
+     */
+    public synchronized void writeDelta(@NotNull String label,
+                                        @NotNull Delta delta,
+                                        @NotNull List<Kind> phases) throws IOException {
+        beginDelta(label);
+        if (format == ReportFormat.JSON) {
+            writer.write(",\"refinements\":[");
+        }
+        final Iterator<Refinement> refinements = delta.getRefinements().iterator();
+        for (int i = 0; refinements.hasNext(); i++) {
+            final Refinement refinement = refinements.next();
+            final String phase = i < phases.size() ? phases.get(i).toString() : Integer.toString(i);
+            beginRecord(i == 0, "refinement", label);
+            writeField("phase", phase);
+            writer.write(",\"superseded\":");
+            writer.write(Integer.toString(refinement.getSuperseded().size()));
+            writer.write(",\"diffs\":");
+            writer.write(Long.toString(refinement.getDiffs().stream().count()));
+            endRecord();
+        }
+        if (format == ReportFormat.JSON) {
+            writer.write("],\"diffs\":[");
+        }
+        final Iterator<Diff> diffs = delta.getResults().stream().iterator();
+        for (boolean first = true; diffs.hasNext(); first = false) {
+            writeDiff(first, label, diffs.next());
+        }
+        if (format == ReportFormat.JSON) {
+            writer.write("]}");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write a delta that could not be computed.
+     *
+     * @param label the delta label
+     * @param error the failure
+     * @throws IOException if the report cannot be written
+     */
+    public synchronized void writeFailure(@NotNull String label, @NotNull Throwable error) throws IOException {
+        beginDelta(label);
+        if (format == ReportFormat.JSON) {
+            writer.write(",\"error\":");
+            writeString(Optional.ofNullable(error.getMessage()).orElse(error.getClass().getName()));
+            writer.write("}");
+        } else {
+            beginRecord(true, "failure", label);
+            writeField("error", Optional.ofNullable(error.getMessage()).orElse(error.getClass().getName()));
+            endRecord();
+        }
+        writer.flush();
+    }
+
+    void beginDelta(@NotNull String label) throws IOException {
+        if (format == ReportFormat.JSON) {
+            if (!firstDelta) {
+                writer.write(",");
+            }
+            writer.write("{\"label\":");
+            writeString(label);
+        }
+        firstDelta = false;
+    }
+
+    void writeDiff(boolean first, @NotNull String label, @NotNull Diff diff) throws IOException {
+        beginRecord(first, "diff", label);
+        writeField("name", diff.getName().toString());
+        writer.write(",");
+        writeField("kind", diff.getKind().toString());
+        writer.write(",");
+        writeField("verb", diff.getVerb().name());
+        writer.write(",\"hints\":[");
+        writeHint(diff.getHints().left());
+        writer.write(",");
+        writeHint(diff.getHints().right());
+        writer.write("]");
+        endRecord();
+    }
+
+    void beginRecord(boolean first, @NotNull String type, @NotNull String label) throws IOException {
+        if (format == ReportFormat.JSON) {
+            if (!first) {
+                writer.write(",");
+            }
+            writer.write("{");
+        } else {
+            writer.write("{");
+            writeField("type", type);
+            writer.write(",");
+            writeField("label", label);
+            writer.write(",");
+        }
+    }
+
+    void endRecord() throws IOException {
+        writer.write("}");
+        if (format == ReportFormat.NDJSON) {
+            writer.write("\n");
+        }
+    }
+
+    void writeHint(@NotNull Optional<String> hint) throws IOException {
+        if (hint.isPresent()) {
+            writeString(hint.get());
+        } else {
+            writer.write("null");
+        }
+    }
+
+    void writeField(@NotNull String key, @NotNull String value) throws IOException {
+        writeString(key);
+        writer.write(":");
+        writeString(value);
+    }
+
+    void writeString(@NotNull String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (format == ReportFormat.JSON) {
+                writer.write("]}");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -25,10 +25,12 @@ import net.adamcin.streamsupport.Result;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.stream.Stream;
 
 import static net.adamcin.jardelta.testing.DiffTestUtil.assertAllDiffs;
@@ -127,6 +129,27 @@ class DiffersTest {
                 baseEmitter.forChild("2").removed());
     }
 
+    @Test
+    void diffAllInEitherSortedSet() {
+        final Diff sentinel = Diff.emitterOf(Kind.of("sentinel")).added();
+        DiffTestUtil.assertAllDiffs(Differs.diffSets(baseEmitter,
+                        Both.of(new TreeSet<>(List.of("1", "3", "4")), new TreeSet<>(List.of("2", "3", "5"))),
+                        (emitter, values) -> Stream.of(sentinel)),
+                baseEmitter.forChild("1").removed(),
+                baseEmitter.forChild("2").added(),
+                sentinel,
+                baseEmitter.forChild("4").removed(),
+                baseEmitter.forChild("5").added());
+        final Comparator<String> reversed = Comparator.reverseOrder();
+        final TreeSet<String> left = new TreeSet<>(reversed);
+        left.addAll(List.of("1", "2"));
+        final TreeSet<String> right = new TreeSet<>(reversed);
+        right.add("2");
+        DiffTestUtil.assertAllDiffs(Differs.diffSets(baseEmitter, Both.of(left, right)),
+                baseEmitter.forChild("1").removed());
+        DiffTestUtil.assertAllDiffs(Differs.diffSets(baseEmitter, Both.of(new TreeSet<String>(), new TreeSet<String>())));
+    }
+
     @Test
     void diffAllInEitherMap() {
         DiffTestUtil.assertAllDiffs(Differs.diffMaps(baseEmitter, Both.of(Map.of("foo", "foo1"), Map.of("foo", "foo1"))));
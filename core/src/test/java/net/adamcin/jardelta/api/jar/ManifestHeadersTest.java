@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.api.jar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ManifestHeadersTest {
+
+    @Test
+    void empty() {
+        assertSame(ManifestHeaders.EMPTY, ManifestHeaders.of(null));
+        assertFalse(ManifestHeaders.EMPTY.isPresent());
+        assertNull(ManifestHeaders.EMPTY.getMainAttributeValue("Bundle-SymbolicName"));
+        assertTrue(ManifestHeaders.EMPTY.getLocalizedHeaders().isEmpty());
+    }
+
+    @Test
+    void headers() {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().putValue("Bundle-SymbolicName", "example;singleton:=true");
+        manifest.getMainAttributes().putValue("Bundle-Name", "%bundle.name");
+        manifest.getMainAttributes().putValue("Import-Package", "org.osgi.framework;version=\"[1.8,2)\",javax.inject");
+        final Attributes section = new Attributes();
+        section.putValue("Extra", "value");
+        manifest.getEntries().put("some/entry.txt", section);
+
+        final ManifestHeaders headers = ManifestHeaders.of(manifest);
+        // later changes to the manifest are not visible
+        manifest.getMainAttributes().putValue("Bundle-Name", "changed");
+
+        assertTrue(headers.isPresent());
+        assertEquals("%bundle.name", headers.getMainAttributeValue("bundle-name"));
+        assertNull(headers.getMainAttributeValue("not a valid name"));
+        assertEquals(Map.of(new Attributes.Name("Bundle-Name"), "%bundle.name"), headers.getLocalizedHeaders());
+        assertEquals("value", headers.getEntryAttributeValue("some/entry.txt", "Extra"));
+        assertEquals("%bundle.name", headers.getEntryAttributeValue("other/entry.txt", "Bundle-Name"));
+        assertThrows(UnsupportedOperationException.class, () -> headers.getMainAttributes().clear());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.core.entry.JarEntryDiffer;
+import net.adamcin.streamsupport.Result;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchPlanTest {
+
+    @Test
+    void executeAll() {
+        final List<Context> contexts = IntStream.range(0, 8)
+                .mapToObj(index -> Context.builder().jars(Jars.from(
+                        getResourceAbsolute("examples/simpleText1/"),
+                        getResourceAbsolute("examples/simpleText2/"))).build())
+                .collect(Collectors.toList());
+        final Diffs expected = Diffs.of(Diff.emitterOf(JarEntryDiffer.DIFF_KIND)
+                .forName(Name.of("helloworld.txt")).changed());
+        final List<Map.Entry<Context, Result<Delta>>> results;
+        try (BatchPlan batchPlan = new BatchPlan(3)) {
+            results = batchPlan.executeAll(contexts).collect(Collectors.toList());
+        }
+        assertEquals(contexts.size(), results.size());
+        assertTrue(results.stream().map(Map.Entry::getKey).allMatch(contexts::contains));
+        for (Map.Entry<Context, Result<Delta>> result : results) {
+            assertEquals(expected, result.getValue().getOrThrow().getResults());
+        }
+    }
+
+    @Test
+    void executeAll_empty() {
+        try (BatchPlan batchPlan = new BatchPlan(1)) {
+            assertEquals(0L, batchPlan.executeAll(List.of()).count());
+        }
+    }
+
+    URL getResourceAbsolute(@NotNull String name) {
+        return getClass().getResource(name.replaceFirst("^(?!/)", "/"));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.streamsupport.Both;
+import net.adamcin.streamsupport.Result;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaStateTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeAndRead() throws Exception {
+        final Diffs results = Diffs.of(
+                Diff.emitterOf(Kind.of("entry")).forName(Name.of("a.txt")).added("a"),
+                Diff.emitterOf(Kind.of("entry")).forName(Name.of("b.txt")).changed(Both.of("left", "right")),
+                Diff.emitterOf(Kind.of("osgi.ocd")).forName(Name.of("{osgi.ocd}/pid/{locale:}/@name")).removed(),
+                Diff.emitterOf(Kind.of("jar")).forName(Name.of("lib/c.jar")).errRight(Result.failure("bad zip")));
+        final Diff superseded = Diff.emitterOf(Kind.of("entry")).forName(Name.of("META-INF/MANIFEST.MF")).changed();
+        final Diffs refined = Diffs.of(Diff.emitterOf(Kind.of("manifest"))
+                .forName(Name.of("META-INF/MANIFEST.MF/Bundle-Name")).changed(Both.of("left", "right")));
+        final Delta delta = Delta.builder()
+                .results(results)
+                .initial(Diffs.of(superseded))
+                .refinements(List.of(new Refinement(List.of(superseded), refined)))
+                .build();
+        final DeltaState state = new DeltaState("key", Both.of("1:aa", "2:bb"), delta);
+        final Path stateFile = tempDir.resolve("state/jardelta.json");
+        state.write(stateFile);
+
+        final DeltaState read = DeltaState.read(stateFile).orElseThrow();
+        assertTrue(read.matches("key", Both.of("1:aa", "2:bb")));
+        assertFalse(read.matches("other", Both.of("1:aa", "2:bb")));
+        assertFalse(read.matches("key", Both.of("1:aa", "2:cc")));
+        assertEquals(results, read.getResults());
+        assertEquals(hints(results), hints(read.getResults()));
+        assertEquals(results, read.toDelta().getResults());
+        assertEquals(delta.getInitial(), read.toDelta().getInitial());
+        assertEquals(1, read.toDelta().getRefinements().size());
+        assertEquals(List.of(superseded), List.copyOf(read.toDelta().getRefinements().get(0).getSuperseded()));
+        assertEquals(refined, read.toDelta().getRefinements().get(0).getDiffs());
+        assertEquals(hints(refined), hints(read.toDelta().getRefinements().get(0).getDiffs()));
+    }
+
+    @Test
+    void readUnreadable() throws Exception {
+        assertTrue(DeltaState.read(tempDir.resolve("missing.json")).isEmpty());
+        final Path corrupt = tempDir.resolve("corrupt.json");
+        Files.writeString(corrupt, "{\"formatVersion\":", StandardCharsets.UTF_8);
+        assertTrue(DeltaState.read(corrupt).isEmpty());
+        final Path future = tempDir.resolve("future.json");
+        Files.writeString(future, "{\"formatVersion\":99}", StandardCharsets.UTF_8);
+        assertTrue(DeltaState.read(future).isEmpty());
+        final Path previous = tempDir.resolve("previous.json");
+        Files.writeString(previous, "{\"formatVersion\":1,\"key\":\"key\",\"left\":\"1:aa\",\"right\":\"2:bb\","
+                + "\"diffs\":[]}", StandardCharsets.UTF_8);
+        assertTrue(DeltaState.read(previous).isEmpty());
+    }
+
+    @Test
+    void fingerprint() throws Exception {
+        final Path file = tempDir.resolve("file.jar");
+        Files.writeString(file, "content", StandardCharsets.UTF_8);
+        final String first = DeltaState.fingerprint(file);
+        assertEquals(first, DeltaState.fingerprint(file));
+        Files.writeString(file, "contents", StandardCharsets.UTF_8);
+        assertNotEquals(first, DeltaState.fingerprint(file));
+    }
+
+    static List<List<Optional<String>>> hints(Diffs diffs) {
+        return diffs.stream()
+                .map(diff -> diff.getHints().stream().collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.jar.EntryMeta;
+import net.adamcin.jardelta.core.entry.DigestAlgorithm;
+import net.adamcin.jardelta.core.entry.EntryMetaImpl;
+import net.adamcin.jardelta.testing.JarTestUtil;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntryMetaCacheTest {
+    static final Name HELLO = Name.of("hello.txt");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sharedAcrossJars() throws Exception {
+        final Path base = writeJar("base.jar", "hello");
+        final Path first = writeJar("first.jar", "hello, first");
+        final Path second = writeJar("second.jar", "hello, second");
+        final EntryMetaCache cache = new EntryMetaCache();
+
+        final EntryMeta fromFirst = leftEntryMeta(Jars.from(base, first).withEntryMetaCache(cache));
+        final EntryMeta cached = cache.getTable(base, DigestAlgorithm.SHA256).get(HELLO);
+        assertNotNull(cached);
+        assertNotSame(fromFirst, cached);
+        assertEquals(fromFirst.getDigest(), cached.getDigest());
+        // the cached copy no longer references the raw entry data of the closed jar
+        assertFalse(((EntryMetaImpl) cached).rawEquals(cached));
+
+        final EntryMeta fromSecond = leftEntryMeta(Jars.from(base, second).withEntryMetaCache(cache));
+        assertSame(cached, fromSecond);
+        assertEquals(3, cache.size());
+        assertTrue(cache.getTable(base, DigestAlgorithm.CRC32C).isEmpty());
+    }
+
+    @Test
+    void undigestedEntriesAreNotCached() throws Exception {
+        final Path base = writeJar("base.jar", "hello");
+        final EntryMetaCache cache = new EntryMetaCache();
+        Jars.from(base, base).withEntryMetaCache(cache)
+                .openThen(openJars -> openJars.values().left().getEntryMeta(HELLO).orElseThrow().getOrThrow())
+                .getOrThrow();
+        assertTrue(cache.getTable(base, DigestAlgorithm.SHA256).isEmpty());
+    }
+
+    @Test
+    void replacedFileGetsNewTable() throws Exception {
+        final Path base = writeJar("base.jar", "hello");
+        final EntryMetaCache cache = new EntryMetaCache();
+        final Map<Name, EntryMeta> before = cache.getTable(base, DigestAlgorithm.SHA256);
+
+        writeJar("base.jar", "hello, again");
+        Files.setLastModifiedTime(base, FileTime.fromMillis(Files.getLastModifiedTime(base).toMillis() + 2000L));
+        assertNotSame(before, cache.getTable(base, DigestAlgorithm.SHA256));
+    }
+
+    static EntryMeta leftEntryMeta(@NotNull Jars jars) {
+        return jars.openThen(openJars -> {
+            final EntryMeta entryMeta = openJars.values().left().getEntryMeta(HELLO).orElseThrow().getOrThrow();
+            entryMeta.getDigest();
+            return entryMeta;
+        }).getOrThrow();
+    }
+
+    Path writeJar(@NotNull String fileName, @NotNull String content) throws IOException {
+        return JarTestUtil.writeZip(tempDir.resolve(fileName), Map.of(HELLO.toString(), JarTestUtil.utf8(content)));
+    }
+}
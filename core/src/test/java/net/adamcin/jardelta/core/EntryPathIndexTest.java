@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import net.adamcin.jardelta.api.Name;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EntryPathIndexTest {
+
+    final Set<Name> entryNames = names("META-INF/MANIFEST.MF", "OSGI-INF/a.xml", "OSGI-INF/b.xml",
+            "OSGI-INF/l10n/bundle.properties", "OSGI-INF0/c.xml", "implicit/dir/d.xml", "top.txt");
+    final Set<Name> dirNames = names("META-INF", "OSGI-INF", "OSGI-INF/l10n", "OSGI-INF0");
+    final EntryPathIndex index = new EntryPathIndex(entryNames, dirNames);
+
+    @Test
+    void children() {
+        assertEquals(List.of(Name.of("top.txt"), Name.of("META-INF"), Name.of("OSGI-INF"), Name.of("OSGI-INF0")),
+                index.children(Name.ROOT).collect(Collectors.toList()));
+        assertEquals(List.of(Name.of("OSGI-INF/a.xml"), Name.of("OSGI-INF/b.xml"), Name.of("OSGI-INF/l10n")),
+                index.children(Name.of("OSGI-INF")).collect(Collectors.toList()));
+        assertEquals(List.of(Name.of("implicit/dir/d.xml")),
+                index.children(Name.of("implicit/dir")).collect(Collectors.toList()));
+        assertEquals(List.of(), index.children(Name.of("implicit")).collect(Collectors.toList()));
+        assertEquals(List.of(), index.children(Name.of("missing")).collect(Collectors.toList()));
+    }
+
+    @Test
+    void descendants() {
+        for (String path : List.of("", "OSGI-INF", "OSGI-INF/l10n", "implicit", "implicit/dir", "top.txt", "missing")) {
+            final Name ancestor = Name.of(path);
+            final Predicate<Name> isDescendant = ancestor.isRoot()
+                    ? name -> true
+                    : name -> name.getParent() != null && name.getParent().startsWithName(ancestor);
+            assertEquals(Stream.concat(entryNames.stream(), dirNames.stream())
+                            .filter(isDescendant).collect(Collectors.toSet()),
+                    index.descendants(ancestor).collect(Collectors.toSet()), "descendants of " + path);
+        }
+        assertEquals(List.of(Name.of("OSGI-INF/a.xml"), Name.of("OSGI-INF/b.xml"),
+                        Name.of("OSGI-INF/l10n/bundle.properties"), Name.of("OSGI-INF/l10n")),
+                index.descendants(Name.of("OSGI-INF")).collect(Collectors.toList()));
+    }
+
+    static Set<Name> names(@NotNull String... values) {
+        return Stream.of(values).map(Name::of).collect(Collectors.toSet());
+    }
+}
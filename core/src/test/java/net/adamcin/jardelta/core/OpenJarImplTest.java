@@ -0,0 +1,224 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core;
+
+import aQute.bnd.header.Parameters;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.jar.EntryMeta;
+import net.adamcin.jardelta.api.jar.OpenJar;
+import net.adamcin.jardelta.testing.JarTestUtil;
+import net.adamcin.streamsupport.Result;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.osgi.framework.Bundle;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.Manifest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenJarImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void openEntryStream() throws Exception {
+        final Path path = tempDir.resolve("bundle.jar");
+        Files.write(path, bundleBytes("example.bundle"));
+        try (OpenJarImpl openJar = OpenJarImpl.fromFile(null, path, new TreeMap<>())) {
+            try (InputStream inputStream = openJar.openEntryStream(Name.of("OSGI-INF/example.xml"))) {
+                assertNotNull(inputStream);
+                assertEquals("<example/>", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertNull(openJar.openEntryStream(Name.of("OSGI-INF/missing.xml")));
+        }
+    }
+
+    @Test
+    void defaultMethods() throws Exception {
+        final Path path = tempDir.resolve("bundle.jar");
+        Files.write(path, bundleBytes("example.bundle"));
+        try (OpenJarImpl openJar = OpenJarImpl.fromFile(null, path, new TreeMap<>())) {
+            final OpenJar delegate = new DelegatingOpenJar(openJar);
+            try (InputStream inputStream = delegate.openEntryStream(Name.of("OSGI-INF/example.xml"))) {
+                assertNotNull(inputStream);
+                assertEquals("<example/>", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertNull(delegate.openEntryStream(Name.of("OSGI-INF/missing.xml")));
+            assertEquals("example.bundle",
+                    delegate.getManifestHeaders().getMainAttributeValue("Bundle-SymbolicName"));
+        }
+    }
+
+    @Test
+    void bundleResourceUrls() throws Exception {
+        final Path path = tempDir.resolve("bundle.jar");
+        Files.write(path, bundleBytes("example.bundle"));
+        try (OpenJarImpl openJar = OpenJarImpl.fromFile(null, path, new TreeMap<>())) {
+            assertResources(openJar.adaptTo(Bundle.class));
+        }
+    }
+
+    @Test
+    void nestedBundleResourceUrls() throws Exception {
+        final Path path = tempDir.resolve("outer.jar");
+        Files.write(path, JarTestUtil.zipBytes(Map.of("lib/bundle.jar", bundleBytes("example.nested"))));
+        try (OpenJarImpl outerJar = OpenJarImpl.fromFile(null, path, new TreeMap<>());
+             OpenJarImpl nestedJar = outerJar.openNested(Name.of("lib/bundle.jar"), new TreeMap<>())) {
+            assertNull(outerJar.adaptTo(Bundle.class));
+            final Bundle bundle = nestedJar.adaptTo(Bundle.class);
+            assertResources(bundle);
+            assertEquals("Example", bundle.getHeaders("en").get("Bundle-Name"));
+        }
+    }
+
+    @Test
+    void parameters() throws Exception {
+        final Manifest manifest = JarTestUtil.bundleManifest("example.parameters");
+        manifest.getMainAttributes().putValue("Import-Package",
+                "org.osgi.framework;version=\"[1.8,2)\",javax.inject");
+        final Path path = tempDir.resolve("parameters.jar");
+        Files.write(path, JarTestUtil.zipBytes(manifest, Map.of()));
+        try (OpenJarImpl openJar = OpenJarImpl.fromFile(null, path, new TreeMap<>())) {
+            final Parameters imports = openJar.getParameters("Import-Package");
+            assertNotNull(imports);
+            assertEquals(2, imports.size());
+            assertEquals("[1.8,2)", imports.get("org.osgi.framework").getVersion());
+            assertSame(imports, openJar.getParameters("import-package"));
+            assertNull(openJar.getParameters("Export-Package"));
+            assertNull(openJar.getParameters("not a valid name"));
+        }
+    }
+
+    @Test
+    void localizedHeaders() throws Exception {
+        final Manifest manifest = JarTestUtil.manifest();
+        manifest.getMainAttributes().putValue("Bundle-SymbolicName", "example.localized");
+        manifest.getMainAttributes().putValue("Bundle-Name", "%bundle.name");
+        manifest.getMainAttributes().putValue("Bundle-Vendor", "%bundle.vendor");
+        manifest.getMainAttributes().putValue("Bundle-Description", "%bundle.description");
+        final Path path = tempDir.resolve("localized.jar");
+        Files.write(path, JarTestUtil.zipBytes(manifest, Map.of(
+                "OSGI-INF/l10n/bundle.properties", "bundle.name=Default\nbundle.vendor=Vendor"
+                        .getBytes(StandardCharsets.UTF_8),
+                "OSGI-INF/l10n/bundle_en.properties", "bundle.name=English"
+                        .getBytes(StandardCharsets.UTF_8),
+                "OSGI-INF/l10n/bundle_en_US.properties", "bundle.vendor=US Vendor"
+                        .getBytes(StandardCharsets.UTF_8))));
+        try (OpenJarImpl openJar = OpenJarImpl.fromFile(null, path, new TreeMap<>())) {
+            final Bundle bundle = openJar.getBundle();
+            assertEquals("%bundle.name", bundle.getHeaders("").get("Bundle-Name"));
+            assertEquals("English", bundle.getHeaders("en_US").get("Bundle-Name"));
+            assertEquals("US Vendor", bundle.getHeaders("en_US").get("Bundle-Vendor"));
+            assertEquals("bundle.description", bundle.getHeaders("en_US").get("Bundle-Description"));
+            assertEquals("English", bundle.getHeaders("en").get("Bundle-Name"));
+            assertEquals("Vendor", bundle.getHeaders("en").get("Bundle-Vendor"));
+            assertEquals("Default", bundle.getHeaders("fr_CA").get("Bundle-Name"));
+            assertEquals("Default", bundle.getHeaders(null).get("Bundle-Name"));
+        }
+    }
+
+    void assertResources(Bundle bundle) throws IOException {
+        assertNotNull(bundle);
+        final URL resource = bundle.getResource("/OSGI-INF/example.xml");
+        assertEquals(OpenJarUrlHandler.PROTOCOL, resource.getProtocol());
+        try (InputStream inputStream = resource.openStream()) {
+            assertEquals("<example/>", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        final List<URL> found = Collections.list(bundle.findEntries("OSGI-INF", "*.xml", false));
+        assertEquals(List.of(resource), found);
+        assertThrows(FileNotFoundException.class, () -> bundle.getResource("OSGI-INF/missing.xml").openStream());
+    }
+
+    /**
+     * Delegates everything but the default methods of {@link OpenJar}, to exercise their default implementations.
+     */
+    static final class DelegatingOpenJar implements OpenJar {
+        private final OpenJar delegate;
+
+        DelegatingOpenJar(@NotNull OpenJar delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Set<Name> getEntryNames() {
+            return delegate.getEntryNames();
+        }
+
+        @Override
+        public Set<Name> getDirNames() {
+            return delegate.getDirNames();
+        }
+
+        @Override
+        public Optional<Result<EntryMeta>> getEntryMeta(@NotNull Name name) {
+            return delegate.getEntryMeta(name);
+        }
+
+        @Override
+        public @Nullable Manifest getManifest() {
+            return delegate.getManifest();
+        }
+
+        @Override
+        public @Nullable String getMainAttributeValue(@NotNull Name attribute) {
+            return delegate.getMainAttributeValue(attribute);
+        }
+
+        @Override
+        public @Nullable Set<Name> getEntryAttributeNames(@NotNull Name name) {
+            return delegate.getEntryAttributeNames(name);
+        }
+
+        @Override
+        public @Nullable String getEntryAttributeValue(@NotNull Name entryName, @NotNull Name attribute) {
+            return delegate.getEntryAttributeValue(entryName, attribute);
+        }
+
+        @Override
+        public <T> @Nullable T adaptTo(@NotNull Class<T> adapter) {
+            return delegate.adaptTo(adapter);
+        }
+    }
+
+    static byte[] bundleBytes(@NotNull String symbolicName) throws IOException {
+        final Manifest manifest = JarTestUtil.bundleManifest(symbolicName);
+        manifest.getMainAttributes().putValue("Bundle-Name", "%bundle.name");
+        return JarTestUtil.zipBytes(manifest, Map.of(
+                "OSGI-INF/example.xml", "<example/>".getBytes(StandardCharsets.UTF_8),
+                "OSGI-INF/l10n/bundle.properties", "bundle.name=Example".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -20,12 +20,21 @@ import net.adamcin.jardelta.api.Name;
 import net.adamcin.jardelta.api.diff.Diff;
 import net.adamcin.jardelta.api.diff.Diffs;
 import net.adamcin.jardelta.core.entry.JarEntryDiffer;
+import net.adamcin.jardelta.core.manifest.Manifests;
+import net.adamcin.jardelta.core.osgi.header.HeaderRefinementStrategy;
+import net.adamcin.jardelta.testing.JarTestUtil;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.jar.Manifest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PlanTest {
 
@@ -44,6 +53,51 @@ class PlanTest {
                 Diffs.of(Diff.emitterOf(JarEntryDiffer.DIFF_KIND).forName(Name.of("helloworld.txt")).changed()), diffs);
     }
 
+    @Test
+    void haltOnFirstDiff() {
+        final Diff expected = Diff.emitterOf(JarEntryDiffer.DIFF_KIND).forName(Name.of("helloworld.txt")).changed();
+        final Context context = Context.builder().jars(Jars.from(
+                        getResourceAbsolute("examples/simpleText1/"),
+                        getResourceAbsolute("examples/simpleText2/")))
+                .haltOn(diff -> diff.getKind().isSubKindOf(JarEntryDiffer.DIFF_KIND))
+                .build();
+        final Delta delta = new Plan().execute(context);
+        assertTrue(delta.isHalted());
+        assertEquals(expected, delta.getHaltedBy());
+        assertTrue(delta.getRefinements().isEmpty());
+        assertEquals(Diffs.of(expected), delta.getResults());
+    }
+
+    @Test
+    void haltOnRefinedDiffOnly(@TempDir Path tempDir) throws Exception {
+        final Name importPackage = Manifests.NAME_MANIFEST.appendSegment("Import-Package");
+        final Manifest leftManifest = JarTestUtil.bundleManifest("example.imports");
+        leftManifest.getMainAttributes().putValue("Import-Package", "org.example.a,org.example.b");
+        final Manifest rightManifest = JarTestUtil.bundleManifest("example.imports");
+        rightManifest.getMainAttributes().putValue("Import-Package", "org.example.b,org.example.a;resolution:=optional");
+        final Map<String, byte[]> entries = Map.of("content.txt", JarTestUtil.utf8("same"));
+        final Jars jars = Jars.from(
+                JarTestUtil.writeZip(tempDir.resolve("left.jar"), leftManifest, entries),
+                JarTestUtil.writeZip(tempDir.resolve("right.jar"), rightManifest, entries));
+
+        // Import-Package diffs are trivial, so the changed manifest entry must not halt before it is refined
+        final Delta completed = new Plan().execute(Context.builder().jars(jars)
+                .haltOn(diff -> !diff.getName().startsWithName(importPackage))
+                .build());
+        assertFalse(completed.isHalted());
+        assertFalse(completed.getResults().stream().anyMatch(diff -> diff.getName().equals(Manifests.NAME_MANIFEST)));
+        assertTrue(completed.getResults().stream()
+                .anyMatch(diff -> diff.getKind().isSubKindOf(HeaderRefinementStrategy.DIFF_KIND)
+                        && diff.getName().startsWithName(importPackage)));
+
+        final Delta halted = new Plan().execute(Context.builder().jars(jars)
+                .haltOn(diff -> diff.getName().startsWithName(importPackage))
+                .build());
+        assertTrue(halted.isHalted());
+        assertTrue(halted.getHaltedBy().getName().startsWithName(importPackage));
+        assertTrue(halted.getHaltedBy().getKind().isSubKindOf(HeaderRefinementStrategy.DIFF_KIND));
+    }
+
     URL getResourceAbsolute(@NotNull String name) {
         return getClass().getResource(name.replaceFirst("^(?!/)", "/"));
     }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.dist;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Emitter;
+import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.core.BatchPlan;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Settings;
+import net.adamcin.jardelta.testing.JarTestUtil;
+import net.adamcin.streamsupport.Result;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistributionPlanTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void execute() throws Exception {
+        final Path left = Files.createDirectories(tempDir.resolve("left"));
+        final Path right = Files.createDirectories(tempDir.resolve("right"));
+
+        writeJar(left.resolve("bundles/changed-1.0.jar"), "com.example.changed", null, "one");
+        writeJar(right.resolve("bundles/changed-1.1.jar"), "com.example.changed", null, "two");
+        writeJar(left.resolve("bundles/same.jar"), "com.example.same", null, "same");
+        Files.copy(left.resolve("bundles/same.jar"), Files.createDirectories(right.resolve("bundles")).resolve("same.jar"));
+        writeJar(left.resolve("lib/removed.jar"), "com.example.removed", null, "removed");
+        writeJar(right.resolve("lib/plain-2.0.jar"), null, "com.example:plain", "added");
+        writeJar(left.resolve("lib/dup-a.jar"), "com.example.dup", null, "a");
+        writeJar(left.resolve("lib/dup-b.jar"), "com.example.dup", null, "b");
+        Files.copy(left.resolve("lib/dup-a.jar"), right.resolve("lib/dup.jar"));
+
+        final DistributionDelta delta;
+        try (BatchPlan batchPlan = new BatchPlan(2)) {
+            delta = new DistributionPlan(batchPlan).execute(Distributions.from(left, right), Settings.DEFAULT_SETTINGS);
+        }
+
+        final Emitter emitter = Diff.emitterOf(DistributionPlan.DIFF_KIND).forName(DistributionPlan.NAME_PREFIX);
+        final Map<String, Verb> verbs = delta.getArtifacts().stream()
+                .collect(Collectors.toMap(diff -> diff.getName().getSegment(), Diff::getVerb));
+        assertEquals(Map.of(
+                "com.example:plain", Verb.ADDED,
+                "com.example.removed", Verb.REMOVED,
+                "com.example.dup", Verb.ERR_LEFT), verbs);
+        assertEquals(emitter.forChild("com.example:plain").added(), delta.getArtifacts().stream()
+                .filter(diff -> diff.getVerb() == Verb.ADDED).findFirst().orElseThrow());
+
+        assertEquals(Set.of("com.example.same", "com.example.dup"), delta.getUnchanged());
+        assertEquals(Set.of("com.example.changed"), delta.getDeltas().keySet());
+        final Result<Delta> changed = delta.getDeltas().get("com.example.changed");
+        assertTrue(changed.isSuccess());
+        assertTrue(changed.getOrThrow().getResults().stream()
+                .anyMatch(diff -> diff.getName().toString().equals("content.txt")));
+    }
+
+    @Test
+    void mavenKey() {
+        assertEquals("com.example:plain", ArtifactIndex.mavenKey(List.of(
+                Name.of("META-INF/maven/com.example/plain/pom.properties"),
+                Name.of("META-INF/maven/com.example/plain/pom.xml"))).orElseThrow());
+        assertTrue(ArtifactIndex.mavenKey(List.of(
+                Name.of("META-INF/maven/com.example/a/pom.properties"),
+                Name.of("META-INF/maven/com.example/b/pom.properties"))).isEmpty());
+    }
+
+    static void writeJar(@NotNull Path jarFile, String symbolicName, String mavenKey, @NotNull String content)
+            throws IOException {
+        final Map<String, byte[]> entries = new TreeMap<>();
+        if (mavenKey != null) {
+            final String[] coordinates = mavenKey.split(":");
+            entries.put("META-INF/maven/" + coordinates[0] + "/" + coordinates[1] + "/pom.properties",
+                    JarTestUtil.utf8("groupId=" + coordinates[0] + "\nartifactId=" + coordinates[1] + "\n"));
+        }
+        entries.put("content.txt", JarTestUtil.utf8(content));
+        JarTestUtil.writeZip(jarFile, symbolicName != null
+                ? JarTestUtil.bundleManifest(symbolicName)
+                : JarTestUtil.manifest(), entries);
+    }
+}
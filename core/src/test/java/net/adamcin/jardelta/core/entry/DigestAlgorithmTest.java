@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.entry;
+
+import net.adamcin.jardelta.api.jar.Digest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class DigestAlgorithmTest {
+
+    @Test
+    void xxHash64KnownValues() {
+        assertEquals(Digest.ofLong("xxhash64", 0xEF46DB3751D8E999L), DigestAlgorithm.XXHASH64.digest(new byte[0]));
+        assertEquals(Digest.ofLong("xxhash64", 0x44BC2CF5AD770999L),
+                DigestAlgorithm.XXHASH64.digest("abc".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(Digest.ofLong("xxhash64", 0xFBCEA83C8A378BF1L),
+                DigestAlgorithm.XXHASH64.digest("Nobody inspects the spammish repetition"
+                        .getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void crc32cKnownValue() {
+        assertEquals("e3069283", DigestAlgorithm.CRC32C.digest("123456789".getBytes(StandardCharsets.UTF_8)).toHex());
+    }
+
+    @Test
+    void sha256KnownValue() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                DigestAlgorithm.SHA256.digest("abc".getBytes(StandardCharsets.UTF_8)).toHex());
+    }
+
+    @Test
+    void streamingMatchesOneShot() throws Exception {
+        final byte[] content = new byte[100_003];
+        new Random(42L).nextBytes(content);
+        for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+            final Digest expected = algorithm.digest(content);
+            // a stream that returns short reads of varying length exercises the partial stripe handling
+            final Digest streamed = algorithm.digest(new ByteArrayInputStream(content) {
+                private int calls = 0;
+
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    return super.read(b, off, Math.min(len, 1 + (calls++ % 37)));
+                }
+            });
+            assertEquals(expected, streamed, algorithm.name());
+        }
+    }
+
+    @Test
+    void algorithmsAreDistinct() {
+        final byte[] content = "abc".getBytes(StandardCharsets.UTF_8);
+        assertNotEquals(DigestAlgorithm.CRC32C.digest(content), DigestAlgorithm.XXHASH64.digest(content));
+        assertEquals("sha256", DigestAlgorithm.SHA256.digest(content).getAlgorithm());
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.entry;
+
+import aQute.libg.cryptography.SHA256;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Element;
+import net.adamcin.jardelta.api.diff.Emitter;
+import net.adamcin.jardelta.api.jar.Digest;
+import net.adamcin.jardelta.api.jar.EntryMeta;
+import net.adamcin.jardelta.testing.JarTestUtil;
+import net.adamcin.streamsupport.Both;
+import net.adamcin.streamsupport.Result;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static net.adamcin.jardelta.testing.DiffTestUtil.assertAllDiffs;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipIndexTest {
+    static final byte[] CONTENT = "hello world, hello world, hello world".repeat(100).getBytes(StandardCharsets.UTF_8);
+    static final byte[] OTHER_CONTENT = "goodbye world, goodbye world".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void openStream() throws Exception {
+        final Path zip = writeZip(tempDir.resolve("one.zip"), 0L, CONTENT);
+        final ZipIndex index = ZipIndex.open(zip).orElseThrow();
+        assertEquals(2, index.size());
+        for (String name : new String[]{"stored.txt", "deflated.txt"}) {
+            final ZipIndex.Entry entry = index.getEntry(name).orElseThrow();
+            assertTrue(entry.isReadable());
+            try (InputStream inputStream = entry.openStream()) {
+                assertArrayEquals(CONTENT, inputStream.readAllBytes(), name);
+            }
+        }
+        assertEquals(ZipIndex.METHOD_STORED, index.getEntry("stored.txt").orElseThrow().getMethod());
+        assertEquals(ZipIndex.METHOD_DEFLATED, index.getEntry("deflated.txt").orElseThrow().getMethod());
+        assertTrue(index.getEntry("missing.txt").isEmpty());
+    }
+
+    @Test
+    void rawEquals() throws Exception {
+        final ZipIndex left = ZipIndex.open(writeZip(tempDir.resolve("left.zip"), 0L, CONTENT)).orElseThrow();
+        final ZipIndex same = ZipIndex.open(writeZip(tempDir.resolve("same.zip"), 86400000L, CONTENT)).orElseThrow();
+        final ZipIndex other = ZipIndex.open(writeZip(tempDir.resolve("other.zip"), 0L, OTHER_CONTENT)).orElseThrow();
+        for (String name : new String[]{"stored.txt", "deflated.txt"}) {
+            final ZipIndex.Entry leftEntry = left.getEntry(name).orElseThrow();
+            assertTrue(leftEntry.rawEquals(same.getEntry(name).orElseThrow()), name);
+            assertFalse(leftEntry.rawEquals(other.getEntry(name).orElseThrow()), name);
+        }
+    }
+
+    @Test
+    void lazyDigest() throws Exception {
+        final ZipIndex index = ZipIndex.open(writeZip(tempDir.resolve("lazy.zip"), 0L, CONTENT)).orElseThrow();
+        final EntryMetaImpl stored = new EntryMetaImpl(0L, CONTENT.length, null, DigestAlgorithm.SHA256,
+                index.getEntry("stored.txt").orElseThrow(), null);
+        final EntryMetaImpl deflated = new EntryMetaImpl(0L, CONTENT.length, null, DigestAlgorithm.SHA256,
+                index.getEntry("deflated.txt").orElseThrow(), null);
+        final String expected = SHA256.digest(CONTENT).asHex().toLowerCase(Locale.ROOT);
+        assertEquals(expected, stored.getDigest().toHex());
+        assertEquals(expected, deflated.getDigest().toHex());
+        assertFalse(stored.rawEquals(deflated));
+        assertFalse(stored.rawEquals(new EntryMetaImpl(0L, CONTENT.length, null,
+                DigestAlgorithm.SHA256.digest(CONTENT), null)));
+    }
+
+    @Test
+    void corruptDeflatedDigest() throws Exception {
+        final byte[] zip = Files.readAllBytes(writeZip(tempDir.resolve("corrupt.zip"), 0L, CONTENT));
+        final ByteBuffer rawData = ZipIndex.of(ByteBuffer.wrap(zip)).orElseThrow()
+                .getEntry("deflated.txt").orElseThrow().rawData();
+        final byte[] raw = new byte[rawData.remaining()];
+        rawData.get(raw);
+        // a final deflate block with the reserved block type
+        zip[indexOf(zip, raw)] = (byte) 0xFF;
+        final ZipIndex.Entry corruptEntry = ZipIndex.of(ByteBuffer.wrap(zip)).orElseThrow()
+                .getEntry("deflated.txt").orElseThrow();
+        assertTrue(corruptEntry.isReadable());
+
+        final EntryMetaImpl corrupt = new EntryMetaImpl(0L, CONTENT.length, null, DigestAlgorithm.SHA256,
+                corruptEntry, null);
+        final Result<Digest> failure = corrupt.getDigestResult();
+        assertTrue(failure.isFailure());
+        assertThrows(RuntimeException.class, corrupt::getDigest);
+        assertEquals("<unreadable>", corrupt.toString());
+        assertTrue(corrupt.detached().isEmpty());
+
+        final EntryMeta intact = new EntryMetaImpl(0L, CONTENT.length, null, DigestAlgorithm.SHA256.digest(CONTENT),
+                null);
+        final Emitter emitter = Diff.emitterOf(JarEntryDiffer.DIFF_KIND).forName(Name.of("deflated.txt"));
+        assertAllDiffs(JarEntryDiffer.diffContent(emitter, Element.of(emitter.getName(), Both.of(corrupt, intact))),
+                emitter.errLeft(failure));
+        assertAllDiffs(JarEntryDiffer.diffContent(emitter, Element.of(emitter.getName(), Both.of(intact, corrupt))),
+                emitter.errRight(failure));
+    }
+
+    @Test
+    void notAZip() throws Exception {
+        final Path text = Files.writeString(tempDir.resolve("text.txt"), "not a zip file at all, no sir");
+        assertTrue(ZipIndex.open(text).isEmpty());
+        assertTrue(ZipIndex.open(tempDir).isEmpty());
+    }
+
+    @Test
+    void truncated() throws Exception {
+        final byte[] zip = Files.readAllBytes(writeZip(tempDir.resolve("full.zip"), 0L, CONTENT));
+        for (int length : new int[]{0, 10, zip.length / 2, zip.length - ZipIndex.EOCD_LENGTH, zip.length - 1}) {
+            assertTrue(ZipIndex.of(ByteBuffer.wrap(Arrays.copyOf(zip, length))).isEmpty(), "length " + length);
+        }
+    }
+
+    @Test
+    void corruptCentralDirectory() throws Exception {
+        final byte[] zip = Files.readAllBytes(writeZip(tempDir.resolve("full.zip"), 0L, CONTENT));
+        final int eocd = ZipIndex.findEndOfCentralDirectory(littleEndian(zip));
+        final int cenOffset = littleEndian(zip).getInt(eocd + 16);
+
+        // central directory offset beyond the end of the buffer
+        assertTrue(ZipIndex.of(littleEndian(zip.clone()).putInt(eocd + 16, zip.length + 100)).isEmpty());
+        // zip64 entry count marker
+        assertTrue(ZipIndex.of(littleEndian(zip.clone()).putShort(eocd + 10, (short) 0xFFFF)).isEmpty());
+        // file name length running past the central directory
+        assertTrue(ZipIndex.of(littleEndian(zip.clone()).putShort(cenOffset + 28, (short) 0x7FFF)).isEmpty());
+        // local header offset beyond the start of the central directory, and beyond the buffer as a signed int
+        assertTrue(ZipIndex.of(littleEndian(zip.clone()).putInt(cenOffset + 42, cenOffset)).isEmpty());
+        assertTrue(ZipIndex.of(littleEndian(zip.clone()).putInt(cenOffset + 42, 0x80000000)).isEmpty());
+    }
+
+    @Test
+    void corruptLocalHeader() throws Exception {
+        final byte[] zip = Files.readAllBytes(writeZip(tempDir.resolve("full.zip"), 0L, CONTENT));
+        // the first local header is at offset 0
+        final ZipIndex index = ZipIndex.of(littleEndian(zip.clone()).putInt(0, 0)).orElseThrow();
+        final List<ZipIndex.Entry> entries = List.of(index.getEntry("deflated.txt").orElseThrow(),
+                index.getEntry("stored.txt").orElseThrow());
+        assertEquals(1L, entries.stream().filter(ZipIndex.Entry::isReadable).count());
+        for (ZipIndex.Entry entry : entries) {
+            if (!entry.isReadable()) {
+                assertThrows(IOException.class, entry::rawData);
+            }
+        }
+    }
+
+    static int indexOf(byte[] bytes, byte[] sequence) {
+        for (int i = 0; i <= bytes.length - sequence.length; i++) {
+            if (Arrays.equals(bytes, i, i + sequence.length, sequence, 0, sequence.length)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("sequence not found");
+    }
+
+    static ByteBuffer littleEndian(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static Path writeZip(@NotNull Path path, long time, byte[] content) throws IOException {
+        return JarTestUtil.writeZip(path, null, Map.of("stored.txt", content, "deflated.txt", content), time,
+                "stored.txt"::equals);
+    }
+}
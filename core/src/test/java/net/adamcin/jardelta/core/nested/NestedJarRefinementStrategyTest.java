@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.nested;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.core.Context;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Jars;
+import net.adamcin.jardelta.core.Plan;
+import net.adamcin.jardelta.core.Settings;
+import net.adamcin.jardelta.core.entry.JarEntryDiffer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static net.adamcin.jardelta.testing.JarTestUtil.utf8;
+import static net.adamcin.jardelta.testing.JarTestUtil.writeZip;
+import static net.adamcin.jardelta.testing.JarTestUtil.zipBytes;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NestedJarRefinementStrategyTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void nestedName() {
+        assertEquals(Name.of("{jar:lib/foo.jar}"), NestedJarRefinementStrategy.nestedName(Name.of("lib/foo.jar")));
+        assertEquals(0, NestedJarRefinementStrategy.depthOf(Name.ROOT));
+        assertEquals(2, NestedJarRefinementStrategy.depthOf(Name.of("{jar:lib/foo.jar}/{jar:bar.jar}")));
+    }
+
+    @Test
+    void refineNestedJars() throws Exception {
+        final Jars jars = writeOuterJars("one", "two");
+        final Name outerName = Name.of("{jar:lib/outer.jar}");
+        final Name innerName = outerName.append(Name.of("{jar:inner.jar}"));
+
+        final Diffs oneLevel = new Plan().execute(Context.builder().jars(jars)
+                .settings(Settings.builder().nestedJarDepth(1).build()).build()).getResults();
+        assertEquals(Diffs.of(Diff.emitterOf(JarEntryDiffer.DIFF_KIND)
+                .forName(outerName.append(Name.of("inner.jar"))).changed()), oneLevel);
+
+        final Diffs twoLevels = new Plan().execute(Context.builder().jars(jars)
+                .settings(Settings.DEFAULT_SETTINGS).build()).getResults();
+        assertEquals(Diffs.of(Diff.emitterOf(JarEntryDiffer.DIFF_KIND)
+                .forName(innerName.append(Name.of("content.txt"))).changed()), twoLevels);
+    }
+
+    @Test
+    void haltOnNestedDiff() throws Exception {
+        final Jars jars = writeOuterJars("one", "two");
+        final Name contentName = Name.of("{jar:lib/outer.jar}/{jar:inner.jar}/content.txt");
+
+        final Delta halted = new Plan().execute(Context.builder().jars(jars)
+                .haltOn(diff -> diff.getName().equals(contentName)).build());
+        assertTrue(halted.isHalted());
+        assertEquals(contentName, halted.getHaltedBy().getName());
+
+        final Delta completed = new Plan().execute(Context.builder().jars(jars)
+                .haltOn(diff -> diff.getName().equals(Name.of("content.txt"))).build());
+        assertFalse(completed.isHalted());
+        assertEquals(halted.getResults(), completed.getResults());
+    }
+
+    @Test
+    void refineDisabled() throws Exception {
+        final Jars jars = writeOuterJars("one", "two");
+        final Diffs results = new Plan().execute(Context.builder().jars(jars)
+                .settings(Settings.builder().nestedJarDepth(0).build()).build()).getResults();
+        assertEquals(Diffs.of(Diff.emitterOf(JarEntryDiffer.DIFF_KIND)
+                .forName(Name.of("lib/outer.jar")).changed()), results);
+    }
+
+    @NotNull
+    Jars writeOuterJars(@NotNull String leftContent, @NotNull String rightContent) throws IOException {
+        final Path left = tempDir.resolve("left.jar");
+        final Path right = tempDir.resolve("right.jar");
+        writeZip(left, Map.of("lib/outer.jar", zipBytes(Map.of("inner.jar",
+                zipBytes(Map.of("content.txt", utf8(leftContent)))))));
+        writeZip(right, Map.of("lib/outer.jar", zipBytes(Map.of("inner.jar",
+                zipBytes(Map.of("content.txt", utf8(rightContent)))))));
+        return Jars.from(left, right);
+    }
+}
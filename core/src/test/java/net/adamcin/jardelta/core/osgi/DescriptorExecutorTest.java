@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.osgi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DescriptorExecutorTest {
+
+    @Test
+    void submit_sequential() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Supplier<String> result = DescriptorExecutor.submit(false, () -> {
+            calls.incrementAndGet();
+            return Thread.currentThread().getName();
+        });
+        assertEquals(1, calls.get());
+        assertEquals(Thread.currentThread().getName(), result.get());
+        assertEquals(Thread.currentThread().getName(), result.get());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void submit_parallel() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Supplier<String> result = DescriptorExecutor.submit(true, () -> {
+            try {
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return Thread.currentThread().getName();
+        });
+        latch.countDown();
+        assertNotEquals(Thread.currentThread().getName(), result.get());
+        assertTrue(result.get().startsWith("jardelta-parse-"));
+    }
+
+    @Test
+    void submit_preservesOrder() {
+        final List<Supplier<Integer>> pending = IntStream.range(0, 64)
+                .mapToObj(index -> DescriptorExecutor.submit(true, () -> index))
+                .collect(Collectors.toList());
+        assertEquals(IntStream.range(0, 64).boxed().collect(Collectors.toList()),
+                pending.stream().map(Supplier::get).collect(Collectors.toList()));
+    }
+
+    @Test
+    void submit_rethrowsRuntimeException() {
+        final Supplier<Object> result = DescriptorExecutor.submit(true, () -> {
+            throw new IllegalArgumentException("expected");
+        });
+        assertThrows(IllegalArgumentException.class, result::get);
+    }
+}
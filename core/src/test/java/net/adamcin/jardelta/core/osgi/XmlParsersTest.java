@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.osgi;
+
+import org.apache.felix.metatype.MetaData;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParser;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class XmlParsersTest {
+    static final String SCR_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<scr:component xmlns:scr=\"http://www.osgi.org/xmlns/scr/v1.3.0\" name=\"com.example.Component\">\n"
+            + "  <implementation class=\"com.example.Component\"/>\n"
+            + "  <property name=\"service.ranking\" type=\"Integer\" value=\"100\"/>\n"
+            + "  <service><provide interface=\"java.lang.Runnable\"/></service>\n"
+            + "</scr:component>\n";
+
+    static final String METATYPE_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<metatype:MetaData xmlns:metatype=\"http://www.osgi.org/xmlns/metatype/v1.2.0\">\n"
+            + "  <OCD id=\"com.example.Config\" name=\"Example\">\n"
+            + "    <AD id=\"name\" type=\"String\" default=\"x\"/>\n"
+            + "  </OCD>\n"
+            + "  <Designate pid=\"com.example.Config\"><Object ocdref=\"com.example.Config\"/></Designate>\n"
+            + "</metatype:MetaData>\n";
+
+    @Test
+    void withSaxParser_reusesAndResets() throws Exception {
+        final SAXParser first = XmlParsers.withSaxParser(parser -> {
+            assertEquals(5, countScrElements(parser));
+            // reentrant use on the same thread receives a different parser
+            XmlParsers.withSaxParser(nested -> {
+                assertNotSame(parser, nested);
+                return nested;
+            });
+            return parser;
+        });
+        final SAXParser second = XmlParsers.withSaxParser(parser -> {
+            assertEquals(5, countScrElements(parser));
+            return parser;
+        });
+        assertSame(first, second);
+    }
+
+    @Test
+    void parallelUse() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> {
+                    int total = 0;
+                    for (int j = 0; j < 20; j++) {
+                        total += XmlParsers.withSaxParser(XmlParsersTest::countScrElements);
+                        final MetaData metaData = XmlParsers.withMetaDataReader(reader ->
+                                reader.parse(stream(METATYPE_XML)));
+                        total += metaData.getDesignates().size() + metaData.getObjectClassDefinitions().size();
+                    }
+                    return total;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(20 * 7, future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static int countScrElements(@NotNull SAXParser parser) throws Exception {
+        final int[] count = new int[1];
+        parser.parse(stream(SCR_XML), new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    static InputStream stream(@NotNull String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
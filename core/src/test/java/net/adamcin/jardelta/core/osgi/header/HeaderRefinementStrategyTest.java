@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.osgi.header;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.api.jar.ManifestHeaders;
+import net.adamcin.jardelta.core.entry.JarEntryDiffer;
+import net.adamcin.streamsupport.Both;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeaderRefinementStrategyTest {
+    static final Attributes.Name BUNDLE_NAME = new Attributes.Name("Bundle-Name");
+    static final Attributes.Name BUNDLE_VENDOR = new Attributes.Name("Bundle-Vendor");
+
+    @Test
+    void getLocalizedNames() {
+        final Both<ManifestHeaders> bothHeaders = Both.of(
+                headers(Map.of("Bundle-Name", "%bundle.name", "Bundle-Vendor", "%bundle.vendor",
+                        "Bundle-Version", "1.0.0")),
+                headers(Map.of("Bundle-Name", "%bundle.title", "Bundle-Vendor", "%bundle.vendor",
+                        "Bundle-Version", "2.0.0")));
+
+        // only the header with a changed localization key can differ when localization resources are unchanged
+        assertEquals(Set.of(BUNDLE_NAME), HeaderRefinementStrategy.getLocalizedNames(Diffs.of(), bothHeaders));
+
+        final Diffs l10nDiffs = Diffs.of(Diff.emitterOf(JarEntryDiffer.DIFF_KIND)
+                .forName(Name.of("OSGI-INF/l10n/bundle_de.properties")).changed());
+        assertEquals(Set.of(BUNDLE_NAME, BUNDLE_VENDOR),
+                HeaderRefinementStrategy.getLocalizedNames(l10nDiffs, bothHeaders));
+
+        final Diffs otherDiffs = Diffs.of(Diff.emitterOf(JarEntryDiffer.DIFF_KIND)
+                .forName(Name.of("OSGI-INF/other.properties")).changed());
+        assertEquals(Set.of(BUNDLE_NAME), HeaderRefinementStrategy.getLocalizedNames(otherDiffs, bothHeaders));
+
+        assertEquals(Set.of(), HeaderRefinementStrategy.getLocalizedNames(l10nDiffs,
+                Both.of(headers(Map.of("Bundle-Name", "One")), headers(Map.of("Bundle-Name", "Two")))));
+    }
+
+    static ManifestHeaders headers(@NotNull Map<String, String> mainAttributes) {
+        final Manifest manifest = new Manifest();
+        mainAttributes.forEach(manifest.getMainAttributes()::putValue);
+        return ManifestHeaders.of(manifest);
+    }
+}
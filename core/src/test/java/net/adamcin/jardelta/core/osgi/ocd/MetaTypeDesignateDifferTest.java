@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.osgi.ocd;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Element;
+import net.adamcin.streamsupport.Both;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.osgi.service.metatype.AttributeDefinition;
+import org.osgi.service.metatype.ObjectClassDefinition;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetaTypeDesignateDifferTest {
+
+    @Test
+    void diff_skipsLocalizedDefinitionsWhenUnlocalizedAreEqual() {
+        final AtomicInteger materialized = new AtomicInteger();
+        final Element<List<MetaTypeDesignate>> element = element(
+                designate("%name", "Name", "%name", materialized, "Name (de)"),
+                designate("%name", "Name", "%name", materialized, "Anderer Name (de)"));
+
+        assertTrue(diff(new MetaTypeDesignateDiffer(false), element).isEmpty());
+        assertEquals(0, materialized.get());
+
+        final List<Diff> diffs = diff(new MetaTypeDesignateDiffer(true), element);
+        assertEquals(2, materialized.get());
+        assertEquals(1, diffs.size());
+        assertTrue(diffs.get(0).getName().toString().contains(MetaTypeDesignateDiffer.localeName("de")));
+    }
+
+    @Test
+    void diff_comparesLocalizedDefinitionsWhenDefaultsDiffer() {
+        final AtomicInteger materialized = new AtomicInteger();
+        final Element<List<MetaTypeDesignate>> element = element(
+                designate("Name", "Name", "%name", materialized, "Name (de)"),
+                designate("Other", "Other", "%name", materialized, "Anderer Name (de)"));
+
+        final List<Diff> diffs = diff(new MetaTypeDesignateDiffer(false), element);
+        assertEquals(2, materialized.get());
+        assertEquals(2, diffs.size());
+    }
+
+    @Test
+    void diff_comparesLocalizedDefinitionsWhenKeysChangeButDefaultsAreEqual() {
+        final AtomicInteger materialized = new AtomicInteger();
+        // %name and %title both resolve to "Name" by default, but differ in the de locale
+        final Element<List<MetaTypeDesignate>> element = element(
+                designate("%name", "Name", "%name", materialized, "Name (de)"),
+                designate("%title", "Name", "%name", materialized, "Titel (de)"));
+
+        final List<Diff> diffs = diff(new MetaTypeDesignateDiffer(false), element);
+        assertEquals(2, materialized.get());
+        assertEquals(1, diffs.size());
+        assertTrue(diffs.get(0).getName().toString().contains(MetaTypeDesignateDiffer.localeName("de")));
+    }
+
+    @Test
+    void diff_comparesLocalizedDefinitionsWhenUnlocalizedAreUnknown() {
+        final AtomicInteger materialized = new AtomicInteger();
+        final Element<List<MetaTypeDesignate>> element = element(
+                designate(null, "Name", "%name", materialized, "Name (de)"),
+                designate(null, "Name", "%name", materialized, "Anderer Name (de)"));
+
+        assertEquals(1, diff(new MetaTypeDesignateDiffer(false), element).size());
+        assertEquals(2, materialized.get());
+    }
+
+    @Test
+    void localizedDefinitionsAreMaterializedOnce() {
+        final AtomicInteger materialized = new AtomicInteger();
+        final MetaTypeDesignate designate = designate("%name", "Name", "%name", materialized, "Name (de)");
+        designate.getObjectClassDefinition("de");
+        designate.getObjectClassDefinitions();
+        assertEquals(1, materialized.get());
+    }
+
+    static List<Diff> diff(@NotNull MetaTypeDesignateDiffer differ, @NotNull Element<List<MetaTypeDesignate>> element) {
+        return differ.diff(Diff.emitterOf(MetaTypeRefinementStrategy.KIND), element).collect(Collectors.toList());
+    }
+
+    static Element<List<MetaTypeDesignate>> element(@NotNull MetaTypeDesignate left, @NotNull MetaTypeDesignate right) {
+        return Element.of(Name.of("test.pid"), Both.of(List.of(left), List.of(right)));
+    }
+
+    static MetaTypeDesignate designate(@Nullable String unlocalized,
+                                       @NotNull String defaultName,
+                                       @NotNull String description,
+                                       @NotNull AtomicInteger materialized,
+                                       @NotNull String localizedName) {
+        final ObjectClassDefinition defaultOcd = new SimpleOCD(defaultName, description);
+        final Supplier<ObjectClassDefinition> localized = () -> {
+            materialized.incrementAndGet();
+            return new SimpleOCD(localizedName, description);
+        };
+        return MetaTypeDesignate.ofSuppliers("test.pid", false, unlocalized,
+                Map.of(JarMetaTypeProvider.DEFAULT_LOCALE, () -> defaultOcd, "de", localized));
+    }
+
+    static final class SimpleOCD implements ObjectClassDefinition {
+        private final String name;
+        private final String description;
+
+        SimpleOCD(@NotNull String name, @NotNull String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getID() {
+            return "test.pid";
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public AttributeDefinition[] getAttributeDefinitions(int filter) {
+            return new AttributeDefinition[0];
+        }
+
+        @Override
+        public InputStream getIcon(int size) {
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.osgi.ocd;
+
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.core.Context;
+import net.adamcin.jardelta.core.Jars;
+import net.adamcin.jardelta.core.Plan;
+import net.adamcin.jardelta.testing.JarTestUtil;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetaTypeRefinementStrategyTest {
+    static final String BROKEN_XML = "OSGI-INF/metatype/broken.xml";
+    static final String CHANGED_XML = "OSGI-INF/metatype/changed.xml";
+    static final String LOCALIZED_XML = "OSGI-INF/metatype/localized.xml";
+    static final String SHARED_XML = "OSGI-INF/metatype/shared.xml";
+    static final String ADDED_XML = "OSGI-INF/metatype/added.xml";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void refine_skipsUnchangedDocuments() throws Exception {
+        final Map<String, String> left = Map.of(
+                BROKEN_XML, "<not-metatype",
+                CHANGED_XML, metaTypeXml("changed", "Before", null));
+        final Map<String, String> right = Map.of(
+                BROKEN_XML, "<not-metatype",
+                CHANGED_XML, metaTypeXml("changed", "After", null));
+
+        final List<Diff> diffs = ocdDiffs(left, right);
+        assertTrue(diffs.stream().map(Diff::getVerb).noneMatch(verb -> verb == Verb.ERR_LEFT || verb == Verb.ERR_RIGHT),
+                () -> "unchanged documents should not be parsed " + diffs);
+        assertEquals(List.of("{osgi.ocd}/changed/{locale:}/@name"), names(diffs));
+    }
+
+    @Test
+    void refine_includesUnchangedDocumentsForChangedLocalization() throws Exception {
+        final Map<String, String> left = Map.of(
+                LOCALIZED_XML, metaTypeXml("localized", "%name", "OSGI-INF/l10n/localized"),
+                "OSGI-INF/l10n/localized.properties", "name=Name",
+                "OSGI-INF/l10n/localized_de.properties", "name=Name");
+        final Map<String, String> right = Map.of(
+                LOCALIZED_XML, metaTypeXml("localized", "%name", "OSGI-INF/l10n/localized"),
+                "OSGI-INF/l10n/localized.properties", "name=Name",
+                "OSGI-INF/l10n/localized_de.properties", "name=Der Name");
+
+        assertEquals(List.of("{osgi.ocd}/localized/{locale:de}/@name"), names(ocdDiffs(left, right)));
+    }
+
+    @Test
+    void refine_includesUnchangedDocumentsSharingPids() throws Exception {
+        final Map<String, String> left = Map.of(
+                BROKEN_XML, "<not-metatype",
+                SHARED_XML, metaTypeXml("shared", "Shared", null));
+        final Map<String, String> right = Map.of(
+                BROKEN_XML, "<not-metatype",
+                SHARED_XML, metaTypeXml("shared", "Shared", null),
+                ADDED_XML, metaTypeXml("shared", "Added", null));
+
+        // the pid is designated once on the left and twice on the right, rather than only on the right
+        final List<Diff> diffs = ocdDiffs(left, right);
+        assertEquals(List.of("{osgi.ocd}/shared"), names(diffs));
+        assertEquals(List.of(Verb.ERR_RIGHT), diffs.stream().map(Diff::getVerb).collect(Collectors.toList()));
+    }
+
+    List<Diff> ocdDiffs(@NotNull Map<String, String> left, @NotNull Map<String, String> right) throws Exception {
+        final Path leftJar = tempDir.resolve("left.jar");
+        final Path rightJar = tempDir.resolve("right.jar");
+        Files.write(leftJar, bundleBytes(left));
+        Files.write(rightJar, bundleBytes(right));
+        return new Plan().execute(Context.builder()
+                        .jars(Jars.from(leftJar, rightJar))
+                        .build())
+                .getResults().stream()
+                .filter(diff -> MetaTypeRefinementStrategy.KIND.equals(diff.getKind()))
+                .collect(Collectors.toList());
+    }
+
+    static List<String> names(@NotNull List<Diff> diffs) {
+        return diffs.stream().map(diff -> diff.getName().toString()).collect(Collectors.toList());
+    }
+
+    static String metaTypeXml(@NotNull String pid, @NotNull String name, String localization) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<metatype:MetaData xmlns:metatype=\"http://www.osgi.org/xmlns/metatype/v1.2.0\""
+                + (localization != null ? " localization=\"" + localization + "\"" : "") + ">"
+                + "<OCD id=\"" + pid + "\" name=\"" + name + "\">"
+                + "<AD id=\"value\" type=\"String\"/>"
+                + "</OCD>"
+                + "<Designate pid=\"" + pid + "\"><Object ocdref=\"" + pid + "\"/></Designate>"
+                + "</metatype:MetaData>";
+    }
+
+    static byte[] bundleBytes(@NotNull Map<String, String> entries) throws IOException {
+        return JarTestUtil.zipBytes(JarTestUtil.bundleManifest("example.metatype"), JarTestUtil.utf8(entries));
+    }
+}
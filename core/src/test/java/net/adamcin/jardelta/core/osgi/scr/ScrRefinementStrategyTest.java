@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.core.osgi.scr;
+
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.core.Context;
+import net.adamcin.jardelta.core.Jars;
+import net.adamcin.jardelta.core.OpenJarImpl;
+import net.adamcin.jardelta.core.Plan;
+import net.adamcin.jardelta.core.Settings;
+import net.adamcin.jardelta.core.entry.JarEntryDiffer;
+import net.adamcin.jardelta.testing.JarTestUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.osgi.framework.Bundle;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScrRefinementStrategyTest {
+    static final String DESCRIPTOR = "OSGI-INF/example.xml";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void duplicateDescriptorLocations() throws Exception {
+        final String header = DESCRIPTOR + ",OSGI-INF/*.xml";
+        final Path jar = writeBundle("dup.jar", header, componentXml("one"));
+        try (OpenJarImpl openJar = OpenJarImpl.fromFile(null, jar, new TreeMap<>())) {
+            final Bundle bundle = openJar.getBundle();
+            final Map<Name, List<URL>> descriptorUrls = ScrRefinementStrategy.getScrDescriptorUrls(bundle);
+            assertEquals(List.of(Name.of(DESCRIPTOR)), List.copyOf(descriptorUrls.keySet()));
+            assertEquals(2, descriptorUrls.get(Name.of(DESCRIPTOR)).size());
+
+            // the first read that parses successfully wins, regardless of order
+            final URL valid = descriptorUrls.get(Name.of(DESCRIPTOR)).get(0);
+            final URL missing = bundle.getResource("OSGI-INF/missing.xml");
+            assertTrue(ScrRefinementStrategy.loadDescriptor(bundle, List.of(missing, valid)).isSuccess());
+            assertTrue(ScrRefinementStrategy.loadDescriptor(bundle, List.of(valid, missing)).isSuccess());
+            assertTrue(ScrRefinementStrategy.loadDescriptor(bundle, List.of(missing)).isFailure());
+        }
+
+        final List<Diff> diffs = scrDiffs(header, componentXml("one"), componentXml("two"));
+        assertFalse(diffs.isEmpty());
+        assertTrue(diffs.stream().allMatch(diff -> diff.getVerb() == Verb.CHANGED), diffs::toString);
+        assertTrue(diffs.stream().allMatch(diff -> diff.getName().startsWithName(
+                ScrRefinementStrategy.NAME_PREFIX.appendSegment("example.component"))), diffs::toString);
+        assertEquals(diffs, scrDiffs(header, componentXml("one"), componentXml("two"),
+                Settings.builder().parallelDescriptorParsing(false).build()));
+    }
+
+    @Test
+    void failedDescriptor() throws Exception {
+        final List<Diff> diffs = scrDiffs(DESCRIPTOR, componentXml("one"), "<scr:component");
+        assertEquals(1, diffs.size(), diffs::toString);
+        assertEquals(Name.of(DESCRIPTOR), diffs.get(0).getName());
+        assertEquals(Verb.ERR_RIGHT, diffs.get(0).getVerb());
+    }
+
+    @Test
+    void noServiceComponentHeader() throws Exception {
+        final Path left = writeBundle("left.jar", null, componentXml("one"));
+        final Path right = writeBundle("right.jar", null, componentXml("two"));
+        try (OpenJarImpl openJar = OpenJarImpl.fromFile(null, left, new TreeMap<>())) {
+            assertTrue(ScrRefinementStrategy.getScrDescriptorUrls(openJar.getBundle()).isEmpty());
+        }
+        assertEquals(Diffs.of(Diff.emitterOf(JarEntryDiffer.DIFF_KIND).forName(Name.of(DESCRIPTOR)).changed()),
+                new Plan().execute(Context.builder().jars(Jars.from(left, right)).build()).getResults());
+    }
+
+    List<Diff> scrDiffs(@NotNull String header, @NotNull String leftXml, @NotNull String rightXml) throws Exception {
+        return scrDiffs(header, leftXml, rightXml, Settings.DEFAULT_SETTINGS);
+    }
+
+    List<Diff> scrDiffs(@NotNull String header, @NotNull String leftXml, @NotNull String rightXml,
+                        @NotNull Settings settings) throws Exception {
+        final List<Diff> results = List.copyOf(new Plan().execute(Context.builder()
+                        .jars(Jars.from(writeBundle("left.jar", header, leftXml),
+                                writeBundle("right.jar", header, rightXml)))
+                        .settings(settings)
+                        .build())
+                .getResults().asSortedSet());
+        assertTrue(results.stream().noneMatch(diff -> diff.getKind().isSubKindOf(JarEntryDiffer.DIFF_KIND)),
+                () -> "changed descriptors should be superseded " + results);
+        return results.stream()
+                .filter(diff -> diff.getKind().isSubKindOf(ScrRefinementStrategy.KIND))
+                .collect(Collectors.toList());
+    }
+
+    Path writeBundle(@NotNull String fileName, @Nullable String header, @NotNull String xml) throws Exception {
+        final Manifest manifest = JarTestUtil.bundleManifest("example.scr");
+        if (header != null) {
+            manifest.getMainAttributes().putValue("Service-Component", header);
+        }
+        return JarTestUtil.writeZip(tempDir.resolve(fileName), manifest, Map.of(DESCRIPTOR, JarTestUtil.utf8(xml)));
+    }
+
+    static String componentXml(@NotNull String value) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<scr:component xmlns:scr=\"http://www.osgi.org/xmlns/scr/v1.1.0\" name=\"example.component\">"
+                + "<implementation class=\"example.Component\"/>"
+                + "<property name=\"value\" value=\"" + value + "\"/>"
+                + "</scr:component>";
+    }
+}
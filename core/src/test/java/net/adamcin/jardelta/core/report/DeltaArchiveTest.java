@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.core.report;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Refinement;
+import net.adamcin.streamsupport.Both;
+import net.adamcin.streamsupport.Result;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaArchiveTest {
+    static final Kind ENTRY = Kind.of("entry");
+    static final Kind MANIFEST = Kind.of("manifest");
+
+    @TempDir
+    Path tempDir;
+
+    static Delta delta() {
+        final Diff superseded = Diff.emitterOf(ENTRY).forName(Name.of("META-INF/MANIFEST.MF")).changed();
+        final Diff refined = Diff.emitterOf(MANIFEST).forName(Name.of("META-INF/MANIFEST.MF/Bundle-Name"))
+                .changed(Both.of("left", "right"));
+        final List<Diff> results = new ArrayList<>(List.of(refined,
+                Diff.emitterOf(ENTRY).forName(Name.ROOT).changed(),
+                Diff.emitterOf(Kind.of("osgi.ocd")).forName(Name.of("{osgi.ocd}/pid/{locale:}/@name")).removed("old"),
+                Diff.emitterOf(Kind.of("jar")).forName(Name.of("lib/c.jar")).errRight(Result.failure("bad zip")),
+                Diff.emitterOf(ENTRY).forName(Name.of("{jar:lib/d.jar}/a.txt")).added("é")));
+        return Delta.builder()
+                .initial(Diffs.of(superseded))
+                .refinements(List.of(new Refinement(List.of(superseded), Diffs.of(refined))))
+                .results(results.stream().collect(Diffs.collector()))
+                .haltedBy(refined)
+                .build();
+    }
+
+    static List<Both<Optional<String>>> hints(Diffs diffs) {
+        return diffs.stream().map(Diff::getHints).collect(Collectors.toList());
+    }
+
+    static List<List<Optional<String>>> hintLists(Diffs diffs) {
+        return hints(diffs).stream()
+                .map(both -> List.of(both.left(), both.right()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void writeAndRead() throws Exception {
+        final Delta expected = delta();
+        final Path file = tempDir.resolve("archive/delta.bin");
+        DeltaArchiveWriter.write(expected, file);
+
+        final DeltaArchive archive = DeltaArchive.open(file);
+        assertEquals(5L, archive.getResultCount());
+        assertEquals(expected.getResults(), archive.getResults());
+        assertEquals(hintLists(expected.getResults()), hintLists(archive.getResults()));
+
+        final Delta actual = archive.toDelta();
+        assertEquals(expected.getResults(), actual.getResults());
+        assertEquals(expected.getInitial(), actual.getInitial());
+        assertEquals(1, actual.getRefinements().size());
+        assertEquals(List.copyOf(expected.getRefinements().get(0).getSuperseded()),
+                List.copyOf(actual.getRefinements().get(0).getSuperseded()));
+        assertEquals(expected.getRefinements().get(0).getDiffs(), actual.getRefinements().get(0).getDiffs());
+        assertEquals(expected.getHaltedBy(), actual.getHaltedBy());
+        assertEquals(hints(Diffs.of(expected.getHaltedBy())), hints(Diffs.of(actual.getHaltedBy())));
+    }
+
+    @Test
+    void writeAndReadNotHalted() throws Exception {
+        final Delta expected = Delta.builder().results(delta().getResults()).build();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DeltaArchiveWriter.write(expected, out);
+        final Delta actual = DeltaArchive.of(ByteBuffer.wrap(out.toByteArray())).toDelta();
+        assertFalse(actual.isHalted());
+        assertEquals(expected.getResults(), actual.getResults());
+    }
+
+    @Test
+    void getResultsByPrefix() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DeltaArchiveWriter.write(delta(), out);
+        final DeltaArchive archive = DeltaArchive.of(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals(List.of(Name.ROOT, Name.of("META-INF"), Name.of("lib"), Name.of("{jar:lib/d.jar}"),
+                Name.of("{osgi.ocd}")), archive.getPrefixes());
+        assertEquals(List.of(Name.of("META-INF/MANIFEST.MF/Bundle-Name")),
+                archive.getResults(Name.of("META-INF/MANIFEST.MF")).stream()
+                        .map(Diff::getName).collect(Collectors.toList()));
+        assertEquals(List.of(Name.of("{jar:lib/d.jar}/a.txt")),
+                archive.getResults(Name.ofSegment("jar:lib/d.jar")).stream()
+                        .map(Diff::getName).collect(Collectors.toList()));
+        assertTrue(archive.getResults(Name.of("META-INF/other")).isEmpty());
+        assertEquals(archive.getResults(), archive.getResults(Name.ROOT));
+        assertEquals(5, archive.getResults(Name.ROOT).stream().count());
+    }
+
+    @Test
+    void smallerThanJavaSerialization() throws Exception {
+        final List<Diff> diffs = IntStream.range(0, 500)
+                .mapToObj(index -> Diff.emitterOf(ENTRY)
+                        .forName(Name.of("net/adamcin/example/package" + index % 10 + "/Class" + index + ".class"))
+                        .changed())
+                .collect(Collectors.toList());
+        final Delta delta = Delta.builder().results(diffs.stream().collect(Diffs.collector())).build();
+        final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        DeltaArchiveWriter.write(delta, binary);
+        final ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(serialized)) {
+            objects.writeObject(diffs.stream().map(Diff::getName).collect(Collectors.toCollection(ArrayList::new)));
+        }
+        assertTrue(binary.size() * 3 < serialized.size(),
+                () -> binary.size() + " bytes is not much smaller than " + serialized.size());
+        assertEquals(delta.getResults(), DeltaArchive.of(ByteBuffer.wrap(binary.toByteArray())).getResults());
+    }
+
+    @Test
+    void readUnsupported() throws Exception {
+        final Path notArchive = tempDir.resolve("not-archive.bin");
+        Files.writeString(notArchive, "{\"formatVersion\":1}", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> DeltaArchive.open(notArchive));
+        final ByteBuffer future = ByteBuffer.wrap(new byte[]{'J', 'D', 'L', 'T', 99});
+        assertThrows(IOException.class, () -> DeltaArchive.of(future));
+        final ByteBuffer previous = ByteBuffer.wrap(new byte[]{'J', 'D', 'L', 'T', 1, 0, 0, 0, 0});
+        assertThrows(IOException.class, () -> DeltaArchive.of(previous));
+        final ByteBuffer truncated = ByteBuffer.wrap(new byte[]{'J', 'D', 'L', 'T', 2, 5});
+        assertThrows(IOException.class, () -> DeltaArchive.of(truncated));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.core.report;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.streamsupport.Both;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaDifferTest {
+    static final Kind ENTRY = Kind.of("entry");
+
+    @TempDir
+    Path tempDir;
+
+    static Delta delta(Diff... diffs) {
+        return Delta.builder().results(Diffs.of(diffs)).build();
+    }
+
+    static Diff changed(String name, String left, String right) {
+        return Diff.emitterOf(ENTRY).forName(Name.of(name)).changed(Both.of(left, right));
+    }
+
+    @Test
+    void diffDeltas() {
+        final Delta first = delta(changed("a.txt", "1", "2"),
+                Diff.emitterOf(ENTRY).forName(Name.of("b.txt")).added(),
+                changed("c.txt", "1", "2"));
+        final Delta second = delta(changed("a.txt", "2", "3"),
+                Diff.emitterOf(ENTRY).forName(Name.of("b.txt")).changed(),
+                changed("c.txt", "1", "2"),
+                Diff.emitterOf(ENTRY).forName(Name.of("d.txt")).removed("old"));
+
+        final List<Diff> ignoringHints = new DeltaDiffer(false).diffDeltas(Both.of(first, second))
+                .stream().collect(Collectors.toList());
+        assertEquals(List.of(
+                        Diff.emitterOf(Kind.of("delta.added.entry")).forName(Name.of("b.txt")).removed(),
+                        Diff.emitterOf(Kind.of("delta.changed.entry")).forName(Name.of("b.txt")).added(),
+                        Diff.emitterOf(Kind.of("delta.removed.entry")).forName(Name.of("d.txt")).added()),
+                ignoringHints);
+        assertEquals(Optional.of("old"), ignoringHints.get(2).getHints().right());
+
+        final List<Diff> withHints = new DeltaDiffer(true).diffDeltas(Both.of(first, second))
+                .stream().collect(Collectors.toList());
+        assertEquals(4, withHints.size());
+        final Diff rehinted = withHints.get(0);
+        assertEquals(Name.of("a.txt"), rehinted.getName());
+        assertEquals(Kind.of("delta.changed.entry"), rehinted.getKind());
+        assertEquals(Verb.CHANGED, rehinted.getVerb());
+        assertEquals(List.of(Optional.of("1 -> 2"), Optional.of("2 -> 3")),
+                List.of(rehinted.getHints().left(), rehinted.getHints().right()));
+    }
+
+    @Test
+    void diffArchives() throws Exception {
+        final Delta delta = DeltaArchiveTest.delta();
+        final Path first = tempDir.resolve("first.bin");
+        final Path second = tempDir.resolve("second.bin");
+        DeltaArchiveWriter.write(delta, first);
+        DeltaArchiveWriter.write(delta, second);
+        assertTrue(new DeltaDiffer(true).diffArchives(Both.of(first, second)).isEmpty());
+
+        DeltaArchiveWriter.write(delta(), second);
+        assertEquals(delta.getResults().stream().count(),
+                new DeltaDiffer(true).diffArchives(Both.of(first, second)).stream()
+                        .filter(diff -> diff.getVerb() == Verb.REMOVED).count());
+    }
+}
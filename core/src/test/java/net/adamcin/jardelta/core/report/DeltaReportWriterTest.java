@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.core.report;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Diffs;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Refinement;
+import net.adamcin.streamsupport.Both;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaReportWriterTest {
+    static final Kind ENTRY = Kind.of("entry");
+    static final Kind MANIFEST = Kind.of("manifest");
+
+    static Delta delta() {
+        final Diff superseded = Diff.emitterOf(ENTRY).forName(Name.of("META-INF/MANIFEST.MF")).changed();
+        final Diff refined = Diff.emitterOf(MANIFEST).forName(Name.of("META-INF/MANIFEST.MF/Bundle-Name"))
+                .changed(Both.of("say \"hello\"", "line\nbreak"));
+        final Diff added = Diff.emitterOf(ENTRY).forName(Name.of("added.txt")).added();
+        return Delta.builder()
+                .initial(Diffs.of(superseded, added))
+                .refinements(List.of(new Refinement(List.of(superseded), Diffs.of(refined))))
+                .results(Diffs.of(refined, added))
+                .build();
+    }
+
+    @Test
+    void writeNdjson() throws Exception {
+        final StringWriter out = new StringWriter();
+        try (DeltaReportWriter writer = new DeltaReportWriter(out, ReportFormat.NDJSON)) {
+            writer.writeDelta("example", delta(), List.of(MANIFEST));
+            writer.writeFailure("broken", new IllegalStateException("bad zip"));
+        }
+        final List<JsonObject> records = out.toString().lines()
+                .map(line -> Json.createReader(new StringReader(line)).readObject())
+                .collect(Collectors.toList());
+        assertEquals(4, records.size());
+        assertEquals("refinement", records.get(0).getString("type"));
+        assertEquals("manifest", records.get(0).getString("phase"));
+        assertEquals(1, records.get(0).getInt("superseded"));
+        assertEquals(1, records.get(0).getInt("diffs"));
+
+        final JsonObject refined = records.stream()
+                .filter(record -> "diff".equals(record.getString("type")) && "manifest".equals(record.getString("kind")))
+                .findFirst().orElseThrow();
+        assertEquals("example", refined.getString("label"));
+        assertEquals("CHANGED", refined.getString("verb"));
+        assertEquals("say \"hello\"", refined.getJsonArray("hints").getString(0));
+        assertEquals("line\nbreak", refined.getJsonArray("hints").getString(1));
+
+        final JsonObject failure = records.get(3);
+        assertEquals("failure", failure.getString("type"));
+        assertEquals("broken", failure.getString("label"));
+        assertEquals("bad zip", failure.getString("error"));
+    }
+
+    @Test
+    void writeJson() throws Exception {
+        final StringWriter out = new StringWriter();
+        try (DeltaReportWriter writer = new DeltaReportWriter(out, ReportFormat.JSON)) {
+            writer.writeDelta("first", delta(), List.of(MANIFEST));
+            writer.writeDelta("second", Delta.builder().build(), List.of(MANIFEST));
+        }
+        final JsonArray deltas = Json.createReader(new StringReader(out.toString())).readObject().getJsonArray("deltas");
+        assertEquals(2, deltas.size());
+        final JsonObject first = deltas.getJsonObject(0);
+        assertEquals("first", first.getString("label"));
+        assertEquals(1, first.getJsonArray("refinements").size());
+        assertEquals(2, first.getJsonArray("diffs").size());
+        assertEquals(2, first.getJsonArray("diffs").getJsonObject(0).getJsonArray("hints").size());
+        assertTrue(deltas.getJsonObject(1).getJsonArray("diffs").isEmpty());
+    }
+}
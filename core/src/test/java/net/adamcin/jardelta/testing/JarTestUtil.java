@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.testing;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * Builds small jar fixtures for tests. Entries are written in name order with a fixed timestamp so that equal inputs
+ * produce equal bytes.
+ */
+public final class JarTestUtil {
+
+    private JarTestUtil() {
+        /* no construction */
+    }
+
+    public static @NotNull Manifest manifest() {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        return manifest;
+    }
+
+    public static @NotNull Manifest bundleManifest(@NotNull String symbolicName) {
+        final Manifest manifest = manifest();
+        manifest.getMainAttributes().putValue("Bundle-ManifestVersion", "2");
+        manifest.getMainAttributes().putValue("Bundle-SymbolicName", symbolicName);
+        manifest.getMainAttributes().putValue("Bundle-Version", "1.0.0");
+        return manifest;
+    }
+
+    public static byte[] utf8(@NotNull String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static @NotNull Map<String, byte[]> utf8(@NotNull Map<String, String> entries) {
+        final Map<String, byte[]> encoded = new TreeMap<>();
+        entries.forEach((name, content) -> encoded.put(name, utf8(content)));
+        return encoded;
+    }
+
+    public static byte[] zipBytes(@NotNull Map<String, byte[]> entries) throws IOException {
+        return zipBytes(null, entries);
+    }
+
+    public static byte[] zipBytes(@Nullable Manifest manifest, @NotNull Map<String, byte[]> entries)
+            throws IOException {
+        final ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        writeEntries(bytesOut, manifest, entries, 0L, name -> false);
+        return bytesOut.toByteArray();
+    }
+
+    public static @NotNull Path writeZip(@NotNull Path path, @NotNull Map<String, byte[]> entries)
+            throws IOException {
+        return writeZip(path, null, entries);
+    }
+
+    public static @NotNull Path writeZip(@NotNull Path path, @Nullable Manifest manifest,
+                                         @NotNull Map<String, byte[]> entries) throws IOException {
+        return writeZip(path, manifest, entries, 0L, name -> false);
+    }
+
+    public static @NotNull Path writeZip(@NotNull Path path, @Nullable Manifest manifest,
+                                         @NotNull Map<String, byte[]> entries, long time,
+                                         @NotNull Predicate<String> stored) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (OutputStream fileOut = Files.newOutputStream(path)) {
+            writeEntries(fileOut, manifest, entries, time, stored);
+        }
+        return path;
+    }
+
+    /**
+     * Write a jar to the stream, closing it when done. Entries matching {@code stored} are written without
+     * compression.
+     */
+    public static void writeEntries(@NotNull OutputStream out, @Nullable Manifest manifest,
+                                    @NotNull Map<String, byte[]> entries, long time,
+                                    @NotNull Predicate<String> stored) throws IOException {
+        try (JarOutputStream jarOut = manifest != null ? new JarOutputStream(out, manifest) : new JarOutputStream(out)) {
+            for (Map.Entry<String, byte[]> entry : new TreeMap<>(entries).entrySet()) {
+                final ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                zipEntry.setTime(time);
+                if (stored.test(entry.getKey())) {
+                    final CRC32 crc = new CRC32();
+                    crc.update(entry.getValue());
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(entry.getValue().length);
+                    zipEntry.setCompressedSize(entry.getValue().length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+                jarOut.putNextEntry(zipEntry);
+                jarOut.write(entry.getValue());
+                jarOut.closeEntry();
+            }
+        }
+    }
+}
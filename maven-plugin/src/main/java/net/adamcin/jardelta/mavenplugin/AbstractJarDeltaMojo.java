@@ -0,0 +1,310 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.mavenplugin;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.core.BatchPlan;
+import net.adamcin.jardelta.core.Context;
+import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.Plan;
+import net.adamcin.jardelta.core.Settings;
+import net.adamcin.jardelta.core.Significance;
+import net.adamcin.jardelta.core.entry.DigestAlgorithm;
+import net.adamcin.jardelta.core.report.DeltaReportWriter;
+import net.adamcin.jardelta.core.report.ReportFormat;
+import net.adamcin.streamsupport.Result;
+import org.apache.maven.RepositoryUtils;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parameters and baseline resolution shared by the jardelta goals.
+ */
+public abstract class AbstractJarDeltaMojo extends AbstractMojo {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractJarDeltaMojo.class);
+
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true, required = true)
+    private RepositorySystemSession session;
+
+    @Component
+    private RepositorySystem system;
+
+    @Parameter(property = "jardelta.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Parameter(property = "jardelta.includeDistributionManagement", defaultValue = "true")
+    private boolean includeDistributionManagement;
+
+    @Parameter(property = "jardelta.releaseVersions", defaultValue = "false")
+    private boolean releaseVersions;
+
+    /**
+     * The algorithm used to compute entry digests: {@code SHA256}, {@code CRC32C}, or {@code XXHASH64}.
+     */
+    @Parameter(property = "jardelta.digestAlgorithm", defaultValue = "SHA256")
+    private DigestAlgorithm digestAlgorithm;
+
+    /**
+     * Parse the SCR and MetaType descriptors of both jars concurrently.
+     */
+    @Parameter(property = "jardelta.parallelDescriptorParsing", defaultValue = "true")
+    private boolean parallelDescriptorParsing;
+
+    /**
+     * The maximum number of comparisons to run at the same time when more than one pair of jars is compared.
+     * Defaults to the number of available processors.
+     */
+    @Parameter(property = "jardelta.threads", defaultValue = "0")
+    private int threads;
+
+    /**
+     * Write a machine-readable report of every compared pair of jars to this file, in addition to logging the diffs.
+     */
+    @Parameter(property = "jardelta.reportFile")
+    private File reportFile;
+
+    /**
+     * The format of the {@link #reportFile}: {@code NDJSON} for one JSON object per line, or {@code JSON} for a
+     * single document.
+     */
+    @Parameter(property = "jardelta.reportFormat", defaultValue = "NDJSON")
+    private ReportFormat reportFormat;
+
+    /**
+     * Rules mapping diffs to a significance by kind, name prefix and verb. The first matching rule applies.
+     */
+    @Parameter
+    private List<SignificanceRule> significanceRules;
+
+    /**
+     * The significance of diffs that match none of the {@link #significanceRules}.
+     */
+    @Parameter(property = "jardelta.defaultSignificance", defaultValue = "MINOR")
+    private Significance defaultSignificance;
+
+    /**
+     * Fail the build on the first diff of at least this significance: {@code TRIVIAL}, {@code MINOR}, or
+     * {@code MAJOR}. The comparison stops as soon as such a diff is found. Unset by default, which never fails.
+     */
+    @Parameter(property = "jardelta.failOn")
+    private Significance failOn;
+
+    protected boolean isSkip() {
+        return skip;
+    }
+
+    protected BaselineCache getBaselineCache() {
+        return BaselineCache.forSession(session);
+    }
+
+    protected BaselineResolver getBaselineResolver() {
+        return new BaselineResolver(system, session, releaseVersions, getBaselineCache());
+    }
+
+    /**
+     * Describe the settings that affect which baseline is resolved for the same coordinates, so that executions with
+     * different settings do not share a cached baseline.
+     *
+     * @return the resolution settings as a cache key suffix
+     */
+    String getResolutionKey() {
+        return "releaseVersions=" + releaseVersions + ",includeDistributionManagement=" + includeDistributionManagement;
+    }
+
+    Settings getSettings() {
+        return Settings.builder()
+                .digestAlgorithm(Optional.ofNullable(digestAlgorithm).orElse(DigestAlgorithm.SHA256))
+                .parallelDescriptorParsing(parallelDescriptorParsing)
+                .build();
+    }
+
+    /**
+     * Return a predicate matching diffs that meet the {@link #failOn} threshold, for use as
+     * {@link Context#getHaltOn()}.
+     *
+     * @return the predicate, or null if the build never fails on diffs
+     */
+    @Nullable
+    Predicate<Diff> getHaltOn() {
+        if (failOn == null) {
+            return null;
+        }
+        final List<Map.Entry<Predicate<Diff>, Significance>> rules = Optional.ofNullable(significanceRules)
+                .orElse(List.of()).stream()
+                .filter(rule -> rule.getSignificance() != null)
+                .map(rule -> Map.entry(rule.toPredicate(), rule.getSignificance()))
+                .collect(Collectors.toList());
+        final Significance otherwise = Optional.ofNullable(defaultSignificance).orElse(Significance.MINOR);
+        final Predicate<Significance> failing = failOn.meetsMinimumSignificance();
+        return diff -> failing.test(rules.stream()
+                .filter(rule -> rule.getKey().test(diff))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(otherwise));
+    }
+
+    /**
+     * Fail if any of the diffs meets the {@link #failOn} threshold.
+     *
+     * @param label the label of the compared jars
+     * @param diffs the diffs to check, such as the results of a delta
+     * @throws MojoFailureException for the first diff that meets the threshold
+     */
+    void checkSignificance(@NotNull String label, @NotNull Stream<Diff> diffs) throws MojoFailureException {
+        final Predicate<Diff> haltOn = getHaltOn();
+        if (haltOn == null) {
+            return;
+        }
+        final Optional<Diff> failure = diffs.filter(haltOn).findFirst();
+        if (failure.isPresent()) {
+            throw new MojoFailureException(label + ": diff meets jardelta.failOn=" + failOn + ": " + failure.get());
+        }
+    }
+
+    /**
+     * Fail if the delta was halted by, or contains, a diff that meets the {@link #failOn} threshold.
+     *
+     * @param label the label of the compared jars
+     * @param delta the delta
+     * @throws MojoFailureException for the first diff that meets the threshold
+     */
+    void checkSignificance(@NotNull String label, @NotNull Delta delta) throws MojoFailureException {
+        checkSignificance(label, Stream.concat(Stream.ofNullable(delta.getHaltedBy()), delta.getResults().stream()));
+    }
+
+    /**
+     * Compare many pairs of jars concurrently, logging the diffs of each pair prefixed by its label, followed by a
+     * summary.
+     *
+     * @param labeledContexts the contexts to execute, paired with their labels
+     * @param unit            what each pair is called in the summary, e.g. "modules"
+     * @param missing         the number of pairs left out of the batch because no baseline was found
+     * @throws MojoExecutionException if any comparison failed, once all the others have been reported
+     * @throws MojoFailureException   as soon as any delta meets the {@link #failOn} threshold
+     */
+    void executeBatch(@NotNull List<Map.Entry<String, Context>> labeledContexts,
+                      @NotNull String unit, int missing) throws MojoExecutionException, MojoFailureException {
+        final Map<Context, String> labels = new IdentityHashMap<>();
+        final List<Context> contexts = new ArrayList<>();
+        for (Map.Entry<String, Context> entry : labeledContexts) {
+            labels.put(entry.getValue(), entry.getKey());
+            contexts.add(entry.getValue());
+        }
+        int changed = 0;
+        int failed = 0;
+        final List<Kind> phases = new Plan().getRefinementKinds();
+        try (DeltaReportWriter reportWriter = openReportWriter();
+             BatchPlan batchPlan = new BatchPlan(threads > 0 ? threads : Runtime.getRuntime().availableProcessors())) {
+            final Iterator<Map.Entry<Context, Result<Delta>>> results = batchPlan.executeAll(contexts).iterator();
+            while (results.hasNext()) {
+                final Map.Entry<Context, Result<Delta>> result = results.next();
+                final String label = labels.get(result.getKey());
+                if (result.getValue().isFailure()) {
+                    failed++;
+                    logger.error("{}: {}", label, result.getValue().getError().map(Throwable::getMessage)
+                            .orElse("failed"));
+                    if (reportWriter != null) {
+                        reportWriter.writeFailure(label, result.getValue().getError().orElseThrow());
+                    }
+                } else {
+                    final Delta delta = result.getValue().getOrThrow();
+                    if (!delta.getResults().isEmpty()) {
+                        changed++;
+                    }
+                    delta.getResults().stream().forEachOrdered(diff -> logger.info("{}: {}", label, diff));
+                    if (reportWriter != null) {
+                        reportWriter.writeDelta(label, delta, phases);
+                    }
+                    checkSignificance(label, delta);
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to write jardelta report " + reportFile, e);
+        }
+        logger.info("jardelta compared {} {}: {} changed, {} failed, {} without a baseline",
+                contexts.size(), unit, changed, failed, missing);
+        if (failed > 0) {
+            throw new MojoExecutionException("jardelta failed to compare " + failed + " " + unit);
+        }
+    }
+
+    /**
+     * Open a writer for the configured report file.
+     *
+     * @return the report writer, or null if no report file is configured
+     * @throws IOException if the report file cannot be created
+     */
+    @Nullable
+    DeltaReportWriter openReportWriter() throws IOException {
+        if (reportFile == null) {
+            return null;
+        }
+        final Path reportPath = reportFile.toPath().toAbsolutePath();
+        Files.createDirectories(reportPath.getParent());
+        return new DeltaReportWriter(Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8),
+                Optional.ofNullable(reportFormat).orElse(ReportFormat.NDJSON));
+    }
+
+    List<RemoteRepository> getRepositories(@NotNull MavenProject project) {
+        List<RemoteRepository> aetherRepos = RepositoryUtils.toRepos(project.getRemoteArtifactRepositories());
+
+        if (includeDistributionManagement) {
+            RemoteRepository releaseDistroRepo;
+            if (project.getArtifact().isSnapshot()) {
+                MavenProject tmpClone = project.clone();
+                tmpClone.getArtifact()
+                        .setVersion("1.0.0");
+                releaseDistroRepo = RepositoryUtils.toRepo(tmpClone.getDistributionManagementArtifactRepository());
+            } else {
+                releaseDistroRepo = RepositoryUtils.toRepo(project.getDistributionManagementArtifactRepository());
+            }
+
+            if (releaseDistroRepo != null) {
+                aetherRepos.add(0, releaseDistroRepo);
+            }
+        }
+
+        return aetherRepos;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.mavenplugin;
+
+import net.adamcin.jardelta.core.EntryMetaCache;
+import net.adamcin.streamsupport.Result;
+import org.eclipse.aether.RepositorySystemSession;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Baseline versions, baseline files and entry metadata shared by all jardelta executions in the same repository
+ * session. Resolutions may be started in the background by the prefetch goal, and are otherwise performed by the
+ * first execution that needs them. Concurrent executions of a parallel build wait for the same resolution rather than
+ * repeating it.
+ */
+public final class BaselineCache {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "jardelta-prefetch-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConcurrentMap<String, CompletableFuture<Result<Optional<String>>>> versions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Result<File>>> baselines = new ConcurrentHashMap<>();
+    private final EntryMetaCache entryMetaCache = new EntryMetaCache();
+
+    BaselineCache() {
+        /* construct for session */
+    }
+
+    /**
+     * Get the baseline cache of the repository session, creating it if necessary.
+     *
+     * @param session the repository session
+     * @return the session baseline cache
+     */
+    @NotNull
+    public static BaselineCache forSession(@NotNull RepositorySystemSession session) {
+        return (BaselineCache) session.getData().computeIfAbsent(BaselineCache.class, BaselineCache::new);
+    }
+
+    /**
+     * Start resolving a baseline in the background, unless it has already been started.
+     *
+     * @param key      the baseline coordinates, including the version range, and the resolution settings
+     * @param resolver the baseline resolution
+     */
+    public void prefetch(@NotNull String key, @NotNull Supplier<Result<File>> resolver) {
+        start(baselines, key, resolver, EXECUTOR);
+    }
+
+    /**
+     * Get a cached or prefetched baseline, or resolve it in the calling thread if no other execution has.
+     *
+     * @param key      the baseline coordinates, including the version range, and the resolution settings
+     * @param resolver the baseline resolution
+     * @return the baseline file or the resolution failure
+     */
+    @NotNull
+    public Result<File> getOrResolve(@NotNull String key, @NotNull Supplier<Result<File>> resolver) {
+        return getOrCompute(baselines, key, resolver);
+    }
+
+    /**
+     * Get a cached base version, or find it in the calling thread if no other execution has.
+     *
+     * @param key    the groupId, artifactId and version range
+     * @param finder the version range resolution
+     * @return the base version if one was found, or the resolution failure
+     */
+    @NotNull
+    public Result<Optional<String>> getOrFindVersion(@NotNull String key,
+                                                     @NotNull Supplier<Result<Optional<String>>> finder) {
+        return getOrCompute(versions, key, finder);
+    }
+
+    /**
+     * Get the entry metadata cache shared by comparisons in this session.
+     *
+     * @return the entry metadata cache
+     */
+    @NotNull
+    public EntryMetaCache getEntryMetaCache() {
+        return entryMetaCache;
+    }
+
+    static <T> Result<T> getOrCompute(@NotNull ConcurrentMap<String, CompletableFuture<Result<T>>> cache,
+                                      @NotNull String key,
+                                      @NotNull Supplier<Result<T>> computation) {
+        try {
+            return start(cache, key, computation, Runnable::run).join();
+        } catch (CompletionException e) {
+            return Result.failure(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
+    }
+
+    /**
+     * Start a computation on the executor unless one has already been started for the key, whether in the background
+     * by a prefetch or in the calling thread of another execution.
+     *
+     * @param cache       the cached computations
+     * @param key         the cache key
+     * @param computation the computation
+     * @param executor    the executor to start a new computation on
+     * @param <T>         the result type
+     * @return the new or existing computation
+     */
+    static <T> CompletableFuture<Result<T>> start(@NotNull ConcurrentMap<String, CompletableFuture<Result<T>>> cache,
+                                                  @NotNull String key,
+                                                  @NotNull Supplier<Result<T>> computation,
+                                                  @NotNull Executor executor) {
+        final CompletableFuture<Result<T>> created = new CompletableFuture<>();
+        final CompletableFuture<Result<T>> existing = cache.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        executor.execute(() -> {
+            try {
+                created.complete(computation.get());
+            } catch (RuntimeException e) {
+                created.complete(Result.failure(e));
+            }
+        });
+        return created;
+    }
+}
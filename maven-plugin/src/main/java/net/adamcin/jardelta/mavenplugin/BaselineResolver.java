@@ -0,0 +1,253 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.mavenplugin;
+
+import aQute.bnd.version.MavenVersion;
+import net.adamcin.streamsupport.Fun;
+import net.adamcin.streamsupport.Result;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResolutionException;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.version.Version;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves baseline artifacts for comparison, either one at a time or as a batch for many modules.
+ */
+public class BaselineResolver {
+    private static final Logger logger = LoggerFactory.getLogger(BaselineResolver.class);
+    static final String REQUEST_CONTEXT = "jardelta";
+
+    private final RepositorySystem system;
+    private final RepositorySystemSession session;
+    private final boolean releaseVersions;
+    private final BaselineCache cache;
+
+    public BaselineResolver(@NotNull RepositorySystem system,
+                            @NotNull RepositorySystemSession session,
+                            boolean releaseVersions) {
+        this(system, session, releaseVersions, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param system          the repository system
+     * @param session         the repository session
+     * @param releaseVersions true to only consider release versions when a version range is specified
+     * @param cache           a session cache of base versions shared with other executions, or null
+     */
+    public BaselineResolver(@NotNull RepositorySystem system,
+                            @NotNull RepositorySystemSession session,
+                            boolean releaseVersions,
+                            @Nullable BaselineCache cache) {
+        this.system = system;
+        this.session = session;
+        this.releaseVersions = releaseVersions;
+        this.cache = cache;
+    }
+
+    /**
+     * Find the highest non-snapshot version of the artifact that is allowed by its version or version range.
+     *
+     * @param toFind       the baseline artifact with a version range
+     * @param aetherRepos the remote repositories to search
+     * @return the highest matching version, or null if none was found
+     * @throws VersionRangeResolutionException if the version range cannot be resolved
+     */
+    @Nullable
+    public String findBaseVersion(@NotNull Artifact toFind,
+                                  @NotNull List<RemoteRepository> aetherRepos) throws VersionRangeResolutionException {
+        if (cache == null) {
+            return findHighestVersion(toFind, aetherRepos);
+        }
+        return cache.getOrFindVersion(versionKey(toFind),
+                        Fun.result0(() -> Optional.ofNullable(findHighestVersion(toFind, aetherRepos))))
+                .getOrThrow(VersionRangeResolutionException.class)
+                .orElse(null);
+    }
+
+    /**
+     * Get the key of the version range lookup for a baseline artifact. The available versions depend only on the
+     * groupId and artifactId, not on the classifier or extension.
+     *
+     * @param toFind the baseline artifact with a version range
+     * @return the version lookup key
+     */
+    @NotNull
+    String versionKey(@NotNull Artifact toFind) {
+        return String.join(":", toFind.getGroupId(), toFind.getArtifactId(), toFind.getVersion(),
+                Boolean.toString(releaseVersions));
+    }
+
+    /**
+     * Find the base versions of many baseline artifacts concurrently, since the repository system has no batch request
+     * for version ranges. Artifacts that only differ by classifier or extension share a single lookup.
+     *
+     * @param toFind each baseline artifact with a version range, paired with the remote repositories to search
+     * @return the base version, if one was found, or the failure for each artifact, in request order
+     */
+    @NotNull
+    List<Result<Optional<String>>> findBaseVersions(@NotNull List<Map.Entry<Artifact, List<RemoteRepository>>> toFind) {
+        if (toFind.isEmpty()) {
+            return List.of();
+        }
+        final Map<String, CompletableFuture<Result<Optional<String>>>> lookups = new HashMap<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(toFind.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            final List<CompletableFuture<Result<Optional<String>>>> futures = toFind.stream()
+                    .map(entry -> lookups.computeIfAbsent(versionKey(entry.getKey()), key ->
+                            CompletableFuture.supplyAsync(Fun.result0(() ->
+                                    Optional.ofNullable(findBaseVersion(entry.getKey(), entry.getValue()))), executor)))
+                    .collect(Collectors.toList());
+            return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Nullable
+    String findHighestVersion(@NotNull Artifact toFind,
+                              @NotNull List<RemoteRepository> aetherRepos) throws VersionRangeResolutionException {
+        VersionRangeRequest request = new VersionRangeRequest(toFind, aetherRepos, REQUEST_CONTEXT);
+
+        VersionRangeResult versions = system.resolveVersionRange(session, request);
+
+        List<Version> found = versions.getVersions();
+        logger.debug("Found versions {}", found);
+
+        boolean onlyreleaseversions = releaseVersions && (toFind.getVersion()
+                .startsWith("[")
+                || toFind.getVersion()
+                .startsWith("("));
+
+        for (ListIterator<Version> li = found.listIterator(found.size()); li.hasPrevious(); ) {
+            String highest = li.previous()
+                    .toString();
+            if (toFind.setVersion(highest)
+                    .isSnapshot()) {
+                continue;
+            }
+            if (onlyreleaseversions) {
+                MavenVersion mavenVersion = MavenVersion.parseMavenString(highest);
+                if (mavenVersion.compareTo(mavenVersion.toReleaseVersion()) < 0) {
+                    logger.debug("Version {} not considered since it is not a release version", highest);
+                    continue; // not a release version
+                }
+            }
+            return highest;
+        }
+        return null;
+    }
+
+    /**
+     * Resolve a single baseline artifact.
+     *
+     * @param toFind      the baseline artifact with a concrete version
+     * @param aetherRepos the remote repositories to search
+     * @return the artifact result
+     * @throws ArtifactResolutionException if the artifact cannot be resolved
+     */
+    @NotNull
+    public ArtifactResult resolve(@NotNull Artifact toFind,
+                                  @NotNull List<RemoteRepository> aetherRepos) throws ArtifactResolutionException {
+        return system.resolveArtifact(session, new ArtifactRequest(toFind, aetherRepos, REQUEST_CONTEXT));
+    }
+
+    /**
+     * Find the base versions of all the artifacts concurrently, and then resolve all the baseline artifacts in one
+     * request.
+     *
+     * @param toFind each baseline artifact with a version range, paired with the remote repositories to search
+     * @return the baseline file or failure for each artifact, in request order
+     */
+    @NotNull
+    public List<Result<File>> resolveBaselines(@NotNull List<Map.Entry<Artifact, List<RemoteRepository>>> toFind) {
+        final List<Result<Optional<String>>> versions = findBaseVersions(toFind);
+        final List<Result<File>> baselines = new ArrayList<>();
+        final List<ArtifactRequest> requests = new ArrayList<>();
+        final List<Integer> requestIndexes = new ArrayList<>();
+        for (int i = 0; i < toFind.size(); i++) {
+            final Map.Entry<Artifact, List<RemoteRepository>> entry = toFind.get(i);
+            final Result<Optional<String>> version = versions.get(i);
+            if (version.isFailure()) {
+                baselines.add(Result.failure(version.getError().orElseThrow()));
+            } else if (version.getOrThrow().isEmpty()) {
+                baselines.add(Result.failure("Unable to locate a previous version of " + entry.getKey()));
+            } else {
+                requestIndexes.add(baselines.size());
+                baselines.add(null);
+                requests.add(new ArtifactRequest(entry.getKey().setVersion(version.getOrThrow().get()),
+                        entry.getValue(), REQUEST_CONTEXT));
+            }
+        }
+        final List<Result<File>> resolved = resolveAll(requests);
+        for (int i = 0; i < requestIndexes.size(); i++) {
+            baselines.set(requestIndexes.get(i), resolved.get(i));
+        }
+        return baselines;
+    }
+
+    /**
+     * Resolve many baseline artifacts in a single pass of the repository system, so that downloads can be
+     * performed concurrently by the resolver.
+     *
+     * @param requests the artifact requests
+     * @return the resolved file or the failure for each request, in request order
+     */
+    @NotNull
+    public List<Result<File>> resolveAll(@NotNull List<ArtifactRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<ArtifactResult> results;
+        try {
+            results = system.resolveArtifacts(session, requests);
+        } catch (ArtifactResolutionException e) {
+            results = e.getResults();
+        }
+        return results.stream()
+                .map(result -> result.isResolved()
+                        ? Result.success(result.getArtifact().getFile())
+                        : Result.<File>failure("Unable to resolve baseline artifact "
+                        + result.getRequest().getArtifact() + ": " + result.getExceptions()))
+                .collect(Collectors.toList());
+    }
+}
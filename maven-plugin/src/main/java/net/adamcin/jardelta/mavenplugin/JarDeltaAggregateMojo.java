@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.mavenplugin;
+
+import net.adamcin.jardelta.core.Context;
+import net.adamcin.jardelta.core.Jars;
+import net.adamcin.streamsupport.Fun;
+import net.adamcin.streamsupport.Result;
+import org.apache.maven.RepositoryUtils;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the packaged artifact of every module in the reactor against its baseline in a single execution. Baselines
+ * are resolved in one batch, and the comparisons run concurrently on a shared pool. This goal should be invoked after
+ * the modules have been packaged, e.g. {@code mvn verify jardelta:aggregate}.
+ */
+@Mojo(name = "aggregate", aggregator = true, threadSafe = true)
+public class JarDeltaAggregateMojo extends AbstractJarDeltaMojo {
+    private static final Logger logger = LoggerFactory.getLogger(JarDeltaAggregateMojo.class);
+
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession mavenSession;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (isSkip()) {
+            logger.debug("skip aggregate as configured");
+            return;
+        }
+
+        final List<Module> modules = collectModules(mavenSession.getProjects());
+        if (modules.isEmpty()) {
+            logger.info("No packaged artifacts found in the reactor for jardelta comparison");
+            return;
+        }
+
+        final List<Result<File>> baselines = resolveBaselines(modules);
+        final List<Map.Entry<String, Context>> contexts = new ArrayList<>();
+        int missing = 0;
+        for (int i = 0; i < modules.size(); i++) {
+            final Module module = modules.get(i);
+            final Result<File> baseline = baselines.get(i);
+            if (baseline.isFailure()) {
+                missing++;
+                logger.warn("{}: {}", module.getKey(), baseline.getError().map(Throwable::getMessage)
+                        .orElse("unable to locate a previous version of the artifact"));
+                continue;
+            }
+            contexts.add(Fun.toEntry(module.getKey(), Context.builder()
+                    .settings(getSettings())
+                    .haltOn(getHaltOn())
+                    .jars(Jars.from(baseline.getOrThrow(), module.getFile())
+                            .withEntryMetaCache(getBaselineCache().getEntryMetaCache()))
+                    .build()));
+        }
+
+        executeBatch(contexts, "modules", missing);
+    }
+
+    @NotNull
+    List<Module> collectModules(@NotNull List<MavenProject> projects) {
+        final List<Module> modules = new ArrayList<>();
+        for (MavenProject project : projects) {
+            if ("pom".equals(project.getPackaging())) {
+                continue;
+            }
+            final File file = project.getArtifact() != null ? project.getArtifact().getFile() : null;
+            if (file == null || !file.isFile()) {
+                logger.debug("skip project {} as it has not been packaged", project.getId());
+                continue;
+            }
+            modules.add(new Module(project, RepositoryUtils.toArtifact(project.getArtifact())));
+        }
+        return modules;
+    }
+
+    /**
+     * Determine the baseline version of every module, and then resolve all the baseline artifacts in one request.
+     *
+     * @param modules the modules to resolve baselines for
+     * @return the baseline file or failure for each module, in module order
+     */
+    @NotNull
+    List<Result<File>> resolveBaselines(@NotNull List<Module> modules) {
+        return getBaselineResolver().resolveBaselines(modules.stream()
+                .map(module -> {
+                    final Artifact artifact = module.getArtifact();
+                    return Fun.<Artifact, List<RemoteRepository>>toEntry(new DefaultArtifact(artifact.getGroupId(),
+                                    artifact.getArtifactId(), artifact.getClassifier(), artifact.getExtension(),
+                                    "(," + artifact.getVersion() + ")"),
+                            getRepositories(module.getProject()));
+                })
+                .collect(Collectors.toList()));
+    }
+
+    static final class Module {
+        private final MavenProject project;
+        private final Artifact artifact;
+
+        Module(@NotNull MavenProject project, @NotNull Artifact artifact) {
+            this.project = project;
+            this.artifact = artifact;
+        }
+
+        MavenProject getProject() {
+            return project;
+        }
+
+        Artifact getArtifact() {
+            return artifact;
+        }
+
+        File getFile() {
+            return artifact.getFile();
+        }
+
+        String getKey() {
+            return artifact.getGroupId() + ":" + artifact.getArtifactId();
+        }
+    }
+}
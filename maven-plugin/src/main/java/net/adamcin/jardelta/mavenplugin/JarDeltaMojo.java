@@ -16,34 +16,35 @@
 
 package net.adamcin.jardelta.mavenplugin;
 
-import aQute.bnd.version.MavenVersion;
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.core.BatchPlan;
 import net.adamcin.jardelta.core.Context;
 import net.adamcin.jardelta.core.Delta;
+import net.adamcin.jardelta.core.DeltaState;
 import net.adamcin.jardelta.core.Jars;
 import net.adamcin.jardelta.core.Plan;
+import net.adamcin.jardelta.core.Settings;
+import net.adamcin.jardelta.core.dist.DistributionDelta;
+import net.adamcin.jardelta.core.dist.DistributionPlan;
+import net.adamcin.jardelta.core.dist.Distributions;
+import net.adamcin.jardelta.core.report.DeltaArchiveWriter;
+import net.adamcin.jardelta.core.report.DeltaReportWriter;
+import net.adamcin.streamsupport.Both;
 import net.adamcin.streamsupport.Fun;
 import net.adamcin.streamsupport.Result;
 import org.apache.maven.RepositoryUtils;
-import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
-import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import org.eclipse.aether.RepositorySystem;
-import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.repository.RemoteRepository;
-import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
 import org.eclipse.aether.resolution.ArtifactResult;
-import org.eclipse.aether.resolution.VersionRangeRequest;
 import org.eclipse.aether.resolution.VersionRangeResolutionException;
-import org.eclipse.aether.resolution.VersionRangeResult;
-import org.eclipse.aether.version.Version;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,11 +52,15 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Formatter;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static net.adamcin.streamsupport.Fun.result0;
@@ -64,23 +69,16 @@ import static net.adamcin.streamsupport.Fun.result0;
  * Executes a {@link net.adamcin.jardelta.core.Plan} to produce a jardelta.
  */
 @Mojo(name = "jardelta", defaultPhase = LifecyclePhase.INTEGRATION_TEST)
-public class JarDeltaMojo extends AbstractMojo {
+public class JarDeltaMojo extends AbstractJarDeltaMojo {
     private static final Logger logger = LoggerFactory.getLogger(JarDeltaMojo.class);
+
+    /**
+     * Extensions of the zip-based artifact types that can be compared when several artifacts are selected.
+     */
+    static final Set<String> ZIP_EXTENSIONS = Set.of("jar", "zip", "war", "ear", "rar", "esa");
     @Parameter(defaultValue = "${project}", readonly = true, required = false)
     private MavenProject project;
 
-    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true, required = true)
-    private RepositorySystemSession session;
-
-    @Component
-    private RepositorySystem system;
-
-    @Parameter(property = "jardelta.skip", defaultValue = "false")
-    private boolean skip;
-
-    @Parameter(property = "jardelta.includeDistributionManagement", defaultValue = "true")
-    private boolean includeDistributionManagement;
-
     /**
      * The Maven coordinates of the base artifact in the format
      * {@code <groupId>:<artifactId>[:<extension>[:<classifier>]]:<version>}. If
@@ -92,59 +90,110 @@ public class JarDeltaMojo extends AbstractMojo {
     @Parameter(required = false)
     private Base base;
 
-    @Parameter(property = "jardelta.releaseVersions", defaultValue = "false")
-    private boolean releaseVersions;
-
     @Parameter
     private String comparisonClassifier;
 
+    /**
+     * Compare several artifacts of the project in one execution. Each selector is a {@code classifier} or
+     * {@code classifier:extension}, where {@code *} matches any value and an empty classifier matches the main
+     * artifact, e.g. {@code sources}, {@code :jar}, or {@code *:zip}. Only zip-based artifacts, such as jars, zips and
+     * wars, are matched. The baselines of all matching artifacts are resolved in one batch and compared concurrently.
+     */
+    @Parameter(property = "jardelta.comparisonArtifacts")
+    private List<String> comparisonArtifacts;
+
+    /**
+     * Compare the main artifact and every zip-based attached artifact of the project in one execution, skipping
+     * others like signatures and checksums.
+     */
+    @Parameter(property = "jardelta.allAttached", defaultValue = "false")
+    private boolean allAttached;
+
+    /**
+     * Reuse the stored delta of the previous comparison when both files, the plugin jars and the settings are
+     * unchanged since the last run, without opening either jar.
+     */
+    @Parameter(property = "jardelta.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * The file storing the result of the previous comparison for {@link #incremental} runs.
+     */
+    @Parameter(property = "jardelta.stateFile",
+            defaultValue = "${project.build.directory}/jardelta/${mojoExecution.executionId}.json")
+    private File stateFile;
+
+    /**
+     * Also write the complete delta of a single comparison to this file in the compact binary archive format, such as
+     * for attaching to a release.
+     */
+    @Parameter(property = "jardelta.archiveFile")
+    private File archiveFile;
+
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
     @Parameter(property = "jardelta.leftHandFile")
     private File leftHandFile;
 
     @Parameter(property = "jardelta.rightHandFile")
     private File rightHandFile;
 
+    /**
+     * Treat {@link #leftHandFile} and {@link #rightHandFile} as distribution directories, pairing up the jars found
+     * within them by artifact key instead of comparing the two files directly.
+     */
+    @Parameter(property = "jardelta.distribution", defaultValue = "false")
+    private boolean distribution;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        if (skip) {
+        if (isSkip()) {
             logger.debug("skip project as configured");
             return;
         }
 
-        final Context.ContextBuilder contextBuilder = Context.builder();
+        final Context.ContextBuilder contextBuilder = Context.builder().settings(getSettings()).haltOn(getHaltOn());
 
-        if (leftHandFile != null && rightHandFile != null) {
+        if (distribution) {
+            if (leftHandFile == null || rightHandFile == null) {
+                throw new MojoFailureException("Both jardelta.leftHandFile and jardelta.rightHandFile must be set for distribution comparison");
+            }
+            try {
+                executeDistributionPlan(Distributions.from(leftHandFile, rightHandFile));
+                return;
+            } catch (MojoExecutionException | MojoFailureException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new MojoFailureException(e);
+            }
+        } else if (leftHandFile != null && rightHandFile != null) {
             try {
                 contextBuilder.jars(Jars.from(leftHandFile, rightHandFile));
                 executePlan(contextBuilder);
                 return;
+            } catch (MojoFailureException e) {
+                throw e;
             } catch (Exception e) {
                 throw new MojoFailureException(e);
             }
         } else if (project == null) {
             throw new MojoFailureException("Unable to resolve artifacts for jardelta comparison outside of maven project");
+        } else if (isMultiArtifact()) {
+            executeMultiArtifactPlan();
+            return;
         } else if ("pom".equals(project.getPackaging())) {
             logger.debug("skip project as packaging is pom and either jardelta.leftHandFile and jardelta.rightHandFile are unset");
             return;
         }
 
-        Result<File> resolvedLeft = Optional.ofNullable(leftHandFile).map(Result::success).orElseGet(() -> Fun.result0(() -> {
-            Artifact baseArtifact = findRightHandArtifact().findFirst()
-                    .orElse(RepositoryUtils.toArtifact(project.getArtifact()));
-            this.setupBase(baseArtifact);
-            final List<RemoteRepository> aetherRepos = getRepositories(project);
-            findBaseArtifact(aetherRepos);
-            if (base.getVersion() != null && !base.getVersion().isEmpty()) {
-                ArtifactResult artifactResult = locateBaseJar(aetherRepos);
-                if ( !artifactResult.isMissing() ) {
-                    return artifactResult.getArtifact().getFile();
-                }
-            }
-            throw new MojoFailureException("Unable to locate a previous version of the artifact");
-        }).get());
+        Result<File> resolvedLeft = Optional.ofNullable(leftHandFile).map(Result::success).orElseGet(() -> {
+            return getBaselineCache().getOrResolve(setupComparisonBase(), this::resolveBaseline);
+        });
 
         try {
-            contextBuilder.jars(Jars.from(resolvedLeft.getOrThrow(MojoFailureException.class), findRightHandFile()));
+            contextBuilder.jars(Jars.from(resolvedLeft.getOrThrow(MojoFailureException.class), findRightHandFile())
+                    .withEntryMetaCache(getBaselineCache().getEntryMetaCache()));
             executePlan(contextBuilder);
         } catch (MojoFailureException e) {
             throw e;
@@ -153,42 +202,157 @@ public class JarDeltaMojo extends AbstractMojo {
         }
     }
 
-    void findBaseArtifact(@NotNull List<RemoteRepository> aetherRepos) throws VersionRangeResolutionException {
-        logger.info("Determining the jardelta base version for {} using repositories {}", base, aetherRepos);
+    boolean isMultiArtifact() {
+        return allAttached || (comparisonArtifacts != null && !comparisonArtifacts.isEmpty());
+    }
 
-        Artifact toFind = new DefaultArtifact(base.getGroupId(), base.getArtifactId(), base.getClassifier(),
-                base.getExtension(), base.getVersion());
+    void executeMultiArtifactPlan() throws MojoExecutionException, MojoFailureException {
+        final List<Artifact> artifacts = findComparisonArtifacts();
+        if (artifacts.isEmpty()) {
+            throw new MojoFailureException("Unable to find matching artifacts for jardelta comparison");
+        }
+        final List<RemoteRepository> aetherRepos = getRepositories(project);
+        final List<Result<File>> baselines = getBaselineResolver().resolveBaselines(artifacts.stream()
+                .map(artifact -> Fun.<Artifact, List<RemoteRepository>>toEntry(getBaseArtifact(artifact), aetherRepos))
+                .collect(Collectors.toList()));
+        final List<Map.Entry<String, Context>> contexts = new ArrayList<>();
+        int missing = 0;
+        for (int i = 0; i < artifacts.size(); i++) {
+            final String label = getArtifactLabel(artifacts.get(i));
+            final Result<File> baseline = baselines.get(i);
+            if (baseline.isFailure()) {
+                missing++;
+                logger.warn("{}: {}", label, baseline.getError().map(Throwable::getMessage)
+                        .orElse("unable to locate a previous version of the artifact"));
+                continue;
+            }
+            contexts.add(Fun.toEntry(label, Context.builder()
+                    .settings(getSettings())
+                    .haltOn(getHaltOn())
+                    .jars(Jars.from(baseline.getOrThrow(), artifacts.get(i).getFile())
+                            .withEntryMetaCache(getBaselineCache().getEntryMetaCache()))
+                    .build()));
+        }
+        executeBatch(contexts, "artifacts", missing);
+    }
 
-        VersionRangeRequest request = new VersionRangeRequest(toFind, aetherRepos, "jardelta");
+    List<Artifact> findComparisonArtifacts() {
+        return Stream.concat(
+                        "pom".equals(project.getPackaging()) ? Stream.empty() : Stream.ofNullable(project.getArtifact()),
+                        project.getAttachedArtifacts().stream())
+                .filter(artifact -> artifact.getFile() != null && artifact.getFile().isFile())
+                .map(RepositoryUtils::toArtifact)
+                .filter(artifact -> ZIP_EXTENSIONS.contains(artifact.getExtension()))
+                .filter(artifact -> allAttached || Optional.ofNullable(comparisonArtifacts).stream()
+                        .flatMap(List::stream)
+                        .anyMatch(selector -> matchesSelector(selector, artifact)))
+                .collect(Collectors.toList());
+    }
 
-        VersionRangeResult versions = system.resolveVersionRange(session, request);
+    static boolean matchesSelector(@NotNull String selector, @NotNull Artifact artifact) {
+        final String[] parts = selector.trim().split(":", -1);
+        final String classifier = parts[0];
+        final String extension = parts.length > 1 ? parts[1] : "*";
+        return ("*".equals(classifier) || classifier.equals(artifact.getClassifier()))
+                && ("*".equals(extension) || extension.equals(artifact.getExtension()));
+    }
 
-        List<Version> found = versions.getVersions();
-        logger.debug("Found versions {}", found);
+    static String getArtifactLabel(@NotNull Artifact artifact) {
+        return artifact.getClassifier().isEmpty()
+                ? artifact.getExtension()
+                : artifact.getClassifier() + ":" + artifact.getExtension();
+    }
 
-        boolean onlyreleaseversions = releaseVersions && (base.getVersion()
-                .startsWith("[")
-                || base.getVersion()
-                .startsWith("("));
+    /**
+     * Get the baseline of one of several compared artifacts. The configured base coordinates may override the
+     * groupId, artifactId and version range, but the classifier and extension always match the compared artifact.
+     *
+     * @param artifact the compared artifact
+     * @return the baseline artifact with a version range
+     */
+    Artifact getBaseArtifact(@NotNull Artifact artifact) {
+        final Base template = new Base();
+        if (baseCoordinates != null && !baseCoordinates.isBlank()) {
+            template.setFromCoordinates(baseCoordinates);
+        } else if (base != null) {
+            template.setGroupId(base.getGroupId());
+            template.setArtifactId(base.getArtifactId());
+            template.setVersion(base.getVersion());
+        }
+        return new DefaultArtifact(
+                Optional.ofNullable(template.getGroupId()).filter(Fun.inferTest1(String::isEmpty).negate())
+                        .orElse(project.getGroupId()),
+                Optional.ofNullable(template.getArtifactId()).filter(Fun.inferTest1(String::isEmpty).negate())
+                        .orElse(project.getArtifactId()),
+                artifact.getClassifier(),
+                artifact.getExtension(),
+                Optional.ofNullable(template.getVersion()).filter(Fun.inferTest1(String::isEmpty).negate())
+                        .orElse("(," + artifact.getVersion() + ")"));
+    }
 
-        base.setVersion(null);
-        for (ListIterator<Version> li = found.listIterator(found.size()); li.hasPrevious(); ) {
-            String highest = li.previous()
-                    .toString();
-            if (toFind.setVersion(highest)
-                    .isSnapshot()) {
-                continue;
-            }
-            if (onlyreleaseversions) {
-                MavenVersion mavenVersion = MavenVersion.parseMavenString(highest);
-                if (mavenVersion.compareTo(mavenVersion.toReleaseVersion()) < 0) {
-                    logger.debug("Version {} not considered since it is not a release version", highest);
-                    continue; // not a release version
+    /**
+     * Start resolving the baseline of the project artifact in the background, so that a later execution in the same
+     * session only has to wait for it.
+     */
+    void prefetchBaseline() {
+        if (distribution || leftHandFile != null || project == null || "pom".equals(project.getPackaging())
+                || isMultiArtifact()) {
+            logger.debug("skip baseline prefetch as no baseline resolution is required");
+            return;
+        }
+        final String key = setupComparisonBase();
+        logger.info("Prefetching the jardelta base version for {}", base);
+        getBaselineCache().prefetch(key, this::resolveBaseline);
+    }
+
+    /**
+     * Set up the {@link #base} of the artifact compared by a single execution, which is shared by the prefetch goal and
+     * the comparison so that both use the same baseline cache key.
+     *
+     * @return the baseline cache key, made of the base coordinates and the resolution settings
+     */
+    String setupComparisonBase() {
+        this.setupBase(getComparisonArtifact());
+        return base + "|" + getResolutionKey();
+    }
+
+    /**
+     * Get the artifact compared by a single execution: the attached artifact matching {@link #comparisonClassifier}, or
+     * the project artifact when no classifier is configured. When the classified artifact has not been attached yet,
+     * such as during the prefetch goal, it is assumed to have the extension of the project artifact.
+     *
+     * @return the compared artifact
+     */
+    Artifact getComparisonArtifact() {
+        final Artifact projectArtifact = RepositoryUtils.toArtifact(project.getArtifact());
+        return findRightHandArtifact().findFirst()
+                .orElseGet(() -> comparisonClassifier == null || comparisonClassifier.isEmpty()
+                        ? projectArtifact
+                        : new DefaultArtifact(projectArtifact.getGroupId(), projectArtifact.getArtifactId(),
+                        comparisonClassifier, projectArtifact.getExtension(), projectArtifact.getVersion()));
+    }
+
+    Result<File> resolveBaseline() {
+        return Fun.result0(() -> {
+            final List<RemoteRepository> aetherRepos = getRepositories(project);
+            findBaseArtifact(aetherRepos);
+            if (base.getVersion() != null && !base.getVersion().isEmpty()) {
+                ArtifactResult artifactResult = locateBaseJar(aetherRepos);
+                if ( !artifactResult.isMissing() ) {
+                    return artifactResult.getArtifact().getFile();
                 }
             }
-            base.setVersion(highest);
-            break;
-        }
+            throw new MojoFailureException("Unable to locate a previous version of the artifact");
+        }).get();
+    }
+
+    void findBaseArtifact(@NotNull List<RemoteRepository> aetherRepos) throws VersionRangeResolutionException {
+        logger.info("Determining the jardelta base version for {} using repositories {}", base, aetherRepos);
+
+        Artifact toFind = new DefaultArtifact(base.getGroupId(), base.getArtifactId(), base.getClassifier(),
+                base.getExtension(), base.getVersion());
+
+        base.setVersion(getBaselineResolver().findBaseVersion(toFind, aetherRepos));
 
         logger.info("The base version was found to be {}", base.getVersion());
     }
@@ -197,13 +361,124 @@ public class JarDeltaMojo extends AbstractMojo {
         Artifact toFind = new DefaultArtifact(base.getGroupId(), base.getArtifactId(), base.getClassifier(),
                 base.getExtension(), base.getVersion());
 
-        return system.resolveArtifact(session, new ArtifactRequest(toFind, aetherRepos, "jardelta"));
+        return getBaselineResolver().resolve(toFind, aetherRepos);
     }
 
-    void executePlan(@NotNull Context.ContextBuilder contextBuilder) {
-        final Plan plan = new Plan();
-        final Delta delta = plan.execute(contextBuilder.build());
+    void executePlan(@NotNull Context.ContextBuilder contextBuilder) throws IOException, MojoFailureException {
+        final Context context = contextBuilder.build();
+        final Delta delta;
+        if (incremental && stateFile != null) {
+            delta = executeIncrementalPlan(context, stateFile.toPath());
+        } else {
+            delta = new Plan().execute(context);
+        }
         delta.getResults().stream().forEachOrdered(diff -> logger.info("{}", diff));
+        if (archiveFile != null) {
+            DeltaArchiveWriter.write(delta, archiveFile.toPath());
+        }
+        final String label = context.getJars().both().right().getFileName().toString();
+        try (DeltaReportWriter reportWriter = openReportWriter()) {
+            if (reportWriter != null) {
+                reportWriter.writeDelta(label, delta, new Plan().getRefinementKinds());
+            }
+        }
+        checkSignificance(label, delta);
+    }
+
+    /**
+     * Return the stored delta if neither file has changed since the previous run with the same plugin build and
+     * settings, or else execute the plan and store its delta for the next run.
+     *
+     * @param context   the context
+     * @param stateFile the state file
+     * @return the delta
+     */
+    Delta executeIncrementalPlan(@NotNull Context context, @NotNull Path stateFile) {
+        final Result<String> buildKey = getBuildKey();
+        final Result<Both<String>> fingerprints = Both.ofResults(context.getJars().both()
+                .map(Fun.result1(DeltaState::fingerprint)));
+        if (buildKey.isFailure() || fingerprints.isFailure()) {
+            logger.debug("skip incremental comparison as the plugin build or compared files cannot be fingerprinted");
+            return new Plan().execute(context);
+        }
+        final String key = buildKey.getOrThrow() + "|" + Optional.ofNullable(context.getSettings())
+                .orElse(Settings.DEFAULT_SETTINGS);
+        final Optional<DeltaState> previous = DeltaState.read(stateFile)
+                .filter(state -> state.matches(key, fingerprints.getOrThrow()));
+        if (previous.isPresent()) {
+            logger.info("Both files are unchanged since the previous comparison, reusing the result from {}", stateFile);
+            return previous.get().toDelta();
+        }
+        final Delta delta = new Plan().execute(context);
+        if (delta.isHalted()) {
+            // a halted comparison is incomplete, so it must not be reused
+            return delta;
+        }
+        try {
+            new DeltaState(key, fingerprints.getOrThrow(), delta).write(stateFile);
+        } catch (IOException e) {
+            logger.warn("Unable to write jardelta state file {}", stateFile, e);
+        }
+        return delta;
+    }
+
+    /**
+     * Identify the build of the plugin and core jars by their fingerprints as well as the plugin version, so that a
+     * rebuilt snapshot of the same version does not reuse results produced by different code.
+     *
+     * @return the build key, or a failure if either jar cannot be fingerprinted, such as when loaded from a directory
+     */
+    Result<String> getBuildKey() {
+        return Stream.of(JarDeltaMojo.class, Plan.class)
+                .map(type -> Fun.result0(() -> type.getProtectionDomain().getCodeSource().getLocation().toURI())
+                        .get()
+                        .map(Path::of)
+                        .flatMap(Fun.result1(DeltaState::fingerprint)))
+                .collect(Result.tryCollect(Collectors.toList()))
+                .map(jarFingerprints -> pluginVersion + "|" + String.join("|", jarFingerprints));
+    }
+
+    void executeDistributionPlan(@NotNull Distributions distributions)
+            throws IOException, MojoExecutionException, MojoFailureException {
+        final DistributionDelta delta;
+        try (BatchPlan batchPlan = new BatchPlan()) {
+            delta = new DistributionPlan(batchPlan).execute(distributions, getSettings(), getHaltOn());
+        }
+        delta.getArtifacts().stream().forEachOrdered(diff -> logger.info("{}", diff));
+        delta.getDeltas().forEach((key, result) -> {
+            if (result.isFailure()) {
+                logger.error("{}: {}", key, result.getError().map(Throwable::getMessage).orElse("failed"));
+            } else {
+                result.getOrThrow().getResults().stream()
+                        .forEachOrdered(diff -> logger.info("{}: {}", key, diff));
+            }
+        });
+        try (DeltaReportWriter reportWriter = openReportWriter()) {
+            if (reportWriter != null) {
+                final List<Kind> phases = new Plan().getRefinementKinds();
+                for (Map.Entry<?, Result<Delta>> entry : delta.getDeltas().entrySet()) {
+                    final String label = String.valueOf(entry.getKey());
+                    if (entry.getValue().isFailure()) {
+                        reportWriter.writeFailure(label, entry.getValue().getError().orElseThrow());
+                    } else {
+                        reportWriter.writeDelta(label, entry.getValue().getOrThrow(), phases);
+                    }
+                }
+            }
+        }
+        logger.debug("Unchanged artifacts: {}", delta.getUnchanged());
+        checkSignificance("distribution", delta.getArtifacts().stream());
+        int failed = 0;
+        for (Map.Entry<?, Result<Delta>> entry : delta.getDeltas().entrySet()) {
+            if (entry.getValue().isSuccess()) {
+                checkSignificance(String.valueOf(entry.getKey()), entry.getValue().getOrThrow());
+            } else {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            throw new MojoExecutionException("jardelta failed to compare " + failed + " distribution artifacts");
+        }
     }
 
     static Result<URL> fileToURL(@NotNull File file) {
@@ -255,26 +530,4 @@ public class JarDeltaMojo extends AbstractMojo {
                         .filter(artifact -> comparisonClassifier.equals(artifact.getClassifier())))
                 .map(RepositoryUtils::toArtifact);
     }
-
-    private List<RemoteRepository> getRepositories(@NotNull MavenProject project) {
-        List<RemoteRepository> aetherRepos = RepositoryUtils.toRepos(project.getRemoteArtifactRepositories());
-
-        if (includeDistributionManagement) {
-            RemoteRepository releaseDistroRepo;
-            if (project.getArtifact().isSnapshot()) {
-                MavenProject tmpClone = project.clone();
-                tmpClone.getArtifact()
-                        .setVersion("1.0.0");
-                releaseDistroRepo = RepositoryUtils.toRepo(tmpClone.getDistributionManagementArtifactRepository());
-            } else {
-                releaseDistroRepo = RepositoryUtils.toRepo(project.getDistributionManagementArtifactRepository());
-            }
-
-            if (releaseDistroRepo != null) {
-                aetherRepos.add(0, releaseDistroRepo);
-            }
-        }
-
-        return aetherRepos;
-    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.adamcin.jardelta.mavenplugin;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts resolving the baseline for the {@code jardelta} goal in the background at the start of the build, so that
+ * version range resolution and download overlap with compilation and packaging instead of delaying the comparison.
+ * Should be configured with the same parameters as the {@code jardelta} goal.
+ */
+@Mojo(name = "prefetch", defaultPhase = LifecyclePhase.VALIDATE, threadSafe = true)
+public class JarDeltaPrefetchMojo extends JarDeltaMojo {
+    private static final Logger logger = LoggerFactory.getLogger(JarDeltaPrefetchMojo.class);
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (isSkip()) {
+            logger.debug("skip prefetch as configured");
+            return;
+        }
+        prefetchBaseline();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 Adobe
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.adamcin.jardelta.mavenplugin;
+
+import net.adamcin.jardelta.api.Kind;
+import net.adamcin.jardelta.api.Name;
+import net.adamcin.jardelta.api.diff.Diff;
+import net.adamcin.jardelta.api.diff.Verb;
+import net.adamcin.jardelta.core.Significance;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Predicate;
+
+/**
+ * Maps matching diffs to a {@link Significance}. Every criterion that is set must match.
+ */
+public class SignificanceRule {
+    private String kind;
+
+    private String name;
+
+    private Verb verb;
+
+    private Significance significance;
+
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * Set the kind of diffs to match.
+     *
+     * @param kind Matches diffs of this kind or any of its sub-kinds, e.g. {@code osgi.header}.
+     */
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Set the name of diffs to match.
+     *
+     * @param name Matches diffs with this name or any name beneath it, e.g.
+     *             {@code META-INF/MANIFEST.MF/Import-Package}.
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Verb getVerb() {
+        return verb;
+    }
+
+    /**
+     * Set the verb of diffs to match.
+     *
+     * @param verb Matches diffs with this verb, e.g. {@code REMOVED}.
+     */
+    public void setVerb(Verb verb) {
+        this.verb = verb;
+    }
+
+    public Significance getSignificance() {
+        return significance;
+    }
+
+    /**
+     * Set the significance of matching diffs.
+     *
+     * @param significance {@code TRIVIAL}, {@code MINOR}, or {@code MAJOR}.
+     */
+    public void setSignificance(Significance significance) {
+        this.significance = significance;
+    }
+
+    /**
+     * Parse the criteria of this rule once into a predicate.
+     *
+     * @return a predicate matching diffs that meet every criterion of this rule
+     */
+    @NotNull
+    Predicate<Diff> toPredicate() {
+        final Kind ruleKind = kind == null ? null : Kind.of(kind);
+        final Name ruleName = name == null ? null : Name.of(name);
+        return diff -> (ruleKind == null || diff.getKind().isSubKindOf(ruleKind))
+                && (ruleName == null || diff.getName().startsWithName(ruleName))
+                && (verb == null || diff.getVerb() == verb);
+    }
+
+    @Override
+    public String toString() {
+        return "SignificanceRule{kind=" + kind + ", name=" + name + ", verb=" + verb
+                + ", significance=" + significance + "}";
+    }
+}
@@ -25,12 +25,16 @@ import net.adamcin.jardelta.core.Context;
 import net.adamcin.jardelta.core.Delta;
 import net.adamcin.jardelta.core.Jars;
 import net.adamcin.jardelta.core.Plan;
+import net.adamcin.jardelta.core.Settings;
 import net.adamcin.jardelta.core.manifest.Manifests;
 import net.adamcin.jardelta.core.osgi.header.HeaderRefinementStrategy;
 import net.adamcin.jardelta.testing.DiffTestUtil;
 import net.adamcin.streamsupport.Both;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
 public class PlanIT {
@@ -69,4 +73,18 @@ public class PlanIT {
         final Diffs diffs = new Plan().execute(context).getResults();
         assertFalse(diffs.isEmpty());
     }
+
+    @Test
+    void parallelDescriptorParsingMatchesSequential() {
+        for (Both<ExampleJars> pair : List.of(
+                Both.of(ExampleJars.BUNDLE_SCR, ExampleJars.BUNDLE_DS),
+                Both.of(ExampleJars.BUNDLE_SCR, ExampleJars.BND_DS),
+                Both.of(ExampleJars.BUNDLE_DS, ExampleJars.BND_DS))) {
+            final Both<Diffs> bothDiffs = Both.of(true, false).map(parallel -> new Plan().execute(Context.builder()
+                    .jars(Jars.from(pair.left().getJarUrl(), pair.right().getJarUrl()))
+                    .settings(Settings.builder().parallelDescriptorParsing(parallel).build())
+                    .build()).getResults());
+            assertEquals(bothDiffs.left(), bothDiffs.right());
+        }
+    }
 }